@@ -0,0 +1,93 @@
+/**
+ * Zusammengefasste Ergebnisse vieler Spiele eines {@link BatchRunner}s. Jeder Thread sammelt in einem eigenen
+ * Ergebnis, die Ergebnisse werden am Ende zusammengeführt.
+ */
+public class BatchResult {
+    private long games;
+    private long won;
+    private long lost;
+    private long moves;
+    private long revealedFields;
+    private long nanos;
+
+    public BatchResult() {
+        this.games = 0L;
+        this.won = 0L;
+        this.lost = 0L;
+        this.moves = 0L;
+        this.revealedFields = 0L;
+        this.nanos = 0L;
+    }
+
+    public void add(GameSession session) {
+        ++this.games;
+
+        switch (session.outcome()) {
+            case WON -> ++this.won;
+            case LOST -> ++this.lost;
+            default -> {
+            }
+        }
+
+        this.moves += session.moves();
+        this.revealedFields += session.revealedFields();
+    }
+
+    public void merge(BatchResult other) {
+        this.games += other.games;
+        this.won += other.won;
+        this.lost += other.lost;
+        this.moves += other.moves;
+        this.revealedFields += other.revealedFields;
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public long games() {
+        return this.games;
+    }
+
+    public long won() {
+        return this.won;
+    }
+
+    public long lost() {
+        return this.lost;
+    }
+
+    /**
+     * @return die Anzahl der Spiele, die weder gewonnen noch verloren wurden, weil die Strategie aufgab oder die
+     * Zuggrenze erreicht war
+     */
+    public long unfinished() {
+        return this.games - this.won - this.lost;
+    }
+
+    public long moves() {
+        return this.moves;
+    }
+
+    public long revealedFields() {
+        return this.revealedFields;
+    }
+
+    public long nanos() {
+        return this.nanos;
+    }
+
+    public double gamesPerSecond() {
+        return this.nanos > 0L ? this.games * 1e9 / this.nanos : 0.0;
+    }
+
+    public double winRate() {
+        return this.games > 0L ? (double) this.won / this.games : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d won, %d lost, %d unfinished), win rate %.2f %%, %d moves, %.0f games/s",
+                this.games, this.won, this.lost, this.unfinished(), this.winRate() * 100.0, this.moves, this.gamesPerSecond());
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Spielt viele Spiele mit fester Größe ohne Anzeige auf allen Prozessorkernen. Spiel {@code n} verwendet den Seed
+ * {@code firstSeed + n}, ein Lauf ist deshalb bei gleichen Parametern und gleicher Strategie wiederholbar.
+ */
+public class BatchRunner {
+    private final int width;
+    private final int height;
+    private final int bombs;
+    private final int maxMoves;
+
+    public BatchRunner(int width, int height, int bombs, int maxMoves) {
+        if (bombs < 0 || bombs >= (long) width * height) {
+            throw new IllegalArgumentException("bombs must be in [0, width * height): " + bombs);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.bombs = bombs;
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Spielt {@code games} Spiele. Die Strategie wird für jedes Spiel aus dessen Seed neu angelegt.
+     */
+    public BatchResult run(int firstSeed, int games, IntFunction<Strategy> strategies) {
+        final long start = System.nanoTime();
+
+        final BatchResult result = IntStream.range(0, games)
+                .parallel()
+                .mapToObj(game -> this.play(firstSeed + game, strategies))
+                .collect(BatchResult::new, BatchResult::add, BatchResult::merge);
+
+        result.setNanos(System.nanoTime() - start);
+
+        return result;
+    }
+
+    private GameSession play(int seed, IntFunction<Strategy> strategies) {
+        final GameSession session = GameSession.square(seed, this.width, this.height, this.bombs);
+        // Die Spiele laufen bereits parallel, ein einzelnes Aufdecken soll nicht zusätzlich aufgeteilt werden.
+        session.setParallelReveal(false);
+
+        final Strategy strategy = strategies.apply(seed);
+
+        while (session.isRunning() && session.moves() < this.maxMoves) {
+            if (!strategy.move(session)) {
+                break;
+            }
+        }
+
+        return session;
+    }
+
+    public static void main(String[] args) {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        final int size = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        final int bombs = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+        final boolean random = args.length > 3 && args[3].equals("random");
+
+        final BatchRunner runner = new BatchRunner(size, size, bombs, size * size);
+
+        if (random) {
+            System.out.println(runner.run(0, games, RandomStrategy::new));
+        } else {
+            System.out.println(runner.run(0, games, seed -> new Solver()));
+        }
+    }
+}
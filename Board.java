@@ -0,0 +1,28 @@
+/**
+ * Speicher für den Zustand der Felder eines Spiels. Alle Zugriffe erfolgen über die Koordinaten des Feldes.
+ */
+public interface Board {
+    boolean isFieldAt(int x, int y);
+
+    boolean isBombAt(int x, int y);
+
+    boolean isRevealedAt(int x, int y);
+
+    boolean isFlaggedAt(int x, int y);
+
+    /**
+     * Liefert die Anzahl der Bomben in den acht Nachbarfeldern.
+     */
+    int bombsAround(int x, int y);
+
+    void setFieldAt(int x, int y);
+
+    void setRevealedAt(int x, int y);
+
+    void setFlagAt(int x, int y);
+
+    /**
+     * Liefert die Anzahl der Felder, für die Speicher belegt ist.
+     */
+    long storedCells();
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/**
+ * Bewertet die Schwierigkeit eines Spielfelds fester Größe. Leere Felder, also Felder ohne Bombe und ohne
+ * benachbarte Bomben, werden mit Union-Find zu Öffnungen zusammengefasst; ein Klick in eine Öffnung deckt sie samt
+ * ihrem Rand auf. Zahlen, die an kein leeres Feld grenzen, muss man einzeln anklicken. Der 3BV-Wert, die kleinste
+ * Anzahl an Klicks zum Lösen, ist die Summe aus beiden.
+ * <p>
+ * Ein Analysator behält seine Hilfsfelder zwischen zwei Aufrufen und ist nicht threadsicher, jeder Thread braucht
+ * einen eigenen.
+ */
+public final class BoardAnalyzer {
+    private int[] parent;
+    private boolean[] covered;
+
+    private int openings;
+    private int isolatedNumbers;
+
+    public BoardAnalyzer() {
+        this.parent = new int[0];
+        this.covered = new boolean[0];
+
+        this.openings = 0;
+        this.isolatedNumbers = 0;
+    }
+
+    /**
+     * Bewertet {@code board}. Die Ergebnisse gelten bis zum nächsten Aufruf.
+     */
+    public void analyze(DenseBoard board) {
+        final int width = board.width();
+        final int height = board.height();
+        final long[] bombs = board.bombPlane();
+        final byte[] counts = board.neighborCounts();
+
+        final int cells = width * height;
+
+        if (this.parent.length < cells) {
+            this.parent = new int[cells];
+            this.covered = new boolean[cells];
+        }
+
+        final boolean[] covered = this.covered;
+        Arrays.fill(covered, 0, cells, false);
+
+        int openings = 0;
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                final int cell = y * width + x;
+
+                if (counts[cell] != 0 || bit(bombs, cell)) {
+                    continue;
+                }
+
+                this.parent[cell] = cell;
+                ++openings;
+                cover(covered, width, height, x, y);
+
+                // Nur die schon besuchten Nachbarn links und in der Zeile darüber, jede Kante wird einmal vereinigt.
+                if (x > 0 && isEmpty(bombs, counts, cell - 1)) {
+                    openings -= this.union(cell, cell - 1);
+                }
+
+                if (y > 0) {
+                    final int above = cell - width;
+
+                    if (x > 0 && isEmpty(bombs, counts, above - 1)) {
+                        openings -= this.union(cell, above - 1);
+                    }
+
+                    if (isEmpty(bombs, counts, above)) {
+                        openings -= this.union(cell, above);
+                    }
+
+                    if (x + 1 < width && isEmpty(bombs, counts, above + 1)) {
+                        openings -= this.union(cell, above + 1);
+                    }
+                }
+            }
+        }
+
+        // Leere Felder sind bedeckt, übrig bleiben Bomben und die einzelnen Zahlen.
+        int uncovered = 0;
+
+        for (int cell = 0; cell < cells; ++cell) {
+            if (!covered[cell]) {
+                ++uncovered;
+            }
+        }
+
+        this.openings = openings;
+        this.isolatedNumbers = uncovered - countBombs(bombs);
+    }
+
+    /**
+     * @return die Anzahl der zusammenhängenden Bereiche leerer Felder
+     */
+    public int openings() {
+        return this.openings;
+    }
+
+    /**
+     * @return die Anzahl der Zahlen, die von keiner Öffnung aufgedeckt werden
+     */
+    public int isolatedNumbers() {
+        return this.isolatedNumbers;
+    }
+
+    public int threeBV() {
+        return this.openings + this.isolatedNumbers;
+    }
+
+    /**
+     * Vereinigt die Mengen von {@code a} und {@code b}.
+     *
+     * @return 1, wenn es zwei verschiedene Mengen waren, sonst 0
+     */
+    private int union(int a, int b) {
+        final int rootA = this.find(a);
+        final int rootB = this.find(b);
+
+        if (rootA == rootB) {
+            return 0;
+        }
+
+        // Die kleinere Wurzel bleibt, so zeigen die Verweise immer nach vorn.
+        if (rootA < rootB) {
+            this.parent[rootB] = rootA;
+        } else {
+            this.parent[rootA] = rootB;
+        }
+
+        return 1;
+    }
+
+    private int find(int cell) {
+        // Pfadhalbierung: jedes besuchte Feld zeigt danach auf seinen Großelternteil.
+        while (this.parent[cell] != cell) {
+            this.parent[cell] = this.parent[this.parent[cell]];
+            cell = this.parent[cell];
+        }
+
+        return cell;
+    }
+
+    /**
+     * Markiert ein leeres Feld und seine Nachbarn, die alle beim Aufdecken der Öffnung mit aufgedeckt werden.
+     */
+    private static void cover(boolean[] covered, int width, int height, int x, int y) {
+        final int left = Math.max(x - 1, 0);
+        final int right = Math.min(x + 1, width - 1);
+        final int top = Math.max(y - 1, 0);
+        final int bottom = Math.min(y + 1, height - 1);
+
+        for (int row = top; row <= bottom; ++row) {
+            Arrays.fill(covered, row * width + left, row * width + right + 1, true);
+        }
+    }
+
+    private static int countBombs(long[] bombs) {
+        int count = 0;
+
+        for (long word : bombs) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    private static boolean isEmpty(long[] bombs, byte[] counts, int cell) {
+        return counts[cell] == 0 && !bit(bombs, cell);
+    }
+
+    private static boolean bit(long[] plane, int index) {
+        return (plane[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,282 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Erzeugt viele Spielfelder fester Größe, bewertet sie mit einem {@link BoardAnalyzer} und schreibt für jedes einen
+ * Datensatz als CSV oder binär. Feld {@code n} hat den Seed {@code firstSeed + n} und ist dasselbe, das
+ * {@link GameLogic#generateSquareGame(int, int, int)} mit diesem Seed erzeugt.
+ * <p>
+ * Die Felder werden in Blöcken von {@link #BLOCK_SIZE} auf die Threads verteilt. Jeder Block hat seinen eigenen
+ * Analysator und Puffer, gemeinsam ist nur die Reihenfolge, in der die fertigen Blöcke geschrieben werden. Die
+ * Ausgabe hängt deshalb nicht von der Anzahl der Threads ab, und es sind nie mehr als zwei Blöcke pro Thread im
+ * Speicher.
+ * <p>
+ * Aufbau der Binärdatei (Big Endian):
+ * <pre>
+ * int    Kennung "MSBB"
+ * int    Version
+ * int    Breite, Höhe und Anzahl der Bomben
+ * int    Anzahl der Felder
+ *        pro Feld Seed, 3BV, Öffnungen und einzelne Zahlen als int
+ * </pre>
+ */
+public class BoardGenerator {
+    public static final int BLOCK_SIZE = 4096;
+
+    private static final int MAGIC = 0x4D534242;
+    private static final int VERSION = 1;
+    private static final int RECORD_BYTES = 4 * Integer.BYTES;
+
+    private static final String CSV_HEADER = "seed,width,height,bombs,3bv,openings,isolated_numbers\n";
+
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    private final int width;
+    private final int height;
+    private final int bombs;
+    private final int threads;
+
+    public BoardGenerator(int width, int height, int bombs, int threads) {
+        if (width <= 0 || height <= 0 || bombs < 0 || bombs >= (long) width * height) {
+            throw new IllegalArgumentException("Invalid board: " + width + "x" + height + " with " + bombs + " bombs");
+        }
+
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.bombs = bombs;
+        this.threads = threads;
+    }
+
+    /**
+     * Erzeugt {@code boards} Felder ab {@code firstSeed} und schreibt sie der Reihe nach in {@code output}. Der
+     * Strom wird nicht geschlossen.
+     */
+    public Summary write(int firstSeed, int boards, Format format, OutputStream output) throws IOException {
+        if (boards < 0) {
+            throw new IllegalArgumentException("boards must not be negative: " + boards);
+        }
+
+        final long start = System.nanoTime();
+        final Summary summary = new Summary();
+
+        this.writeHeader(boards, format, output);
+
+        final ExecutorService workers = Executors.newFixedThreadPool(this.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "board-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final ArrayDeque<CompletableFuture<Block>> pending = new ArrayDeque<>();
+
+        try {
+            int next = 0;
+
+            while (next < boards || !pending.isEmpty()) {
+                // Genug Blöcke voraus, damit kein Thread auf das Schreiben warten muss.
+                while (next < boards && pending.size() < 2 * this.threads) {
+                    final int seed = firstSeed + next;
+                    final int count = Math.min(BLOCK_SIZE, boards - next);
+
+                    pending.addLast(CompletableFuture.supplyAsync(() -> this.generate(seed, count, format), workers));
+                    next += count;
+                }
+
+                final Block block = pending.removeFirst().join();
+
+                output.write(block.bytes);
+                summary.merge(block.summary);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        summary.nanos = System.nanoTime() - start;
+
+        return summary;
+    }
+
+    private void writeHeader(int boards, Format format, OutputStream output) throws IOException {
+        if (format == Format.CSV) {
+            output.write(CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(6 * Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(this.width).putInt(this.height).putInt(this.bombs).putInt(boards);
+        output.write(header.array());
+    }
+
+    private Block generate(int firstSeed, int count, Format format) {
+        final BoardAnalyzer analyzer = new BoardAnalyzer();
+        final Summary summary = new Summary();
+
+        final StringBuilder csv = format == Format.CSV ? new StringBuilder(count * 32) : null;
+        final ByteBuffer binary = format == Format.BINARY ? ByteBuffer.allocate(count * RECORD_BYTES) : null;
+
+        for (int board = 0; board < count; ++board) {
+            final int seed = firstSeed + board;
+
+            // Wie GameLogic#generateSquareGame: ein eigener Zufallsgenerator pro Feld, nur aus dessen Seed.
+            final DenseBoard dense = new DenseBoard(this.width, this.height);
+            dense.placeBombs(this.bombs, new SplittableRandom(seed));
+
+            analyzer.analyze(dense);
+            summary.add(analyzer);
+
+            if (csv != null) {
+                csv.append(seed).append(',')
+                        .append(this.width).append(',')
+                        .append(this.height).append(',')
+                        .append(this.bombs).append(',')
+                        .append(analyzer.threeBV()).append(',')
+                        .append(analyzer.openings()).append(',')
+                        .append(analyzer.isolatedNumbers()).append('\n');
+            } else {
+                binary.putInt(seed).putInt(analyzer.threeBV()).putInt(analyzer.openings()).putInt(analyzer.isolatedNumbers());
+            }
+        }
+
+        final byte[] bytes = csv != null ? csv.toString().getBytes(StandardCharsets.US_ASCII) : binary.array();
+
+        return new Block(bytes, summary);
+    }
+
+    private static final class Block {
+        private final byte[] bytes;
+        private final Summary summary;
+
+        private Block(byte[] bytes, Summary summary) {
+            this.bytes = bytes;
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * Kennzahlen über alle geschriebenen Felder. Jeder Block sammelt in einer eigenen Zusammenfassung, der
+     * Schreiber führt sie zusammen.
+     */
+    public static final class Summary {
+        private long boards;
+        private long threeBV;
+        private long openings;
+        private long isolatedNumbers;
+        private int minThreeBV;
+        private int maxThreeBV;
+        private long nanos;
+
+        private Summary() {
+            this.boards = 0L;
+            this.threeBV = 0L;
+            this.openings = 0L;
+            this.isolatedNumbers = 0L;
+            this.minThreeBV = Integer.MAX_VALUE;
+            this.maxThreeBV = 0;
+            this.nanos = 0L;
+        }
+
+        private void add(BoardAnalyzer analyzer) {
+            ++this.boards;
+            this.threeBV += analyzer.threeBV();
+            this.openings += analyzer.openings();
+            this.isolatedNumbers += analyzer.isolatedNumbers();
+            this.minThreeBV = Math.min(this.minThreeBV, analyzer.threeBV());
+            this.maxThreeBV = Math.max(this.maxThreeBV, analyzer.threeBV());
+        }
+
+        private void merge(Summary other) {
+            this.boards += other.boards;
+            this.threeBV += other.threeBV;
+            this.openings += other.openings;
+            this.isolatedNumbers += other.isolatedNumbers;
+            this.minThreeBV = Math.min(this.minThreeBV, other.minThreeBV);
+            this.maxThreeBV = Math.max(this.maxThreeBV, other.maxThreeBV);
+        }
+
+        public long boards() {
+            return this.boards;
+        }
+
+        public double meanThreeBV() {
+            return this.boards > 0L ? (double) this.threeBV / this.boards : 0.0;
+        }
+
+        public double meanOpenings() {
+            return this.boards > 0L ? (double) this.openings / this.boards : 0.0;
+        }
+
+        public double meanIsolatedNumbers() {
+            return this.boards > 0L ? (double) this.isolatedNumbers / this.boards : 0.0;
+        }
+
+        public int minThreeBV() {
+            return this.boards > 0L ? this.minThreeBV : 0;
+        }
+
+        public int maxThreeBV() {
+            return this.maxThreeBV;
+        }
+
+        public long nanos() {
+            return this.nanos;
+        }
+
+        public double boardsPerSecond() {
+            return this.nanos > 0L ? this.boards * 1e9 / this.nanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d boards, 3BV mean %.2f (min %d, max %d), openings mean %.2f, isolated numbers mean %.2f, %.0f boards/s",
+                    this.boards, this.meanThreeBV(), this.minThreeBV(), this.maxThreeBV, this.meanOpenings(), this.meanIsolatedNumbers(), this.boardsPerSecond());
+        }
+    }
+
+    /**
+     * Aufruf: {@code BoardGenerator output [boards] [width] [height] [bombs] [threads] [firstSeed]}. Endet die
+     * Ausgabedatei auf {@code .csv}, wird CSV geschrieben, sonst das Binärformat.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BoardGenerator output [boards] [width] [height] [bombs] [threads] [firstSeed]");
+            System.exit(1);
+        }
+
+        final Path path = Path.of(args[0]);
+        final int boards = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        final int width = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        final int height = args.length > 3 ? Integer.parseInt(args[3]) : width;
+        final int bombs = args.length > 4 ? Integer.parseInt(args[4]) : 40;
+        final int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        final int firstSeed = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+
+        final Format format = path.getFileName().toString().endsWith(".csv") ? Format.CSV : Format.BINARY;
+        final BoardGenerator generator = new BoardGenerator(width, height, bombs, threads);
+
+        final Summary summary;
+
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            summary = generator.write(firstSeed, boards, format, output);
+        }
+
+        System.out.println(summary);
+        System.out.println("Wrote " + path + " (" + Files.size(path) + " bytes)");
+    }
+}
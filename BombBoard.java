@@ -0,0 +1,7 @@
+/**
+ * Ein {@link Board}, auf dem Bomben einzeln gesetzt werden. Bei {@link HashedBoard} ergeben sich die Bomben dagegen
+ * aus dem Seed, es implementiert deshalb nur {@link Board}.
+ */
+public interface BombBoard extends Board {
+    void setBombAt(int x, int y);
+}
@@ -0,0 +1,145 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Zwischenspeicher für bereits gezeichnete Ausschnitte des Spielfelds. Jeder Ausschnitt umfasst 32x32 Felder
+ * und wird erst neu gezeichnet, wenn sich eines seiner Felder geändert hat. Wird das Pixelbudget überschritten,
+ * werden die Ausschnitte verworfen, die im aktuellen Bild nicht gebraucht wurden.
+ */
+public class ChunkRenderCache {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final long MAX_CACHED_PIXELS = 16L * 1024 * 1024;
+
+    private final LongMap<RenderChunk> chunks;
+    private final LongQueue chunkKeys;
+
+    private long cachedPixels;
+    private long frame;
+
+    public ChunkRenderCache() {
+        this.chunks = new LongMap<>();
+        this.chunkKeys = new LongQueue();
+        this.cachedPixels = 0L;
+        this.frame = 0L;
+    }
+
+    /**
+     * Beginnt ein neues Bild und verwirft bei Bedarf Ausschnitte, die im letzten Bild nicht gebraucht wurden.
+     */
+    public void nextFrame() {
+        int checked = this.chunkKeys.size();
+
+        while (this.cachedPixels > MAX_CACHED_PIXELS && checked-- > 0) {
+            final long key = this.chunkKeys.poll();
+            final RenderChunk chunk = this.chunks.get(key);
+
+            if (chunk.lastUsed >= this.frame) {
+                this.chunkKeys.add(key);
+                continue;
+            }
+
+            this.chunks.remove(key);
+            this.cachedPixels -= pixelsOf(chunk.image);
+            chunk.image.flush();
+        }
+
+        ++this.frame;
+    }
+
+    /**
+     * Liefert den Ausschnitt an der Chunk-Position und legt ihn bei Bedarf in der angegebenen Größe an.
+     * Neu angelegte Ausschnitte sind als veraltet markiert.
+     */
+    public RenderChunk chunkAt(int chunkX, int chunkY, int width, int height, GraphicsConfiguration configuration) {
+        final long key = Coordinate.pack(chunkX, chunkY);
+
+        RenderChunk chunk = this.chunks.get(key);
+
+        if (chunk == null) {
+            final BufferedImage image;
+
+            if (configuration != null) {
+                image = configuration.createCompatibleImage(width, height, Transparency.OPAQUE);
+            } else {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+
+            chunk = new RenderChunk(image);
+
+            this.chunks.put(key, chunk);
+            this.chunkKeys.add(key);
+            this.cachedPixels += pixelsOf(image);
+        }
+
+        chunk.lastUsed = this.frame;
+
+        return chunk;
+    }
+
+    /**
+     * Markiert alle Ausschnitte als veraltet, die das Feld oder eines seiner Nachbarfelder enthalten.
+     */
+    public void markDirtyAround(int x, int y) {
+        this.markDirty((x - 1) >> CHUNK_SHIFT, (y - 1) >> CHUNK_SHIFT);
+        this.markDirty((x + 1) >> CHUNK_SHIFT, (y - 1) >> CHUNK_SHIFT);
+        this.markDirty((x - 1) >> CHUNK_SHIFT, (y + 1) >> CHUNK_SHIFT);
+        this.markDirty((x + 1) >> CHUNK_SHIFT, (y + 1) >> CHUNK_SHIFT);
+    }
+
+    public void markDirtyAt(int x, int y) {
+        this.markDirty(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+    }
+
+    /**
+     * Verwirft alle Ausschnitte, zum Beispiel wenn sich die Feldgröße geändert hat.
+     */
+    public void invalidate() {
+        while (!this.chunkKeys.isEmpty()) {
+            this.chunks.remove(this.chunkKeys.poll()).image.flush();
+        }
+
+        this.cachedPixels = 0L;
+    }
+
+    private void markDirty(int chunkX, int chunkY) {
+        final RenderChunk chunk = this.chunks.get(Coordinate.pack(chunkX, chunkY));
+
+        if (chunk != null) {
+            chunk.dirty = true;
+        }
+    }
+
+    private static long pixelsOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight();
+    }
+
+    public static final class RenderChunk {
+        private final BufferedImage image;
+        private boolean dirty;
+        private long lastUsed;
+
+        private RenderChunk(BufferedImage image) {
+            this.image = image;
+            this.dirty = true;
+            this.lastUsed = 0L;
+        }
+
+        public BufferedImage image() {
+            return this.image;
+        }
+
+        public boolean isDirty() {
+            return this.dirty;
+        }
+
+        public Graphics2D beginRedraw() {
+            this.dirty = false;
+
+            return this.image.createGraphics();
+        }
+    }
+}
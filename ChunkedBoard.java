@@ -0,0 +1,221 @@
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Speicher für Spiele ohne feste Grenzen. Die Welt ist in Chunks von 64x64 Feldern aufgeteilt, die erst beim
+ * ersten Schreibzugriff angelegt werden. Jede Zeile eines Chunks ist ein {@code long} pro Bit-Ebene, dazu kommt
+ * ein Byte pro Feld mit der Anzahl der benachbarten Bomben.
+ */
+public class ChunkedBoard implements BombBoard {
+    private static final int CHUNK_SHIFT = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final LongMap<Chunk> chunks;
+
+    private long lastKey;
+    private Chunk lastChunk;
+
+    public ChunkedBoard() {
+        this.chunks = new LongMap<>();
+        this.lastKey = 0L;
+        this.lastChunk = null;
+    }
+
+    public int chunkCount() {
+        return this.chunks.size();
+    }
+
+    @Override
+    public long storedCells() {
+        return (long) this.chunks.size() * CHUNK_SIZE * CHUNK_SIZE;
+    }
+
+    /**
+     * Liefert jeden Chunk mit seinen Bit-Ebenen {@code fields}, {@code bombs}, {@code revealed} und {@code flags}
+     * in dieser Reihenfolge, eine Zeile pro {@code long}. Die Ebenen werden nicht kopiert.
+     */
+    void forEachChunk(ObjLongConsumer<long[][]> action) {
+        this.chunks.forEach((chunk, key) -> action.accept(new long[][]{chunk.fields, chunk.bombs, chunk.revealed, chunk.flags}, key));
+    }
+
+    /**
+     * Legt einen gespeicherten Chunk an. Die Nachbarzähler entstehen erst mit {@link #countBombsIn(long)}, wenn
+     * alle Chunks angelegt sind.
+     */
+    void putChunk(long key, long[] fields, long[] bombs, long[] revealed, long[] flags) {
+        final Chunk chunk = new Chunk();
+
+        System.arraycopy(fields, 0, chunk.fields, 0, CHUNK_SIZE);
+        System.arraycopy(bombs, 0, chunk.bombs, 0, CHUNK_SIZE);
+        System.arraycopy(revealed, 0, chunk.revealed, 0, CHUNK_SIZE);
+        System.arraycopy(flags, 0, chunk.flags, 0, CHUNK_SIZE);
+
+        this.chunks.put(key, chunk);
+        this.lastChunk = null;
+    }
+
+    /**
+     * Zählt die Bomben eines Chunks bei ihren Nachbarn, auch über Chunk-Grenzen hinweg.
+     */
+    void countBombsIn(long key) {
+        final Chunk chunk = this.chunks.get(key);
+        final int left = Coordinate.unpackX(key) << CHUNK_SHIFT;
+        final int top = Coordinate.unpackY(key) << CHUNK_SHIFT;
+
+        for (int row = 0; row < CHUNK_SIZE; ++row) {
+            long bits = chunk.bombs[row];
+
+            while (bits != 0) {
+                final int x = left + Long.numberOfTrailingZeros(bits);
+                final int y = top + row;
+
+                for (int neighborY = y - 1; neighborY <= y + 1; ++neighborY) {
+                    for (int neighborX = x - 1; neighborX <= x + 1; ++neighborX) {
+                        if (neighborX != x || neighborY != y) {
+                            ++this.createChunkAt(neighborX, neighborY).neighborCounts[((neighborY & CHUNK_MASK) << CHUNK_SHIFT) | (neighborX & CHUNK_MASK)];
+                        }
+                    }
+                }
+
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean isFieldAt(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        return chunk != null && bit(chunk.fields, x, y);
+    }
+
+    @Override
+    public boolean isBombAt(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        return chunk != null && bit(chunk.bombs, x, y);
+    }
+
+    @Override
+    public boolean isRevealedAt(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        return chunk != null && bit(chunk.revealed, x, y);
+    }
+
+    @Override
+    public boolean isFlaggedAt(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        return chunk != null && bit(chunk.flags, x, y);
+    }
+
+    @Override
+    public int bombsAround(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        if (chunk == null) {
+            return 0;
+        }
+
+        return chunk.neighborCounts[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+
+    @Override
+    public void setFieldAt(int x, int y) {
+        setBit(this.createChunkAt(x, y).fields, x, y);
+    }
+
+    @Override
+    public void setBombAt(int x, int y) {
+        final Chunk chunk = this.createChunkAt(x, y);
+
+        setBit(chunk.fields, x, y);
+
+        if (bit(chunk.bombs, x, y)) {
+            return;
+        }
+
+        setBit(chunk.bombs, x, y);
+
+        // Bomben entstehen im prozeduralen Modus erst nach und nach, deshalb werden die Zähler der Nachbarn
+        // sofort nachgezogen. Dabei können auch Chunks ohne eigene Felder entstehen.
+        for (int row = y - 1; row <= y + 1; ++row) {
+            for (int column = x - 1; column <= x + 1; ++column) {
+                if (column != x || row != y) {
+                    ++this.createChunkAt(column, row).neighborCounts[((row & CHUNK_MASK) << CHUNK_SHIFT) | (column & CHUNK_MASK)];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setRevealedAt(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        if (chunk != null && bit(chunk.fields, x, y)) {
+            setBit(chunk.revealed, x, y);
+        }
+    }
+
+    @Override
+    public void setFlagAt(int x, int y) {
+        final Chunk chunk = this.chunkAt(x, y);
+
+        if (chunk != null && bit(chunk.fields, x, y)) {
+            setBit(chunk.flags, x, y);
+        }
+    }
+
+    private Chunk chunkAt(int x, int y) {
+        final long key = chunkKey(x, y);
+
+        if (this.lastChunk != null && this.lastKey == key) {
+            return this.lastChunk;
+        }
+
+        final Chunk chunk = this.chunks.get(key);
+
+        if (chunk != null) {
+            this.lastKey = key;
+            this.lastChunk = chunk;
+        }
+
+        return chunk;
+    }
+
+    private Chunk createChunkAt(int x, int y) {
+        Chunk chunk = this.chunkAt(x, y);
+
+        if (chunk == null) {
+            chunk = new Chunk();
+
+            this.chunks.put(chunkKey(x, y), chunk);
+
+            this.lastKey = chunkKey(x, y);
+            this.lastChunk = chunk;
+        }
+
+        return chunk;
+    }
+
+    private static long chunkKey(int x, int y) {
+        return Coordinate.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+    }
+
+    private static boolean bit(long[] plane, int x, int y) {
+        return (plane[y & CHUNK_MASK] & (1L << x)) != 0;
+    }
+
+    private static void setBit(long[] plane, int x, int y) {
+        plane[y & CHUNK_MASK] |= 1L << x;
+    }
+
+    private static final class Chunk {
+        private final long[] fields = new long[CHUNK_SIZE];
+        private final long[] bombs = new long[CHUNK_SIZE];
+        private final long[] revealed = new long[CHUNK_SIZE];
+        private final long[] flags = new long[CHUNK_SIZE];
+        private final byte[] neighborCounts = new byte[CHUNK_SIZE * CHUNK_SIZE];
+    }
+}
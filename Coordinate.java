@@ -1,5 +1,3 @@
-import java.util.Objects;
-
 public class Coordinate {
     private final int x;
     private final int y;
@@ -17,6 +15,21 @@ public class Coordinate {
         return y;
     }
 
+    /**
+     * Packt eine Koordinate in ein {@code long}, damit sie ohne eigenes Objekt abgelegt werden kann.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -27,7 +40,8 @@ public class Coordinate {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        // Gleicher Wert wie Objects.hash(x, y), aber ohne Varargs-Array und Boxing.
+        return 31 * (31 + x) + y;
     }
 
     @Override
@@ -0,0 +1,390 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+
+/**
+ * Speicher für Spiele mit fester Größe. Bomben, aufgedeckte Felder und Flaggen liegen als Bit-Ebenen vor,
+ * die Anzahl der benachbarten Bomben als Byte pro Feld. Ein Feld hat den Index {@code y * width + x}.
+ */
+public class DenseBoard implements BombBoard {
+    private static final VarHandle PLANE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle COUNTS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Verteilt die acht Bits eines Bytes auf die niedrigsten Bits von acht Bytes.
+     */
+    private static final long[] SPREAD = new long[256];
+
+    static {
+        for (int bits = 0; bits < 256; ++bits) {
+            for (int bit = 0; bit < 8; ++bit) {
+                SPREAD[bits] |= (long) ((bits >>> bit) & 1) << (bit << 3);
+            }
+        }
+    }
+
+    private final int width;
+    private final int height;
+
+    private final long[] bombs;
+    private final long[] revealed;
+    private final long[] flags;
+    private final byte[] neighborCounts;
+
+    public DenseBoard(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid board size: " + width + "x" + height);
+        }
+
+        this.width = width;
+        this.height = height;
+
+        final int cells = width * height;
+        final int words = (cells + 63) >>> 6;
+
+        this.bombs = new long[words];
+        this.revealed = new long[words];
+        this.flags = new long[words];
+        this.neighborCounts = new byte[cells];
+    }
+
+    /**
+     * Übernimmt gespeicherte Bit-Ebenen ohne Kopie, etwa aus einem {@link Snapshot}. Die Nachbarzähler werden
+     * daraus neu gebildet.
+     */
+    DenseBoard(int width, int height, long[] bombs, long[] revealed, long[] flags) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid board size: " + width + "x" + height);
+        }
+
+        final int cells = width * height;
+        final int words = (cells + 63) >>> 6;
+
+        if (bombs.length != words || revealed.length != words || flags.length != words) {
+            throw new IllegalArgumentException("Plane size does not match board size " + width + "x" + height);
+        }
+
+        this.width = width;
+        this.height = height;
+
+        this.bombs = bombs;
+        this.revealed = revealed;
+        this.flags = flags;
+        this.neighborCounts = new byte[cells];
+
+        this.countBombs();
+    }
+
+    public int width() {
+        return this.width;
+    }
+
+    public int height() {
+        return this.height;
+    }
+
+    @Override
+    public long storedCells() {
+        return (long) this.width * this.height;
+    }
+
+    @Override
+    public boolean isFieldAt(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height;
+    }
+
+    @Override
+    public boolean isBombAt(int x, int y) {
+        return this.isFieldAt(x, y) && bit(this.bombs, this.indexOf(x, y));
+    }
+
+    @Override
+    public boolean isRevealedAt(int x, int y) {
+        return this.isFieldAt(x, y) && bit(this.revealed, this.indexOf(x, y));
+    }
+
+    @Override
+    public boolean isFlaggedAt(int x, int y) {
+        return this.isFieldAt(x, y) && bit(this.flags, this.indexOf(x, y));
+    }
+
+    @Override
+    public int bombsAround(int x, int y) {
+        if (!this.isFieldAt(x, y)) {
+            return 0;
+        }
+
+        return this.neighborCounts[this.indexOf(x, y)];
+    }
+
+    @Override
+    public void setFieldAt(int x, int y) {
+        // Alle Felder innerhalb der Grenzen existieren bereits.
+    }
+
+    @Override
+    public void setBombAt(int x, int y) {
+        if (!this.isFieldAt(x, y)) {
+            return;
+        }
+
+        final int index = this.indexOf(x, y);
+
+        if (bit(this.bombs, index)) {
+            return;
+        }
+
+        setBit(this.bombs, index);
+
+        this.countBombAt(x, y);
+    }
+
+    private void countBombAt(int x, int y) {
+        if (x > 0 && y > 0 && x < this.width - 1 && y < this.height - 1) {
+            final int above = this.indexOf(x, y - 1);
+            final int center = above + this.width;
+            final int below = center + this.width;
+
+            ++this.neighborCounts[above - 1];
+            ++this.neighborCounts[above];
+            ++this.neighborCounts[above + 1];
+            ++this.neighborCounts[center - 1];
+            ++this.neighborCounts[center + 1];
+            ++this.neighborCounts[below - 1];
+            ++this.neighborCounts[below];
+            ++this.neighborCounts[below + 1];
+
+            return;
+        }
+
+        final int left = Math.max(x - 1, 0);
+        final int right = Math.min(x + 1, this.width - 1);
+        final int top = Math.max(y - 1, 0);
+        final int bottom = Math.min(y + 1, this.height - 1);
+
+        for (int row = top; row <= bottom; ++row) {
+            for (int column = left; column <= right; ++column) {
+                if (column != x || row != y) {
+                    ++this.neighborCounts[this.indexOf(column, row)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Verteilt {@code bombs} Bomben gleichverteilt auf ein leeres Spielfeld. Mit Floyds Stichprobenverfahren wird
+     * jede Bombe mit genau einer Zufallszahl gesetzt, danach werden die Nachbarzähler in einem Durchlauf gebildet.
+     */
+    public void placeBombs(int bombs, SplittableRandom random) {
+        final int cells = this.width * this.height;
+
+        if (bombs < 0 || bombs > cells) {
+            throw new IllegalArgumentException("Invalid bomb count: " + bombs);
+        }
+
+        for (int candidate = cells - bombs; candidate < cells; ++candidate) {
+            int index = random.nextInt(candidate + 1);
+
+            if (bit(this.bombs, index)) {
+                index = candidate;
+            }
+
+            setBit(this.bombs, index);
+        }
+
+        this.countBombs();
+    }
+
+    /**
+     * Bildet die Nachbarzähler aller Felder neu aus der Bomben-Ebene. Jede Zeile wird einmal in ganze Wörter
+     * ausgerichtet. Für je 64 Felder werden dann die acht verschobenen Nachbarzeilen bitweise zu vier Bit-Ebenen
+     * aufsummiert und über eine Tabelle zu je acht Zählern auf einmal ausgepackt.
+     */
+    private void countBombs() {
+        final int blocks = (this.width + 63) >>> 6;
+
+        long[] above = new long[blocks];
+        long[] current = new long[blocks];
+        long[] below = new long[blocks];
+
+        this.alignRow(0, current);
+        this.alignRow(1, below);
+
+        for (int y = 0; y < this.height; ++y) {
+            countRow(above, current, below, this.width, this.neighborCounts, y * this.width);
+
+            final long[] free = above;
+
+            above = current;
+            current = below;
+            below = free;
+
+            this.alignRow(y + 2, below);
+        }
+    }
+
+    /**
+     * Schreibt die Nachbarzähler einer Zeile von {@code width} Feldern ab {@code offset} nach {@code counts}. Die
+     * Zeilen darüber, die Zeile selbst und die darunter liegen bitweise ausgerichtet vor, ein {@code long} pro 64
+     * Felder.
+     */
+    static void countRow(long[] above, long[] current, long[] below, int width, byte[] counts, int offset) {
+        final int blocks = (width + 63) >>> 6;
+
+        for (int block = 0; block < blocks; ++block) {
+            final long left = block > 0 ? 1L : 0L;
+            final long right = block + 1 < blocks ? 1L : 0L;
+
+            final long upLeft = above[block] << 1 | (above[block - (int) left] >>> 63) & left;
+            final long up = above[block];
+            final long upRight = above[block] >>> 1 | (above[block + (int) right] << 63) & (right << 63);
+            final long sideLeft = current[block] << 1 | (current[block - (int) left] >>> 63) & left;
+            final long sideRight = current[block] >>> 1 | (current[block + (int) right] << 63) & (right << 63);
+            final long downLeft = below[block] << 1 | (below[block - (int) left] >>> 63) & left;
+            final long down = below[block];
+            final long downRight = below[block] >>> 1 | (below[block + (int) right] << 63) & (right << 63);
+
+            // Addierer-Baum: drei Volladdierer und ein Halbaddierer für die Einer, danach die Überträge.
+            final long sumA = upLeft ^ up ^ upRight;
+            final long carryA = (upLeft & up) | (upRight & (upLeft ^ up));
+            final long sumB = sideLeft ^ sideRight ^ downLeft;
+            final long carryB = (sideLeft & sideRight) | (downLeft & (sideLeft ^ sideRight));
+            final long sumC = down ^ downRight;
+            final long carryC = down & downRight;
+
+            final long count0 = sumA ^ sumB ^ sumC;
+            final long carryD = (sumA & sumB) | (sumC & (sumA ^ sumB));
+
+            final long sumE = carryA ^ carryB ^ carryC;
+            final long carryE = (carryA & carryB) | (carryC & (carryA ^ carryB));
+
+            final long count1 = sumE ^ carryD;
+            final long carryF = sumE & carryD;
+
+            final long count2 = carryE ^ carryF;
+            final long count3 = carryE & carryF;
+
+            final int x = block << 6;
+            final int cells = Math.min(64, width - x);
+
+            for (int group = 0; group < cells; group += 8) {
+                final long packed = SPREAD[(int) (count0 >>> group) & 0xFF]
+                        | SPREAD[(int) (count1 >>> group) & 0xFF] << 1
+                        | SPREAD[(int) (count2 >>> group) & 0xFF] << 2
+                        | SPREAD[(int) (count3 >>> group) & 0xFF] << 3;
+                final int index = offset + x + group;
+
+                if (cells - group >= 8) {
+                    COUNTS.set(counts, index, packed);
+                } else {
+                    for (int cell = 0; cell < cells - group; ++cell) {
+                        counts[index + cell] = (byte) (packed >>> (cell << 3));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Bomben einer Zeile ausgerichtet nach {@code row}, Bit {@code x} des Wortes {@code x / 64} ist
+     * Spalte {@code x}. Zeilen außerhalb des Spielfelds sind leer.
+     */
+    private void alignRow(int y, long[] row) {
+        for (int block = 0; block < row.length; ++block) {
+            row[block] = this.rowBits(y, block << 6);
+        }
+    }
+
+    /**
+     * Liefert die Bomben der Spalten {@code x} bis {@code x + 63} einer Zeile, Spalten außerhalb des Spielfelds
+     * sind leer.
+     */
+    private long rowBits(int y, int x) {
+        if (y < 0 || y >= this.height || x >= this.width) {
+            return 0L;
+        }
+
+        final long index = (long) y * this.width + x;
+        final int word = (int) (index >>> 6);
+        final int shift = (int) index & 63;
+
+        long bits = this.bombs[word] >>> shift;
+
+        if (shift != 0 && word + 1 < this.bombs.length) {
+            bits |= this.bombs[word + 1] << (64 - shift);
+        }
+
+        final int columns = this.width - x;
+
+        return columns < 64 ? bits & ((1L << columns) - 1) : bits;
+    }
+
+    @Override
+    public void setRevealedAt(int x, int y) {
+        if (this.isFieldAt(x, y)) {
+            setBit(this.revealed, this.indexOf(x, y));
+        }
+    }
+
+    /**
+     * Deckt das Feld atomar auf, damit mehrere Threads gleichzeitig aufdecken können.
+     *
+     * @return {@code true}, wenn genau dieser Aufruf das Feld aufgedeckt hat
+     */
+    public boolean tryRevealAt(int x, int y) {
+        if (!this.isFieldAt(x, y)) {
+            return false;
+        }
+
+        final int index = this.indexOf(x, y);
+        final long mask = 1L << index;
+
+        if ((this.revealed[index >>> 6] & mask) != 0) {
+            return false;
+        }
+
+        return ((long) PLANE.getAndBitwiseOr(this.revealed, index >>> 6, mask) & mask) == 0;
+    }
+
+    @Override
+    public void setFlagAt(int x, int y) {
+        if (this.isFieldAt(x, y)) {
+            setBit(this.flags, this.indexOf(x, y));
+        }
+    }
+
+    /**
+     * Die Bit-Ebenen selbst, nicht kopiert. Ein Feld hat das Bit {@code y * width + x}.
+     */
+    long[] bombPlane() {
+        return this.bombs;
+    }
+
+    long[] revealedPlane() {
+        return this.revealed;
+    }
+
+    long[] flagPlane() {
+        return this.flags;
+    }
+
+    /**
+     * Die Nachbarzähler selbst, nicht kopiert. Ein Feld hat den Index {@code y * width + x}.
+     */
+    byte[] neighborCounts() {
+        return this.neighborCounts;
+    }
+
+    private int indexOf(int x, int y) {
+        return y * this.width + x;
+    }
+
+    private static boolean bit(long[] plane, int index) {
+        return (plane[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] plane, int index) {
+        plane[index >>> 6] |= 1L << index;
+    }
+}
@@ -1,25 +1,64 @@
-import javax.imageio.ImageIO;
 import java.awt.Canvas;
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class GameDisplay {
     private static final int ROWS = 10;
     private static final int COLUMNS = 10;
     private static final float ZOOM_FACTOR = 0.01f;
+    private static final float MAX_VIEW_SIZE = 1 << 20;
+
+    private static final boolean ANIMATE_REVEAL = true;
+
+    /**
+     * Prozedurale Spiele mit Bomben aus Seed und Koordinaten, siehe {@link HashedBoard}.
+     */
+    private static final boolean HASHED_PROCEDURAL_GAME = true;
+    private static final int REVEAL_ANIMATION_CELLS_PER_UPDATE = 64;
+
+    private static final int CHUNK_CACHE_MAX_FIELD_SIZE = 16;
+    private static final float LEVEL_OF_DETAIL_FIELD_SIZE = 1.0f;
+
+    /**
+     * Rückgabe von {@link #beginFrame()}, wenn seit dem letzten Bild keine Eingabe eingegangen ist.
+     */
+    public static final long NO_INPUT = Long.MIN_VALUE;
+
+    /**
+     * Name der Datei, in der die Züge einer Sitzung für {@link Replay} aufgezeichnet werden. Jeder Start legt nach
+     * seiner Startzeit eine neue an, frühere Aufzeichnungen bleiben erhalten.
+     */
+    private static final DateTimeFormatter JOURNAL_FILE = DateTimeFormatter.ofPattern("'session-'yyyyMMdd-HHmmss-SSS'.journal'");
+
+    private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final int HUD_LINE_HEIGHT = 14;
+    private static final int HUD_WIDTH = 440;
+    private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 160);
 
     public static final int GAME_SIZE = 64;
     public static final int SPACES_PER_BOMB = 8;
 
     private final Map<FieldState, BufferedImage> textures;
+    private final TileCache tileCache;
+    private final ChunkRenderCache chunkRenderCache;
+    private final LodPyramid levelOfDetail;
+    private BufferedImage levelOfDetailImage;
+
+    private float chunkFieldWidth;
+    private float chunkFieldHeight;
 
     private float viewLeft, viewTop, viewRight, viewBottom;
 
@@ -27,6 +66,9 @@ public class GameDisplay {
     private int mouseCoordinateY;
 
     private final GameLogic gameLogic;
+    private final Journal journal;
+
+    private volatile ViewSnapshot view;
 
     private int mouseX;
     private int mouseY;
@@ -39,9 +81,34 @@ public class GameDisplay {
     private int canvasWidth;
     private int canvasHeight;
 
-    private final Vector<Coordinate> coordinatesToReveal;
+    private final LongQueue coordinatesToReveal;
+    private final LongHashSet hiddenCoordinates;
+    private final LongQueue revealedCoordinates;
+
+    private volatile boolean redrawRequested;
+    private long pendingInputTime;
+
+    private final Metrics metrics;
+    private boolean hudVisible;
+    private long cellsDrawn;
 
     public GameDisplay() {
+        this(Textures.loadAsync());
+    }
+
+    /**
+     * @param textures die Texturen aus {@link Textures#loadAsync()}. Auf sie wird erst gewartet, wenn alles andere
+     * angelegt ist.
+     */
+    public GameDisplay(CompletableFuture<Map<FieldState, BufferedImage>> textures) {
+        this(textures, Path.of(JOURNAL_FILE.format(LocalDateTime.now())));
+    }
+
+    /**
+     * @param journal die Datei, in der die Züge für {@link Replay} aufgezeichnet werden, oder {@code null} für ein
+     * Spiel ohne Aufzeichnung, etwa in Messungen
+     */
+    public GameDisplay(CompletableFuture<Map<FieldState, BufferedImage>> textures, Path journal) {
         this.viewLeft = -9.5f;
         this.viewTop = -9.5f;
         this.viewRight = 9.5f;
@@ -62,36 +129,62 @@ public class GameDisplay {
         this.mouseCoordinateX = 0;
         this.mouseCoordinateY = 0;
 
-        this.textures = new HashMap<>();
-        this.textures.put(FieldState.NONE, loadTexture("resource/texture/black.jpg"));
-        this.textures.put(FieldState.ERROR_STATE, loadTexture("resource/texture/explodiert.jpg"));
-        this.textures.put(FieldState.BLANK, loadTexture("resource/texture/blank.jpg"));
-        this.textures.put(FieldState.EMPTY, loadTexture("resource/texture/leer.jpg"));
-        this.textures.put(FieldState.ONE, loadTexture("resource/texture/eins.jpg"));
-        this.textures.put(FieldState.TWO, loadTexture("resource/texture/zwei.jpg"));
-        this.textures.put(FieldState.THREE, loadTexture("resource/texture/drei.jpg"));
-        this.textures.put(FieldState.FOUR, loadTexture("resource/texture/vier.jpg"));
-        this.textures.put(FieldState.FIVE, loadTexture("resource/texture/fuenf.jpg"));
-        this.textures.put(FieldState.SIX, loadTexture("resource/texture/sechs.jpg"));
-        this.textures.put(FieldState.SEVEN, loadTexture("resource/texture/sieben.jpg"));
-        this.textures.put(FieldState.EIGHT, loadTexture("resource/texture/acht.jpg"));
-        this.textures.put(FieldState.UNREVEALED_BOMB, loadTexture("resource/texture/blank.jpg"));
-        this.textures.put(FieldState.REVEALED_BOMB, loadTexture("resource/texture/explodiert.jpg"));
-        this.textures.put(FieldState.FLAG, loadTexture("resource/texture/fahne.jpg"));
+        this.view = new ViewSnapshot(this.viewLeft, this.viewTop, this.viewRight, this.viewBottom, 0, 0);
+
+        this.chunkRenderCache = new ChunkRenderCache();
+        this.levelOfDetail = new LodPyramid(this::displayedStateAt);
+        this.levelOfDetailImage = null;
+
+        this.chunkFieldWidth = 0.0f;
+        this.chunkFieldHeight = 0.0f;
 
         this.gameLogic = new GameLogic();
+        this.journal = openJournal(journal);
+        this.gameLogic.setJournal(this.journal);
         this.gameLogic.setSeed(0);
-        this.gameLogic.generateProceduralGame();
+        this.generateProceduralGame();
         //this.gameLogic.generateSquareGame(GAME_SIZE, GAME_SIZE, (int) (GAME_SIZE * GAME_SIZE / SPACES_PER_BOMB));
 
-        this.coordinatesToReveal = new Vector<>();
+        this.levelOfDetail.invalidate(this.gameLogic.minX(), this.gameLogic.minY(), this.gameLogic.maxX(), this.gameLogic.maxY());
+
+        this.coordinatesToReveal = new LongQueue();
+        this.hiddenCoordinates = new LongHashSet();
+        this.revealedCoordinates = new LongQueue();
+
+        this.redrawRequested = true;
+        this.pendingInputTime = NO_INPUT;
+
+        this.metrics = new Metrics();
+        this.metrics.gauge("reveal queue", this.coordinatesToReveal::size);
+        this.metrics.gauge("cells drawn", () -> this.cellsDrawn);
+        this.metrics.gauge("stored cells", this.gameLogic::storedCells);
+        this.metrics.gauge("revealed", this.gameLogic::revealedFields);
+        this.hudVisible = false;
+        this.cellsDrawn = 0L;
+
+        this.textures = awaitTextures(textures);
+        this.tileCache = new TileCache(this.textures);
     }
 
-    private BufferedImage loadTexture(String path) {
+    private static Journal openJournal(Path path) {
+        if (path == null) {
+            return null;
+        }
+
         try {
-            return ImageIO.read(new File(path));
+            return new Journal(path);
         } catch (IOException e) {
+            // Ohne Aufzeichnung weiterspielen.
             e.printStackTrace(System.err);
+            return null;
+        }
+    }
+
+    private static Map<FieldState, BufferedImage> awaitTextures(CompletableFuture<Map<FieldState, BufferedImage>> textures) {
+        try {
+            return textures.join();
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace(System.err);
             System.exit(1);
         }
 
@@ -138,74 +231,180 @@ public class GameDisplay {
         return this.viewBottom;
     }
 
+    /**
+     * Verarbeitet alle seit dem letzten Aufruf eingegangenen Ereignisse in ihrer Reihenfolge. Mausklicks wirken auf
+     * das Feld, über dem sich die Maus beim Klicken befand.
+     */
     public void processInput(Canvas canvas, KeyManager keyManager, MouseManager mouseManager) {
+        if (canvas.getWidth() != this.canvasWidth || canvas.getHeight() != this.canvasHeight) {
+            this.requestRedraw();
+        }
+
         this.canvasWidth = canvas.getWidth();
         this.canvasHeight = canvas.getHeight();
 
         this.mouseX = mouseManager.mouseX();
         this.mouseY = mouseManager.mouseY();
 
-        this.mouseCoordinateX = (int) Math.floor((float) mouseX / canvas.getWidth() * this.viewWidth() + this.viewLeft());
-        this.mouseCoordinateY = (int) Math.floor((float) mouseY / canvas.getHeight() * this.viewHeight() + this.viewTop());
+        final InputRing keyEvents = keyManager.events();
 
-        if (keyManager.hasNextKey()) {
-            int key = keyManager.nextKey();
+        while (keyEvents.poll()) {
+            this.noteInput(keyEvents.time());
+            this.processKey(keyEvents.value());
+        }
 
-            if (key == KeyEvent.VK_N) {
-                this.gameLogic.setSeed(this.gameLogic.seed() + 1);
-                this.gameLogic.generateSquareGame(GAME_SIZE, GAME_SIZE, (int) (GAME_SIZE * GAME_SIZE / SPACES_PER_BOMB));
-            }
+        final InputRing mouseEvents = mouseManager.events();
+
+        while (mouseEvents.poll()) {
+            this.noteInput(mouseEvents.time());
 
-            if (key == KeyEvent.VK_M) {
-                this.gameLogic.setSeed(this.gameLogic.seed() + 1);
-                this.gameLogic.generateProceduralGame();
+            switch (mouseEvents.kind()) {
+                case InputRing.MOUSE_PRESSED -> this.processMousePressed(mouseEvents.value(), mouseEvents.x(), mouseEvents.y());
+                case InputRing.MOUSE_RELEASED -> this.processMouseReleased(mouseEvents.value(), mouseEvents.x(), mouseEvents.y());
+                case InputRing.MOUSE_WHEEL -> this.processScroll(mouseEvents.value());
+                default -> {
+                }
             }
         }
 
-        if (mouseManager.hasNextPressedButton()) {
-            int button = mouseManager.nextPressedButton();
+        final int mouseCoordinateX = this.coordinateX(this.mouseX);
+        final int mouseCoordinateY = this.coordinateY(this.mouseY);
 
-            if (button == MouseEvent.BUTTON2) {
-                this.mouseTranslationSourceX = mouseManager.mouseX();
-                this.mouseTranslationSourceY = mouseManager.mouseY();
-                this.translationMode = true;
-            }
+        if (mouseCoordinateX != this.mouseCoordinateX || mouseCoordinateY != this.mouseCoordinateY) {
+            this.noteInput(mouseManager.moveTime());
+        }
 
-            if (button == MouseEvent.BUTTON1) {
-                final Coordinate coordinate = new Coordinate(this.mouseCoordinateX, this.mouseCoordinateY);
-                final Vector<Coordinate> coordinatesToReveal = this.gameLogic.interactAt(coordinate);
+        this.mouseCoordinateX = mouseCoordinateX;
+        this.mouseCoordinateY = mouseCoordinateY;
 
-                if (coordinatesToReveal != null) {
-                    this.coordinatesToReveal.addAll(coordinatesToReveal);
-                }
-            }
+        this.publishView();
+    }
 
-            if (button == MouseEvent.BUTTON3) {
-                final Coordinate coordinate = new Coordinate(this.mouseCoordinateX, this.mouseCoordinateY);
+    /**
+     * Merkt sich den frühesten Eingabezeitpunkt, der noch in keinem Bild zu sehen ist.
+     */
+    private void noteInput(long time) {
+        if (this.pendingInputTime == NO_INPUT || time - this.pendingInputTime < 0) {
+            this.pendingInputTime = time;
+        }
 
-                this.gameLogic.setFlagAt(coordinate);
-            }
+        this.requestRedraw();
+    }
+
+    /**
+     * Fordert ein neues Bild an, auch wenn sich am Spiel nichts geändert hat, etwa weil das Fenster wieder sichtbar
+     * wurde. Darf aus jedem Thread aufgerufen werden.
+     */
+    public void requestRedraw() {
+        this.redrawRequested = true;
+    }
+
+    /**
+     * @return ob sich seit dem letzten {@link #beginFrame()} etwas Sichtbares geändert hat
+     */
+    public boolean needsRedraw() {
+        return this.redrawRequested;
+    }
+
+    /**
+     * @return ob die Aufdeckanimation noch weitere Spielschritte braucht
+     */
+    public boolean isAnimating() {
+        return !this.coordinatesToReveal.isEmpty();
+    }
+
+    /**
+     * Beginnt ein neues Bild und nimmt die ausstehende Neuzeichnung zurück.
+     *
+     * @return der früheste Zeitpunkt einer Eingabe, die erst mit diesem Bild sichtbar wird, oder {@link #NO_INPUT}
+     */
+    public long beginFrame() {
+        final long inputTime = this.pendingInputTime;
+
+        this.pendingInputTime = NO_INPUT;
+        this.redrawRequested = false;
+
+        return inputTime;
+    }
+
+    private void processKey(int key) {
+        if (key == KeyEvent.VK_N) {
+            this.gameLogic.setSeed(this.gameLogic.seed() + 1);
+            this.gameLogic.generateSquareGame(GAME_SIZE, GAME_SIZE, (int) (GAME_SIZE * GAME_SIZE / SPACES_PER_BOMB));
+            this.resetBoardDisplay();
         }
 
-        if (mouseManager.hasNextReleasedButton()) {
-            if (mouseManager.nextReleasedButton() == MouseEvent.BUTTON2) {
-                this.mouseTranslationDestinationX = mouseManager.mouseX();
-                this.mouseTranslationDestinationY = mouseManager.mouseY();
-                this.translationMode = false;
+        if (key == KeyEvent.VK_F3) {
+            this.hudVisible = !this.hudVisible;
+            this.requestRedraw();
+        }
+
+        if (key == KeyEvent.VK_M) {
+            this.gameLogic.setSeed(this.gameLogic.seed() + 1);
+            this.generateProceduralGame();
+            this.resetBoardDisplay();
+        }
+    }
+
+    private void generateProceduralGame() {
+        if (HASHED_PROCEDURAL_GAME) {
+            this.gameLogic.generateHashedProceduralGame();
+        } else {
+            this.gameLogic.generateProceduralGame();
+        }
+    }
+
+    private void processMousePressed(int button, int x, int y) {
+        if (button == MouseEvent.BUTTON2) {
+            this.mouseTranslationSourceX = x;
+            this.mouseTranslationSourceY = y;
+            this.translationMode = true;
+        }
 
-                final float viewWidth = this.viewWidth();
-                final float viewHeight = this.viewHeight();
+        if (button == MouseEvent.BUTTON1) {
+            this.revealedCoordinates.clear();
+            this.gameLogic.reveal(this.coordinateX(x), this.coordinateY(y), this.revealedCoordinates);
 
-                this.viewLeft += (float) (this.mouseTranslationSourceX - this.mouseTranslationDestinationX) / this.canvasWidth * viewWidth;
-                this.viewTop += (float) (this.mouseTranslationSourceY - this.mouseTranslationDestinationY) / this.canvasHeight * viewHeight;
-                this.viewRight += (float) (this.mouseTranslationSourceX - this.mouseTranslationDestinationX) / this.canvasWidth * viewWidth;
-                this.viewBottom += (float) (this.mouseTranslationSourceY - this.mouseTranslationDestinationY) / this.canvasHeight * viewHeight;
+            while (!this.revealedCoordinates.isEmpty()) {
+                final long coordinate = this.revealedCoordinates.poll();
+
+                // Im prozeduralen Modus entstehen dabei auch neue Nachbarfelder.
+                this.markChangedAround(Coordinate.unpackX(coordinate), Coordinate.unpackY(coordinate));
+
+                if (ANIMATE_REVEAL) {
+                    this.coordinatesToReveal.add(coordinate);
+                    this.hiddenCoordinates.add(coordinate);
+                }
             }
         }
 
-        if (mouseManager.hasNextScroll()) {
-            final int scroll = mouseManager.nextScroll();
+        if (button == MouseEvent.BUTTON3) {
+            final int coordinateX = this.coordinateX(x);
+            final int coordinateY = this.coordinateY(y);
 
+            this.gameLogic.setFlagAt(coordinateX, coordinateY);
+            this.markChangedAt(coordinateX, coordinateY);
+        }
+    }
+
+    private void processMouseReleased(int button, int x, int y) {
+        if (button == MouseEvent.BUTTON2) {
+            this.mouseTranslationDestinationX = x;
+            this.mouseTranslationDestinationY = y;
+            this.translationMode = false;
+
+            final float viewWidth = this.viewWidth();
+            final float viewHeight = this.viewHeight();
+
+            this.viewLeft += (float) (this.mouseTranslationSourceX - this.mouseTranslationDestinationX) / this.canvasWidth * viewWidth;
+            this.viewTop += (float) (this.mouseTranslationSourceY - this.mouseTranslationDestinationY) / this.canvasHeight * viewHeight;
+            this.viewRight += (float) (this.mouseTranslationSourceX - this.mouseTranslationDestinationX) / this.canvasWidth * viewWidth;
+            this.viewBottom += (float) (this.mouseTranslationSourceY - this.mouseTranslationDestinationY) / this.canvasHeight * viewHeight;
+        }
+    }
+
+    private void processScroll(int scroll) {
+        if (scroll < 0 || Math.max(this.viewWidth(), this.viewHeight()) < MAX_VIEW_SIZE) {
             this.viewLeft -= scroll * this.viewWidth() * ZOOM_FACTOR;
             this.viewTop -= scroll * this.viewHeight() * ZOOM_FACTOR;
             this.viewRight += scroll * this.viewWidth() * ZOOM_FACTOR;
@@ -213,21 +412,80 @@ public class GameDisplay {
         }
     }
 
+    private int coordinateX(int x) {
+        return (int) Math.floor((float) x / this.canvasWidth * this.viewWidth() + this.viewLeft());
+    }
+
+    private int coordinateY(int y) {
+        return (int) Math.floor((float) y / this.canvasHeight * this.viewHeight() + this.viewTop());
+    }
+
+    /**
+     * Veröffentlicht den aktuellen Stand der Ansicht für das Zeichnen. Ein neuer Stand wird nur angelegt, wenn sich
+     * etwas geändert hat.
+     */
+    private void publishView() {
+        final float left = this.viewLeft();
+        final float top = this.viewTop();
+        final float right = this.viewRight();
+        final float bottom = this.viewBottom();
+
+        if (this.view.differs(left, top, right, bottom, this.mouseCoordinateX, this.mouseCoordinateY)) {
+            this.view = new ViewSnapshot(left, top, right, bottom, this.mouseCoordinateX, this.mouseCoordinateY);
+            this.requestRedraw();
+        }
+    }
+
     public void display(Canvas canvas, Graphics graphics) {
+        this.display(canvas, graphics, this.view);
+    }
+
+    /**
+     * Zeichnet ein Bild aus dem angegebenen Stand der Ansicht.
+     */
+    public void display(Canvas canvas, Graphics graphics, ViewSnapshot view) {
+        this.tileCache.update(canvas.getGraphicsConfiguration(), fieldWidth(canvas, view) + 1, fieldHeight(canvas, view) + 1);
+        this.cellsDrawn = 0L;
+
         drawBackground(canvas, graphics);
-        drawGame(canvas, graphics);
-        drawCursor(canvas, graphics);
+        drawGame(canvas, graphics, view);
+        drawCursor(canvas, graphics, view);
         drawBezels(canvas, graphics);
+
+        // Ohne HUD liest niemand die Zeilen, die Zeiten sammeln sich bis zum Einblenden oder zum Bericht am Ende.
+        if (this.hudVisible) {
+            this.metrics.update(System.nanoTime());
+            this.drawHud(canvas, graphics);
+        }
+    }
+
+    /**
+     * Zeichnet die Messwerte des zuletzt abgeschlossenen Fensters über das Spielfeld. Ein- und ausblenden mit F3.
+     */
+    private void drawHud(Canvas canvas, Graphics graphics) {
+        final String[] lines = this.metrics.lines();
+        final int left = (int) (canvas.getWidth() * 0.05) + 8;
+        final int top = (int) (canvas.getHeight() * 0.05) + 8;
+
+        graphics.setColor(HUD_BACKGROUND);
+        graphics.fillRect(left - 4, top - 4, HUD_WIDTH, lines.length * HUD_LINE_HEIGHT + 8);
+
+        graphics.setFont(HUD_FONT);
+        graphics.setColor(Color.WHITE);
+
+        for (int line = 0; line < lines.length; ++line) {
+            graphics.drawString(lines[line], left, top + (line + 1) * HUD_LINE_HEIGHT - 3);
+        }
     }
 
     /**
      * Zeichnet um das Feld über dem der Maus-Cursor sich befindet einen roten Rahmen.
      */
-    private void drawCursor(Canvas canvas, Graphics graphics) {
-        final int mouseFieldX = (int) (originX(canvas) + canvas.getWidth() / this.viewWidth() * this.mouseCoordinateX);
-        final int mouseFieldY = (int) (originY(canvas) + canvas.getHeight() / this.viewHeight() * this.mouseCoordinateY);
-        final int mouseFieldWidth = (int) (canvas.getWidth() / this.viewWidth());
-        final int mouseFieldHeight = (int) (canvas.getHeight() / this.viewHeight());
+    private void drawCursor(Canvas canvas, Graphics graphics, ViewSnapshot view) {
+        final int mouseFieldX = (int) (view.originX(canvas.getWidth()) + canvas.getWidth() / view.width() * view.mouseCoordinateX());
+        final int mouseFieldY = (int) (view.originY(canvas.getHeight()) + canvas.getHeight() / view.height() * view.mouseCoordinateY());
+        final int mouseFieldWidth = (int) (canvas.getWidth() / view.width());
+        final int mouseFieldHeight = (int) (canvas.getHeight() / view.height());
 
         graphics.setColor(Color.RED);
         graphics.drawRect(mouseFieldX, mouseFieldY, mouseFieldWidth, mouseFieldHeight);
@@ -241,80 +499,231 @@ public class GameDisplay {
         graphics.fillRect(0, (int) (canvas.getHeight() * 0.95), canvas.getWidth() + 1, (int) (canvas.getHeight() * 0.05) + 1);
     }
 
-    private void drawGame(Canvas canvas, Graphics graphics) {
-        for (int row = topMostVisibleRow(); row < bottomMostVisibleRow(); ++row) {
-            for (int column = leftMostVisibleColumn(); column < rightMostVisibleColumn(); ++column) {
-                final Coordinate coordinate = new Coordinate(column, row);
-                final FieldState state = this.gameLogic.fieldInfoAt(coordinate);
+    /**
+     * Zeichnet das Spielfeld aus zwischengespeicherten Ausschnitten. Nur Ausschnitte mit geänderten Feldern werden
+     * neu gezeichnet, beim Verschieben werden die Ausschnitte nur an anderer Stelle kopiert. Bei großen Feldern
+     * sind nur wenige Felder sichtbar, dann wird jedes Feld direkt gezeichnet.
+     */
+    private void drawGame(Canvas canvas, Graphics graphics, ViewSnapshot view) {
+        final float fieldWidth = canvas.getWidth() / view.width();
+        final float fieldHeight = canvas.getHeight() / view.height();
+
+        if (fieldWidth > CHUNK_CACHE_MAX_FIELD_SIZE || fieldHeight > CHUNK_CACHE_MAX_FIELD_SIZE) {
+            this.drawFields(canvas, graphics, view);
+            return;
+        }
 
-                this.drawField(canvas, graphics, coordinate, state);
+        if (fieldWidth < LEVEL_OF_DETAIL_FIELD_SIZE || fieldHeight < LEVEL_OF_DETAIL_FIELD_SIZE) {
+            this.drawLevelOfDetail(canvas, graphics, view, fieldWidth, fieldHeight);
+            return;
+        }
+
+        if (fieldWidth != this.chunkFieldWidth || fieldHeight != this.chunkFieldHeight) {
+            this.chunkRenderCache.invalidate();
+            this.chunkFieldWidth = fieldWidth;
+            this.chunkFieldHeight = fieldHeight;
+        }
+
+        this.chunkRenderCache.nextFrame();
+
+        final int chunkWidth = (int) (fieldWidth * ChunkRenderCache.CHUNK_SIZE) + 1;
+        final int chunkHeight = (int) (fieldHeight * ChunkRenderCache.CHUNK_SIZE) + 1;
+
+        final int firstChunkRow = view.topMostVisibleRow() >> ChunkRenderCache.CHUNK_SHIFT;
+        final int lastChunkRow = (view.bottomMostVisibleRow() - 1) >> ChunkRenderCache.CHUNK_SHIFT;
+        final int firstChunkColumn = view.leftMostVisibleColumn() >> ChunkRenderCache.CHUNK_SHIFT;
+        final int lastChunkColumn = (view.rightMostVisibleColumn() - 1) >> ChunkRenderCache.CHUNK_SHIFT;
+
+        for (int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; ++chunkRow) {
+            for (int chunkColumn = firstChunkColumn; chunkColumn <= lastChunkColumn; ++chunkColumn) {
+                final ChunkRenderCache.RenderChunk chunk = this.chunkRenderCache.chunkAt(chunkColumn, chunkRow, chunkWidth, chunkHeight, canvas.getGraphicsConfiguration());
+
+                if (chunk.isDirty()) {
+                    this.drawChunk(chunk, chunkColumn, chunkRow, fieldWidth, fieldHeight);
+                }
+
+                final int chunkX = (int) (view.originX(canvas.getWidth()) + fieldWidth * (chunkColumn << ChunkRenderCache.CHUNK_SHIFT));
+                final int chunkY = (int) (view.originY(canvas.getHeight()) + fieldHeight * (chunkRow << ChunkRenderCache.CHUNK_SHIFT));
+
+                graphics.drawImage(chunk.image(), chunkX, chunkY, null);
             }
         }
     }
 
-    private void drawField(Canvas canvas, Graphics graphics, Coordinate coordinate, FieldState state) {
-        final int fieldX = (int) (originX(canvas) + canvas.getWidth() / this.viewWidth() * coordinate.x());
-        final int fieldY = (int) (originY(canvas) + canvas.getHeight() / this.viewHeight() * coordinate.y());
-        final int fieldWidth = (int) (canvas.getWidth() / this.viewWidth());
-        final int fieldHeight = (int) (canvas.getHeight() / this.viewHeight());
+    /**
+     * Zeichnet bei starker Verkleinerung statt einzelner Felder die Blöcke der kleinsten Ebene, deren Blöcke noch
+     * mindestens einen Pixel groß sind. Jeder Block wird als ein Pixel in ein Bild geschrieben, das anschließend
+     * skaliert kopiert wird.
+     */
+    private void drawLevelOfDetail(Canvas canvas, Graphics graphics, ViewSnapshot view, float fieldWidth, float fieldHeight) {
+        this.levelOfDetail.refresh();
+
+        final float fieldSize = Math.min(fieldWidth, fieldHeight);
+
+        int level = LodPyramid.BASE_LEVEL;
+
+        while (level < LodPyramid.MAX_LEVEL && (1 << level) * fieldSize < 1.0f) {
+            ++level;
+        }
+
+        final int firstBlockColumn = view.leftMostVisibleColumn() >> level;
+        final int lastBlockColumn = (view.rightMostVisibleColumn() - 1) >> level;
+        final int firstBlockRow = view.topMostVisibleRow() >> level;
+        final int lastBlockRow = (view.bottomMostVisibleRow() - 1) >> level;
+
+        final int columns = lastBlockColumn - firstBlockColumn + 1;
+        final int rows = lastBlockRow - firstBlockRow + 1;
+
+        if (this.levelOfDetailImage == null || this.levelOfDetailImage.getWidth() < columns || this.levelOfDetailImage.getHeight() < rows) {
+            this.levelOfDetailImage = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        }
+
+        final int[] pixels = ((DataBufferInt) this.levelOfDetailImage.getRaster().getDataBuffer()).getData();
+        final int stride = this.levelOfDetailImage.getWidth();
+
+        for (int row = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column) {
+                pixels[row * stride + column] = this.levelOfDetail.colorAt(level, firstBlockColumn + column, firstBlockRow + row);
+            }
+        }
 
-        graphics.drawImage(texture(state), fieldX, fieldY, fieldWidth + 1, fieldHeight + 1, null);
+        this.cellsDrawn += (long) columns * rows;
+
+        final int left = (int) (view.originX(canvas.getWidth()) + fieldWidth * ((long) firstBlockColumn << level));
+        final int top = (int) (view.originY(canvas.getHeight()) + fieldHeight * ((long) firstBlockRow << level));
+        final int right = (int) (view.originX(canvas.getWidth()) + fieldWidth * ((long) (lastBlockColumn + 1) << level));
+        final int bottom = (int) (view.originY(canvas.getHeight()) + fieldHeight * ((long) (lastBlockRow + 1) << level));
+
+        graphics.drawImage(this.levelOfDetailImage, left, top, right, bottom, 0, 0, columns, rows, null);
     }
 
-    private static void drawBackground(Canvas canvas, Graphics graphics) {
+    private void drawChunk(ChunkRenderCache.RenderChunk chunk, int chunkColumn, int chunkRow, float fieldWidth, float fieldHeight) {
+        final Graphics2D graphics = chunk.beginRedraw();
+
         graphics.setColor(Color.BLACK);
-        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-    }
+        graphics.fillRect(0, 0, chunk.image().getWidth(), chunk.image().getHeight());
 
-    public void clean() {
+        final int firstColumn = chunkColumn << ChunkRenderCache.CHUNK_SHIFT;
+        final int firstRow = chunkRow << ChunkRenderCache.CHUNK_SHIFT;
 
-    }
+        for (int row = 0; row < ChunkRenderCache.CHUNK_SIZE; ++row) {
+            for (int column = 0; column < ChunkRenderCache.CHUNK_SIZE; ++column) {
+                final FieldState state = this.displayedStateAt(firstColumn + column, firstRow + row);
 
-    public void update() {
-        Vector<Coordinate> newToReveal = new Vector<>();
+                graphics.drawImage(this.tileCache.tile(state), (int) (fieldWidth * column), (int) (fieldHeight * row), null);
+            }
+        }
 
-        for (int batch = 0; batch < 12; batch++) {
-            if (!this.coordinatesToReveal.isEmpty()) {
-                Coordinate coordinate = this.coordinatesToReveal.get(0);
+        this.cellsDrawn += ChunkRenderCache.CHUNK_SIZE * ChunkRenderCache.CHUNK_SIZE;
 
-                Vector<Coordinate> result = this.gameLogic.interactAt(coordinate);
+        graphics.dispose();
+    }
 
-                if (result != null) {
-                    newToReveal.addAll(result);
-                }
+    private void drawFields(Canvas canvas, Graphics graphics, ViewSnapshot view) {
+        for (int row = view.topMostVisibleRow(); row < view.bottomMostVisibleRow(); ++row) {
+            for (int column = view.leftMostVisibleColumn(); column < view.rightMostVisibleColumn(); ++column) {
+                final FieldState state = this.displayedStateAt(column, row);
 
-                this.coordinatesToReveal.remove(0);
+                this.drawField(canvas, graphics, view, column, row, state);
             }
         }
 
-        this.coordinatesToReveal.addAll(newToReveal);
+        this.cellsDrawn += (long) (view.bottomMostVisibleRow() - view.topMostVisibleRow()) * (view.rightMostVisibleColumn() - view.leftMostVisibleColumn());
+    }
+
+    /**
+     * Liefert den Zustand, mit dem das Feld gezeichnet wird. Felder, deren Aufdeckung noch animiert wird, erscheinen
+     * verdeckt.
+     */
+    private FieldState displayedStateAt(int column, int row) {
+        if (!this.hiddenCoordinates.isEmpty() && this.hiddenCoordinates.contains(Coordinate.pack(column, row))) {
+            return FieldState.BLANK;
+        }
+
+        return this.gameLogic.fieldInfoAt(column, row);
+    }
+
+    private void drawField(Canvas canvas, Graphics graphics, ViewSnapshot view, int column, int row, FieldState state) {
+        final int fieldX = (int) (view.originX(canvas.getWidth()) + canvas.getWidth() / view.width() * column);
+        final int fieldY = (int) (view.originY(canvas.getHeight()) + canvas.getHeight() / view.height() * row);
+        final BufferedImage tile = this.tileCache.tile(state);
+
+        if (tile != null) {
+            graphics.drawImage(tile, fieldX, fieldY, null);
+        } else {
+            graphics.drawImage(this.tileCache.texture(state), fieldX, fieldY, fieldWidth(canvas, view) + 1, fieldHeight(canvas, view) + 1, null);
+        }
+    }
+
+    private static void drawBackground(Canvas canvas, Graphics graphics) {
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    /**
+     * Die Messwerte der Sitzung. Das Spiel meldet selbst Warteschlange, gezeichnete und gespeicherte Felder an.
+     */
+    public Metrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return die Anzahl der Felder, die beim letzten Bild gezeichnet wurden
+     */
+    public long cellsDrawn() {
+        return this.cellsDrawn;
     }
 
-    private float originX(Canvas canvas) {
-        return -this.viewLeft() / this.viewWidth() * canvas.getWidth();
+    public void clean() {
+        if (this.journal == null) {
+            return;
+        }
+
+        try {
+            this.journal.close();
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+        }
     }
 
-    private float originY(Canvas canvas) {
-        return -this.viewTop() / this.viewHeight() * canvas.getHeight();
+    /**
+     * Die Logik deckt ein Gebiet sofort vollständig auf. Hier werden die noch verdeckt gezeichneten Felder in
+     * Aufdeckreihenfolge nach und nach sichtbar gemacht.
+     */
+    public void update() {
+        for (int batch = 0; batch < REVEAL_ANIMATION_CELLS_PER_UPDATE && !this.coordinatesToReveal.isEmpty(); ++batch) {
+            final long coordinate = this.coordinatesToReveal.poll();
+
+            this.hiddenCoordinates.remove(coordinate);
+            this.markChangedAt(Coordinate.unpackX(coordinate), Coordinate.unpackY(coordinate));
+        }
     }
 
-    private int rightMostVisibleColumn() {
-        return (int) Math.floor(this.viewRight()) + 1;
+    private void resetBoardDisplay() {
+        this.coordinatesToReveal.clear();
+        this.hiddenCoordinates.clear();
+        this.chunkRenderCache.invalidate();
+        this.levelOfDetail.invalidate(this.gameLogic.minX(), this.gameLogic.minY(), this.gameLogic.maxX(), this.gameLogic.maxY());
+        this.requestRedraw();
     }
 
-    private int leftMostVisibleColumn() {
-        return (int) Math.ceil(this.viewLeft()) - 1;
+    private void markChangedAt(int x, int y) {
+        this.chunkRenderCache.markDirtyAt(x, y);
+        this.levelOfDetail.markDirtyAt(x, y);
+        this.requestRedraw();
     }
 
-    private int bottomMostVisibleRow() {
-        return (int) Math.floor(this.viewBottom()) + 1;
+    private void markChangedAround(int x, int y) {
+        this.chunkRenderCache.markDirtyAround(x, y);
+        this.levelOfDetail.markDirtyAround(x, y);
+        this.requestRedraw();
     }
 
-    private int topMostVisibleRow() {
-        return (int) Math.ceil(this.viewTop()) - 1;
+    private static int fieldWidth(Canvas canvas, ViewSnapshot view) {
+        return (int) (canvas.getWidth() / view.width());
     }
 
-    private BufferedImage texture(FieldState state) {
-        return this.textures.get(state);
+    private static int fieldHeight(Canvas canvas, ViewSnapshot view) {
+        return (int) (canvas.getHeight() / view.height());
     }
 }
@@ -0,0 +1,60 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Eigene Ereignisse für den JDK Flight Recorder. Aufnahmen, etwa mit {@code -XX:StartFlightRecording}, lassen sich
+ * später mit JDK Mission Control auswerten. Ohne laufende Aufnahme kosten die Ereignisse fast nichts.
+ */
+public final class GameEvents {
+    private GameEvents() {
+    }
+
+    @Name("minesweeper.Generation")
+    @Label("Generation")
+    @Category("Minesweeper")
+    public static final class Generation extends Event {
+        @Label("Seed")
+        int seed;
+
+        @Label("Mode")
+        String mode;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Bombs")
+        int bombs;
+    }
+
+    @Name("minesweeper.Reveal")
+    @Label("Reveal")
+    @Category("Minesweeper")
+    public static final class Reveal extends Event {
+        @Label("X")
+        int x;
+
+        @Label("Y")
+        int y;
+
+        @Label("Revealed Fields")
+        int revealed;
+    }
+
+    @Name("minesweeper.Frame")
+    @Label("Frame")
+    @Category("Minesweeper")
+    public static final class Frame extends Event {
+        @Label("Cells Drawn")
+        long cellsDrawn;
+
+        @Label("Input Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long inputLatency;
+    }
+}
@@ -1,6 +1,13 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
 
 public class GameFramework {
     public static final long SEED = 92161842;
@@ -9,8 +16,32 @@ public class GameFramework {
     private static final int DEFAULT_FRAME_WIDTH = 800;
     private static final int DEFAULT_FRAME_HEIGHT = 800;
 
-    private static final long SECOND = 1000L;
+    private static final long SECOND = 1_000_000_000L;
+    private static final int TICKS_PER_SECOND = 60;
+    private static final long TICK = SECOND / TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+
+    /**
+     * Obergrenze für die Bildrate, {@code 0} zeichnet ungebremst.
+     */
     private static final int TARGET_FRAMES_PER_SECOND = 640;
+    private static final long FRAME = TARGET_FRAMES_PER_SECOND > 0 ? SECOND / TARGET_FRAMES_PER_SECOND : 0L;
+
+    /**
+     * Zeichnet in einem eigenen Thread, während der Spielthread nur Eingaben und Spielschritte verarbeitet.
+     */
+    private static final boolean RENDER_THREAD = false;
+
+    /**
+     * Zeichnet nur, wenn sich etwas geändert hat. Ohne Eingaben und ohne laufende Animation ruht die Schleife, bis
+     * eine Eingabe sie weckt.
+     */
+    private static final boolean RENDER_ON_DEMAND = true;
+
+    /**
+     * So lange wartet das Beenden der JVM höchstens darauf, dass die Spielschleife aufgeräumt hat.
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2_000L;
 
     private final JFrame frame;
     private final Canvas canvas;
@@ -18,15 +49,44 @@ public class GameFramework {
     private final KeyManager keyManager;
     private final MouseManager mouseManager;
 
-    private long timer;
+    private volatile boolean running;
+    private volatile Thread gameThread;
+    private volatile Thread renderThread;
+    private final Thread shutdownHook;
 
-    private boolean running;
+    private long frames;
+    private long lateFrames;
+    private long droppedTicks;
+    private long idlePeriods;
+
+    private long inputLatencies;
+    private long totalInputLatency;
+    private long maxInputLatency;
 
     private final GameDisplay game;
 
+    private final Histogram frameTimes;
+    private final Histogram updateTimes;
+
+    private final long startTime;
+    private long firstFrameTime;
+    private long firstFrameUptime;
+
     public GameFramework() {
+        this.startTime = System.nanoTime();
+
+        // Die Texturen laden, während AWT das Fenster anlegt.
+        final CompletableFuture<Map<FieldState, BufferedImage>> textures = Textures.loadAsync();
+
         this.frame = new JFrame();
-        this.frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Das Fenster schließt erst clean(), nachdem die Schleife geendet hat, damit nicht mitten im Zeichnen.
+        this.frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        this.frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent event) {
+                GameFramework.this.stop();
+            }
+        });
 
         if(FULLSCREEN) {
             this.frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
@@ -35,13 +95,26 @@ public class GameFramework {
             this.frame.setSize(DEFAULT_FRAME_WIDTH, DEFAULT_FRAME_HEIGHT);
         }
 
-        this.canvas = new Canvas();
+        this.canvas = new Canvas() {
+            @Override
+            public void update(Graphics graphics) {
+                this.paint(graphics);
+            }
+
+            @Override
+            public void paint(Graphics graphics) {
+                // Freigelegte Bereiche neu zeichnen, statt sie vom Canvas löschen zu lassen.
+                GameFramework.this.requestRedraw();
+            }
+        };
         this.frame.add(this.canvas);
 
         this.keyManager = new KeyManager();
+        this.keyManager.setWakeUp(this::wakeUp);
         this.canvas.addKeyListener(this.keyManager);
 
         this.mouseManager = new MouseManager();
+        this.mouseManager.setWakeUp(this::wakeUp);
         this.canvas.addMouseListener(this.mouseManager);
         this.canvas.addMouseMotionListener(this.mouseManager);
         this.canvas.addMouseWheelListener(this.mouseManager);
@@ -50,57 +123,358 @@ public class GameFramework {
 
         this.canvas.createBufferStrategy(2);
 
-        this.timer = 0L;
-
         this.running = false;
+        this.shutdownHook = new Thread(this::awaitStop, "game-shutdown");
+
+        this.frames = 0L;
+        this.lateFrames = 0L;
+        this.droppedTicks = 0L;
+        this.idlePeriods = 0L;
 
-        this.game = new GameDisplay();
+        this.inputLatencies = 0L;
+        this.totalInputLatency = 0L;
+        this.maxInputLatency = 0L;
+
+        this.firstFrameTime = 0L;
+        this.firstFrameUptime = 0L;
+
+        this.game = new GameDisplay(textures);
+
+        this.frameTimes = this.game.metrics().timer("frame");
+        this.updateTimes = this.game.metrics().timer("update");
     }
 
     private void clean() {
+        System.out.println("Frames: " + this.frames + ", late frames: " + this.lateFrames + ", dropped ticks: " + this.droppedTicks + ", idle periods: " + this.idlePeriods);
+        System.out.printf("Input latency: average %.2f ms, max %.2f ms over %d frames%n", this.averageInputLatency() / 1e6, this.maxInputLatency / 1e6, this.inputLatencies);
+        System.out.printf("Startup: first frame %.1f ms after construction, %d ms after JVM start%n", (this.firstFrameTime - this.startTime) / 1e6, this.firstFrameUptime);
+
+        this.game.metrics().closeWindow(System.nanoTime());
+
+        for (String line : this.game.metrics().lines()) {
+            System.out.println(line);
+        }
+
         this.game.clean();
         this.frame.dispose();
     }
 
+    /**
+     * Beendet die Spielschleife nach dem laufenden Durchlauf. {@link #run()} räumt danach auf und kehrt zurück.
+     */
+    public void stop() {
+        this.running = false;
+        this.wakeUp();
+    }
+
+    /**
+     * Beim Beenden der JVM, etwa durch ein Signal: die Schleife anhalten und warten, bis Berichte und Aufzeichnung
+     * geschrieben sind.
+     */
+    private void awaitStop() {
+        this.stop();
+
+        final Thread gameThread = this.gameThread;
 
+        if (gameThread == null) {
+            return;
+        }
+
+        try {
+            gameThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void requestRedraw() {
+        this.game.requestRedraw();
+        this.wakeUp();
+    }
+
+    /**
+     * Weckt die ruhende Spielschleife, etwa nach einer Eingabe.
+     */
+    private void wakeUp() {
+        final Thread gameThread = this.gameThread;
+
+        if (gameThread != null) {
+            LockSupport.unpark(gameThread);
+        }
+
+        final Thread renderThread = this.renderThread;
+
+        if (renderThread != null) {
+            LockSupport.unpark(renderThread);
+        }
+    }
+
+    /**
+     * Spielschleife mit festem Zeitschritt. Eingaben werden in jedem Durchlauf verarbeitet, {@link GameDisplay#update()}
+     * läuft genau {@link #TICKS_PER_SECOND} Mal pro Sekunde. Kann die Schleife nicht mithalten, werden höchstens
+     * {@link #MAX_TICKS_PER_FRAME} Schritte nachgeholt und der Rest als verworfen gezählt.
+     * <p>
+     * Mit {@link #RENDER_ON_DEMAND} ruht die Schleife, solange weder gezeichnet noch animiert werden muss. Die Zeit
+     * in Ruhe zählt nicht als nachzuholende Spielschritte.
+     */
     public void run() {
         this.running = true;
+        this.gameThread = Thread.currentThread();
+
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+
+        Thread renderThread = null;
+
+        if (RENDER_THREAD) {
+            renderThread = new Thread(this::renderLoop, "render");
+            renderThread.setDaemon(true);
+            this.renderThread = renderThread;
+            renderThread.start();
+        }
 
-        long time, last = System.currentTimeMillis();
+        long previous = System.nanoTime();
+        long lag = 0L;
+        long nextFrame = previous;
 
         while (this.running) {
+            final long time = System.nanoTime();
+
+            lag += time - previous;
+            previous = time;
+
+            final boolean redraw;
+            final boolean animating;
+
+            synchronized (this.game) {
+                this.game.processInput(this.canvas, this.keyManager, this.mouseManager);
+
+                for (int ticks = 0; lag >= TICK && ticks < MAX_TICKS_PER_FRAME; ++ticks) {
+                    this.game.update();
+                    lag -= TICK;
+                }
+
+                this.updateTimes.record(System.nanoTime() - time);
+
+                redraw = !RENDER_ON_DEMAND || this.game.needsRedraw();
+                animating = !RENDER_ON_DEMAND || this.game.isAnimating();
+            }
+
+            if (lag >= TICK) {
+                this.droppedTicks += lag / TICK;
+                lag %= TICK;
+            }
+
+            if (RENDER_THREAD) {
+                if (redraw) {
+                    LockSupport.unpark(renderThread);
+                }
+
+                if (animating) {
+                    LockSupport.parkNanos(TICK - lag);
+                } else {
+                    this.idle();
+                    previous = System.nanoTime();
+                    lag = 0L;
+                }
+            } else if (redraw) {
+                this.render();
+                nextFrame = this.waitForNextFrame(nextFrame);
+            } else {
+                if (animating) {
+                    LockSupport.parkNanos(TICK - lag);
+                } else {
+                    this.idle();
+                    previous = System.nanoTime();
+                    lag = 0L;
+                }
+
+                nextFrame = System.nanoTime();
+            }
+
+            if (Thread.interrupted()) {
+                this.running = false;
+            }
+        }
+
+        if (renderThread != null) {
+            LockSupport.unpark(renderThread);
+
             try {
-                Thread.sleep(20);
+                renderThread.join();
             } catch (InterruptedException e) {
                 e.printStackTrace(System.err);
-                this.running = false;
             }
+        }
 
-            time = System.currentTimeMillis();
+        this.clean();
 
-            final long delta = time - last;
+        try {
+            Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+        } catch (IllegalStateException e) {
+            // Die JVM wird bereits beendet, der Haken wartet gerade auf diesen Thread.
+        }
+    }
 
-            this.timer += delta;
+    private void renderLoop() {
+        long nextFrame = System.nanoTime();
 
-            last = time;
+        while (this.running) {
+            if (RENDER_ON_DEMAND && !this.game.needsRedraw()) {
+                LockSupport.park(this);
+                nextFrame = System.nanoTime();
+                continue;
+            }
 
-            this.game.processInput(this.canvas, this.keyManager, this.mouseManager);
+            this.render();
+            nextFrame = this.waitForNextFrame(nextFrame);
+        }
+    }
+
+    /**
+     * Ruht, bis eine Eingabe die Schleife weckt. Eine Eingabe zwischen Prüfung und Ruhe geht nicht verloren, da
+     * {@link LockSupport#unpark(Thread)} auch vorab wirkt.
+     */
+    private void idle() {
+        ++this.idlePeriods;
+        LockSupport.park(this);
+    }
 
-            if(this.timer >= SECOND / TARGET_FRAMES_PER_SECOND){
-                this.game.update();
+    /**
+     * Zeichnet ein Bild. Das Spiel ist nur während des Zeichnens in den Hintergrundpuffer gesperrt, das Anzeigen
+     * und das Warten auf den Bildschirm laufen ohne Sperre.
+     */
+    private void render() {
+        final BufferStrategy bufferStrategy = this.canvas.getBufferStrategy();
+        final long start = System.nanoTime();
 
-                BufferStrategy bufferStrategy = this.canvas.getBufferStrategy();
-                Graphics graphics = bufferStrategy.getDrawGraphics();
+        final GameEvents.Frame event = new GameEvents.Frame();
+        event.begin();
 
-                this.game.display(canvas, graphics);
+        final long inputTime;
+
+        synchronized (this.game) {
+            inputTime = this.game.beginFrame();
+        }
+
+        do {
+            do {
+                final Graphics graphics = bufferStrategy.getDrawGraphics();
+
+                synchronized (this.game) {
+                    this.game.display(this.canvas, graphics);
+                }
 
                 graphics.dispose();
-                bufferStrategy.show();
+            } while (bufferStrategy.contentsRestored());
+
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+
+        Toolkit.getDefaultToolkit().sync();
+
+        ++this.frames;
+
+        final long end = System.nanoTime();
+
+        if (this.frames == 1L) {
+            this.firstFrameTime = end;
+            this.firstFrameUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        }
+
+        synchronized (this.game) {
+            this.frameTimes.record(end - start);
+        }
+
+        if (inputTime != GameDisplay.NO_INPUT) {
+            this.recordInputLatency(end - inputTime);
+        }
 
-                this.timer = 0;
+        if (event.shouldCommit()) {
+            event.cellsDrawn = this.game.cellsDrawn();
+            event.inputLatency = inputTime != GameDisplay.NO_INPUT ? end - inputTime : 0L;
+            event.commit();
+        }
+    }
+
+    /**
+     * Zeit von der frühesten Eingabe eines Bildes bis zu dessen Anzeige.
+     */
+    private void recordInputLatency(long latency) {
+        ++this.inputLatencies;
+        this.totalInputLatency += latency;
+        this.maxInputLatency = Math.max(this.maxInputLatency, latency);
+    }
+
+    /**
+     * Wartet bis zum nächsten Bild. Ein Bild, das erst nach seinem Termin fertig wurde, zählt als verspätet. Liegt
+     * die Schleife mehr als ein Bild zurück, wird der Takt neu angesetzt statt die Bilder nachzuholen.
+     *
+     * @return der Termin des nächsten Bildes
+     */
+    private long waitForNextFrame(long deadline) {
+        long time = System.nanoTime();
+
+        if (FRAME == 0L) {
+            return time;
+        }
+
+        deadline += FRAME;
+
+        if (time > deadline) {
+            ++this.lateFrames;
+
+            if (time - deadline > FRAME) {
+                return time;
             }
         }
 
-        this.clean();
+        while (deadline - time > 0) {
+            LockSupport.parkNanos(deadline - time);
+            time = System.nanoTime();
+        }
+
+        return deadline;
+    }
+
+    public long frames() {
+        return this.frames;
+    }
+
+    /**
+     * @return Zeit vom Anlegen des Frameworks bis zum ersten angezeigten Bild in Nanosekunden oder {@code -1}, solange
+     * es keines gibt
+     */
+    public long timeToFirstFrame() {
+        return this.frames > 0L ? this.firstFrameTime - this.startTime : -1L;
+    }
+
+    public long lateFrames() {
+        return this.lateFrames;
+    }
+
+    public long droppedTicks() {
+        return this.droppedTicks;
+    }
+
+    public long idlePeriods() {
+        return this.idlePeriods;
+    }
+
+    public long inputLatencies() {
+        return this.inputLatencies;
+    }
+
+    /**
+     * @return durchschnittliche Zeit von Eingabe bis Anzeige in Nanosekunden
+     */
+    public long averageInputLatency() {
+        return this.inputLatencies > 0L ? this.totalInputLatency / this.inputLatencies : 0L;
+    }
+
+    /**
+     * @return längste Zeit von Eingabe bis Anzeige in Nanosekunden
+     */
+    public long maxInputLatency() {
+        return this.maxInputLatency;
     }
 }
@@ -1,14 +1,25 @@
 
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Vector;
 
 public class GameLogic {
+    private static final int[] NEIGHBOR_X = {1, 1, 1, -1, -1, -1, 0, 0};
+    private static final int[] NEIGHBOR_Y = {1, 0, -1, 1, 0, -1, 1, -1};
+
+    /**
+     * Anzahl der Nachbarn eines Feldes. Die Nachbarn werden über ihren Index mit {@link #neighborX(int, int)} und
+     * {@link #neighborY(int, int)} durchlaufen.
+     */
+    public static final int NEIGHBORS = 8;
+
+    private static final int PARALLEL_REVEAL_THRESHOLD = 4096;
+
     private long seed;
 
-    private final Vector<Coordinate> bombs;
-    private final Vector<Coordinate> revealed;
-    private final Vector<Coordinate> fields;
-    private final Vector<Coordinate> flags;
+    private Board board;
+
+    private final LongQueue pendingReveal;
 
     private int minX, minY;
     private int maxX, maxY;
@@ -16,12 +27,25 @@ public class GameLogic {
     private Random random;
     private boolean procedural;
 
+    /**
+     * Das Spielfeld, wenn im prozeduralen Modus Bomben beim Wachsen gesetzt werden, bei {@link HashedBoard}
+     * {@code null}.
+     */
+    private BombBoard bombBoard;
+    private boolean parallelReveal;
+
+    private long safeFields;
+    private long revealedFields;
+    private boolean lost;
+
+    private Journal journal;
+
     public GameLogic() {
         this.seed = 0;
-        this.bombs = new Vector<>();
-        this.revealed = new Vector<>();
-        this.fields = new Vector<>();
-        this.flags = new Vector<>();
+        final ChunkedBoard board = new ChunkedBoard();
+        this.board = board;
+        this.bombBoard = board;
+        this.pendingReveal = new LongQueue();
 
         this.minX = 0;
         this.minY = 0;
@@ -29,100 +53,124 @@ public class GameLogic {
         this.maxY = 0;
 
         this.procedural = false;
+        this.parallelReveal = true;
 
-        Random random = new Random(this.seed);
+        this.safeFields = 0L;
+        this.revealedFields = 0L;
+        this.lost = false;
+
+        this.journal = null;
     }
 
     public void generateSquareGame(int width, int height, int bombs) {
-        if (bombs >= width * height) {
+        if (bombs >= (long) width * height) {
             System.err.println("Error: bombs >= width * height");
             System.exit(1);
         }
 
+        if (this.journal != null) {
+            this.journal.recordSquareGame((int) this.seed, width, height, bombs);
+        }
+
+        final GameEvents.Generation event = new GameEvents.Generation();
+        event.begin();
+
         this.minX = 0;
         this.minY = 0;
         this.maxX = width - 1;
         this.maxY = height - 1;
 
-        this.bombs.clear();
-        this.revealed.clear();
-        this.fields.clear();
+        final DenseBoard board = new DenseBoard(width, height);
+        board.placeBombs(bombs, new SplittableRandom(this.seed));
 
-        for (int row = 0; row < height; ++row) {
-            for (int column = 0; column < width; ++column) {
-                final Coordinate coordinate = new Coordinate(column, row);
+        this.board = board;
+        this.bombBoard = board;
 
-                this.setFieldAt(coordinate);
-            }
-        }
+        this.random = new Random(this.seed);
+        this.procedural = false;
 
-        Random random = new Random(this.seed);
+        this.safeFields = (long) width * height - bombs;
+        this.revealedFields = 0L;
+        this.lost = false;
+
+        if (event.shouldCommit()) {
+            event.seed = (int) this.seed;
+            event.mode = "square";
+            event.width = width;
+            event.height = height;
+            event.bombs = bombs;
+            event.commit();
+        }
+    }
 
-        for (int index = 0; index < bombs; ++index) {
-            Coordinate coordinate = new Coordinate(random.nextInt(width), random.nextInt(height));
+    public void generateProceduralGame() {
+        if (this.journal != null) {
+            this.journal.recordProceduralGame((int) this.seed, false);
+        }
 
-            while (this.bombs.contains(coordinate)) {
-                coordinate = new Coordinate(random.nextInt(width), random.nextInt(height));
-            }
+        this.startProceduralGame(new ChunkedBoard());
+    }
 
-            this.setBombAt(coordinate);
+    /**
+     * Wie {@link #generateProceduralGame()}, ob ein Feld eine Bombe ist, hängt aber nur von Seed und Koordinaten
+     * ab und nicht von der Reihenfolge, in der Felder erreicht werden. Siehe {@link HashedBoard}.
+     */
+    public void generateHashedProceduralGame() {
+        if (this.journal != null) {
+            this.journal.recordProceduralGame((int) this.seed, true);
         }
 
-        this.random = new Random(this.seed);
-        this.procedural = false;
+        this.startProceduralGame(new HashedBoard(this.seed));
     }
 
-    public void generateProceduralGame() {
+    private void startProceduralGame(Board board) {
+        final GameEvents.Generation event = new GameEvents.Generation();
+        event.begin();
+
         this.minX = 0;
         this.minY = 0;
         this.maxX = 0;
         this.maxY = 0;
 
-        this.bombs.clear();
-        this.revealed.clear();
-        this.fields.clear();
+        this.board = board;
 
         for (int row = this.minY; row <= this.maxY; ++row) {
             for (int column = this.minX; column <= this.maxX; ++column) {
-                final Coordinate coordinate = new Coordinate(column, row);
-
-                this.setFieldAt(coordinate);
+                this.board.setFieldAt(column, row);
             }
         }
 
         this.random = new Random(this.seed);
         this.procedural = true;
-    }
+        this.bombBoard = board instanceof BombBoard bombs ? bombs : null;
 
-    private void setBombAt(Coordinate coordinate) {
-        if (this.fields.contains(coordinate)) {
-            if (this.bombs.contains(coordinate)) {
-                return;
-            }
+        this.safeFields = Long.MAX_VALUE;
+        this.revealedFields = 0L;
+        this.lost = false;
 
-            this.bombs.add(coordinate);
-        } else {
-            this.setFieldAt(coordinate);
-            this.setBombAt(coordinate);
+        if (event.shouldCommit()) {
+            event.seed = (int) this.seed;
+            event.mode = this.bombBoard == null ? "hashed procedural" : "procedural";
+            event.commit();
         }
     }
 
-    private void setFieldAt(Coordinate coordinate) {
-        if (this.fields.contains(coordinate)) {
-            return;
-        }
+    public FieldState fieldInfoAt(Coordinate coordinate) {
+        return this.fieldInfoAt(coordinate.x(), coordinate.y());
+    }
 
-        this.fields.add(coordinate);
+    public FieldState fieldInfoAt(long packed) {
+        return this.fieldInfoAt(Coordinate.unpackX(packed), Coordinate.unpackY(packed));
     }
 
-    public FieldState fieldInfoAt(Coordinate coordinate) {
-        if (!this.fields.contains(coordinate)) {
+    public FieldState fieldInfoAt(int x, int y) {
+        if (!this.board.isFieldAt(x, y)) {
             return FieldState.NONE;
         }
 
-        boolean bomb = this.bombs.contains(coordinate);
-        boolean revealed = this.revealed.contains(coordinate);
-        boolean flagged = this.flags.contains(coordinate);
+        boolean bomb = this.board.isBombAt(x, y);
+        boolean revealed = this.board.isRevealedAt(x, y);
+        boolean flagged = this.board.isFlaggedAt(x, y);
 
         if (!revealed) {
             if (flagged) {
@@ -138,93 +186,229 @@ public class GameLogic {
             if (bomb) {
                 return FieldState.REVEALED_BOMB;
             } else {
-                int unsafeNeighbors = this.unsafeNeighborsAt(coordinate);
-
-                return switch (unsafeNeighbors) {
-                    case 0 -> FieldState.EMPTY;
-                    case 1 -> FieldState.ONE;
-                    case 2 -> FieldState.TWO;
-                    case 3 -> FieldState.THREE;
-                    case 4 -> FieldState.FOUR;
-                    case 5 -> FieldState.FIVE;
-                    case 6 -> FieldState.SIX;
-                    case 7 -> FieldState.SEVEN;
-                    case 8 -> FieldState.EIGHT;
-                    default -> FieldState.ERROR_STATE;
-                };
+                return revealedState(this.board.bombsAround(x, y));
             }
         }
     }
 
+    /**
+     * @return der Zustand eines aufgedeckten Feldes ohne Bombe mit {@code unsafeNeighbors} benachbarten Bomben
+     */
+    static FieldState revealedState(int unsafeNeighbors) {
+        return switch (unsafeNeighbors) {
+            case 0 -> FieldState.EMPTY;
+            case 1 -> FieldState.ONE;
+            case 2 -> FieldState.TWO;
+            case 3 -> FieldState.THREE;
+            case 4 -> FieldState.FOUR;
+            case 5 -> FieldState.FIVE;
+            case 6 -> FieldState.SIX;
+            case 7 -> FieldState.SEVEN;
+            case 8 -> FieldState.EIGHT;
+            default -> FieldState.ERROR_STATE;
+        };
+    }
+
     public Vector<Coordinate> interactAt(Coordinate coordinate) {
-        if (!this.fields.contains(coordinate)) {
-            return null;
-        }
+        final int x = coordinate.x();
+        final int y = coordinate.y();
 
-        if (this.revealed.contains(coordinate)) {
+        if (!this.board.isFieldAt(x, y) || this.board.isRevealedAt(x, y)) {
             return null;
         }
 
-        this.revealed.add(coordinate);
+        final int neighborsToReveal = this.interactAt(x, y);
 
-        if (this.bombs.contains(coordinate)) {
-            // TODO: IMPLEMENT GAME OVER
+        if (this.board.isBombAt(x, y) || this.board.bombsAround(x, y) != 0) {
             return null;
         }
 
-        if (this.procedural) {
-            for (Coordinate neighbor : this.neighborCoordinatesAt(coordinate)) {
-                if (!this.fields.contains(neighbor)) {
-                    setFieldAt(neighbor);
+        final Vector<Coordinate> coordinatesToReveal = new Vector<>(9);
 
-                    if (this.random.nextInt(8) == 0) {
-                        setBombAt(neighbor);
-                    }
-                }
+        for (int neighbor = 0; neighbor < NEIGHBORS; ++neighbor) {
+            if ((neighborsToReveal & (1 << neighbor)) != 0) {
+                coordinatesToReveal.add(new Coordinate(neighborX(x, neighbor), neighborY(y, neighbor)));
             }
         }
 
-        if (unsafeNeighborsAt(coordinate) == 0) {
-            Vector<Coordinate> neighborCoordinates = this.neighborCoordinatesAt(coordinate);
+        return coordinatesToReveal;
+    }
 
-            Vector<Coordinate> coordinatesToReveal = new Vector<>(9);
+    public int interactAt(long packed) {
+        return this.interactAt(Coordinate.unpackX(packed), Coordinate.unpackY(packed));
+    }
 
-            for (Coordinate neighbor : neighborCoordinates) {
-                if (this.revealed.contains(neighbor)) {
-                    continue;
-                }
+    /**
+     * Deckt ein Feld auf, ohne Objekte anzulegen. Hat das Feld keine benachbarten Bomben, ist im Ergebnis für jeden
+     * noch verdeckten Nachbarn das Bit mit dessen Index gesetzt.
+     *
+     * @return die Nachbarn, die als nächstes aufgedeckt werden sollten, oder {@code 0}
+     */
+    public int interactAt(int x, int y) {
+        if (this.journal != null) {
+            this.journal.recordInteract(x, y);
+        }
+
+        if (!this.revealAt(x, y)) {
+            return 0;
+        }
+
+        if (this.board.isBombAt(x, y)) {
+            this.lost = true;
+            return 0;
+        }
+
+        ++this.revealedFields;
+
+        if (this.board.bombsAround(x, y) != 0) {
+            return 0;
+        }
+
+        int neighborsToReveal = 0;
 
-                coordinatesToReveal.add(neighbor);
+        for (int neighbor = 0; neighbor < NEIGHBORS; ++neighbor) {
+            if (!this.board.isRevealedAt(neighborX(x, neighbor), neighborY(y, neighbor))) {
+                neighborsToReveal |= 1 << neighbor;
             }
+        }
+
+        return neighborsToReveal;
+    }
+
+    public static int neighborX(int x, int neighbor) {
+        return x + NEIGHBOR_X[neighbor];
+    }
+
+    public static int neighborY(int y, int neighbor) {
+        return y + NEIGHBOR_Y[neighbor];
+    }
 
-            return coordinatesToReveal;
+    /**
+     * Deckt das Feld und, falls es keine benachbarten Bomben hat, das gesamte zusammenhängende leere Gebiet samt
+     * Rand in einem Aufruf auf. Jedes Feld wird beim Einreihen markiert und landet deshalb nur einmal in der
+     * Warteschlange. Die aufgedeckten Felder werden in Aufdeckreihenfolge gepackt an {@code revealedCells}
+     * angehängt, sofern die Warteschlange nicht {@code null} ist.
+     * <p>
+     * Wächst die Warteschlange bei einem Spiel mit fester Größe über {@link #PARALLEL_REVEAL_THRESHOLD} Felder,
+     * wird der Rest des Gebiets mit {@link ParallelReveal} aufgedeckt. Die Reihenfolge ist dann nicht mehr die
+     * einer Breitensuche, die Menge der aufgedeckten Felder bleibt gleich.
+     *
+     * @return die Anzahl der neu aufgedeckten Felder
+     */
+    public int reveal(int x, int y, LongQueue revealedCells) {
+        if (this.journal != null) {
+            this.journal.recordReveal(x, y);
         }
 
-        return null;
+        final GameEvents.Reveal event = new GameEvents.Reveal();
+        event.begin();
+
+        final int revealed = this.revealCascade(x, y, revealedCells);
+
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.revealed = revealed;
+            event.commit();
+        }
+
+        return revealed;
     }
 
-    private int unsafeNeighborsAt(Coordinate coordinate) {
-        final Vector<Coordinate> neighborCoordinates = this.neighborCoordinatesAt(coordinate);
+    private int revealCascade(int x, int y, LongQueue revealedCells) {
+        if (!this.revealAt(x, y)) {
+            return 0;
+        }
+
+        if (revealedCells != null) {
+            revealedCells.add(Coordinate.pack(x, y));
+        }
 
-        return filterCoordinatesWithBombs(neighborCoordinates.stream().filter(this.bombs::contains).count());
+        if (this.board.isBombAt(x, y)) {
+            this.lost = true;
+            return 1;
+        }
+
+        int revealed = 1;
+
+        final LongQueue pending = this.pendingReveal;
+        pending.clear();
+        pending.add(Coordinate.pack(x, y));
+
+        while (!pending.isEmpty()) {
+            if (this.parallelReveal && pending.size() >= PARALLEL_REVEAL_THRESHOLD && this.board instanceof DenseBoard) {
+                revealed += ParallelReveal.reveal((DenseBoard) this.board, pending, revealedCells);
+                break;
+            }
+
+            final long cell = pending.poll();
+            final int cellX = Coordinate.unpackX(cell);
+            final int cellY = Coordinate.unpackY(cell);
+
+            if (this.board.bombsAround(cellX, cellY) != 0) {
+                continue;
+            }
+
+            for (int neighbor = 0; neighbor < NEIGHBOR_X.length; ++neighbor) {
+                final int neighborX = cellX + NEIGHBOR_X[neighbor];
+                final int neighborY = cellY + NEIGHBOR_Y[neighbor];
+
+                if (!this.revealAt(neighborX, neighborY)) {
+                    continue;
+                }
+
+                final long packed = Coordinate.pack(neighborX, neighborY);
+
+                pending.add(packed);
+                ++revealed;
+
+                if (revealedCells != null) {
+                    revealedCells.add(packed);
+                }
+            }
+        }
+
+        this.revealedFields += revealed;
+
+        return revealed;
     }
 
-    private int filterCoordinatesWithBombs(long neighborCoordinates) {
-        return (int) neighborCoordinates;
+    public int reveal(Coordinate coordinate, LongQueue revealedCells) {
+        return this.reveal(coordinate.x(), coordinate.y(), revealedCells);
     }
 
-    private Vector<Coordinate> neighborCoordinatesAt(Coordinate coordinate) {
-        final Vector<Coordinate> neighborCoordinates = new Vector<>(8);
-        neighborCoordinates.add(new Coordinate(coordinate.x() + 1, coordinate.y() + 1));
-        neighborCoordinates.add(new Coordinate(coordinate.x() + 1, coordinate.y()));
-        neighborCoordinates.add(new Coordinate(coordinate.x() + 1, coordinate.y() - 1));
-        neighborCoordinates.add(new Coordinate(coordinate.x() - 1, coordinate.y() + 1));
-        neighborCoordinates.add(new Coordinate(coordinate.x() - 1, coordinate.y()));
-        neighborCoordinates.add(new Coordinate(coordinate.x() - 1, coordinate.y() - 1));
-        neighborCoordinates.add(new Coordinate(coordinate.x(), coordinate.y() + 1));
-        neighborCoordinates.add(new Coordinate(coordinate.x(), coordinate.y() - 1));
+    /**
+     * Deckt genau ein Feld auf und legt im prozeduralen Modus die Nachbarfelder an.
+     *
+     * @return {@code false}, wenn das Feld nicht existiert oder bereits aufgedeckt war
+     */
+    private boolean revealAt(int x, int y) {
+        if (!this.board.isFieldAt(x, y)) {
+            return false;
+        }
+
+        if (this.board.isRevealedAt(x, y)) {
+            return false;
+        }
 
-        return neighborCoordinates;
+        this.board.setRevealedAt(x, y);
+
+        if (this.procedural && !this.board.isBombAt(x, y)) {
+            for (int neighbor = 0; neighbor < NEIGHBOR_X.length; ++neighbor) {
+                final int neighborX = x + NEIGHBOR_X[neighbor];
+                final int neighborY = y + NEIGHBOR_Y[neighbor];
+
+                if (!this.board.isFieldAt(neighborX, neighborY)) {
+                    this.board.setFieldAt(neighborX, neighborY);
+
+                    if (this.bombBoard != null && this.random.nextInt(8) == 0) {
+                        this.bombBoard.setBombAt(neighborX, neighborY);
+                    }
+                }
+            }
+        }
+
+        return true;
     }
 
     public int minY() {
@@ -243,6 +427,81 @@ public class GameLogic {
         return this.maxX;
     }
 
+    /**
+     * @return ob eine Bombe aufgedeckt wurde
+     */
+    public boolean isLost() {
+        return this.lost;
+    }
+
+    /**
+     * @return ob in einem Spiel mit fester Größe alle Felder ohne Bombe aufgedeckt sind. Ein prozedurales Spiel
+     * kann nicht gewonnen werden.
+     */
+    public boolean isWon() {
+        return !this.lost && this.revealedFields >= this.safeFields;
+    }
+
+    /**
+     * @return die Anzahl der aufgedeckten Felder ohne Bombe
+     */
+    public long revealedFields() {
+        return this.revealedFields;
+    }
+
+    /**
+     * @return die Anzahl der Felder, für die das Spielfeld Speicher belegt
+     */
+    public long storedCells() {
+        return this.board.storedCells();
+    }
+
+    public boolean isProcedural() {
+        return this.procedural;
+    }
+
+    Board board() {
+        return this.board;
+    }
+
+    Random random() {
+        return this.random;
+    }
+
+    long safeFields() {
+        return this.safeFields;
+    }
+
+    /**
+     * Setzt den vollständigen Spielstand, etwa beim Laden eines {@link Snapshot}s.
+     */
+    void restore(int seed, Board board, int minX, int minY, int maxX, int maxY, boolean procedural, Random random, long safeFields, long revealedFields, boolean lost) {
+        this.seed = seed;
+        this.board = board;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.procedural = procedural;
+        this.bombBoard = board instanceof BombBoard bombs ? bombs : null;
+        this.random = random;
+        this.safeFields = safeFields;
+        this.revealedFields = revealedFields;
+        this.lost = lost;
+    }
+
+    public void setParallelReveal(boolean parallelReveal) {
+        this.parallelReveal = parallelReveal;
+    }
+
+    /**
+     * Zeichnet ab jetzt alle Züge und neu erzeugten Spiele in {@code journal} auf, {@code null} beendet die
+     * Aufzeichnung.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
     public void setSeed(int seed) {
         this.seed = seed;
     }
@@ -252,16 +511,45 @@ public class GameLogic {
     }
 
     public void setFlagAt(Coordinate coordinate) {
-        if (!this.fields.contains(coordinate)) {
+        this.setFlagAt(coordinate.x(), coordinate.y());
+    }
+
+    public void setFlagAt(long packed) {
+        this.setFlagAt(Coordinate.unpackX(packed), Coordinate.unpackY(packed));
+    }
+
+    public void setFlagAt(int x, int y) {
+        if (this.journal != null) {
+            this.journal.recordFlag(x, y);
+        }
+
+        if (!this.board.isFieldAt(x, y)) {
             return;
         }
 
-        if (this.flags.contains(coordinate)) {
+        if (this.board.isFlaggedAt(x, y)) {
             return;
         }
 
-        if (this.bombs.contains(coordinate)) {
-            this.flags.add(coordinate);
+        if (this.board.isBombAt(x, y)) {
+            this.board.setFlagAt(x, y);
         }
     }
+
+    /**
+     * Setzt eine Flagge auf jedes verdeckte Feld, ob Bombe oder nicht. Anders als bei {@link #setFlagAt(int, int)}
+     * verrät eine liegen gebliebene Flagge so nichts über das Feld darunter. Der Zug wird nicht aufgezeichnet, ein
+     * {@link Journal} kennt nur Flaggen nach den Regeln von {@link #setFlagAt(int, int)}.
+     */
+    public void placeFlagAt(int x, int y) {
+        if (!this.board.isFieldAt(x, y)) {
+            return;
+        }
+
+        if (this.board.isRevealedAt(x, y) || this.board.isFlaggedAt(x, y)) {
+            return;
+        }
+
+        this.board.setFlagAt(x, y);
+    }
 }
@@ -0,0 +1,543 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TCP-Server, der viele voneinander unabhängige Spiele in einer JVM betreibt. Jede Verbindung bekommt eine eigene
+ * {@link GameSession} und einen eigenen virtuellen Thread, der blockierend über ihren {@link SocketChannel} liest
+ * und schreibt. Verbindungen, über die länger als {@code idleTimeout} kein Zug kommt, werden geschlossen und ihr
+ * Spiel verworfen.
+ * <p>
+ * Anfragen (Big Endian):
+ * <pre>
+ * NEW_GAME  byte 1, int Seed, int Breite, int Höhe, int Bomben; Breite 0 startet ein prozedurales Spiel,
+ *           Breite -1 tritt der gemeinsamen Welt mit diesem Seed bei
+ * REVEAL    byte 2, int x, int y
+ * FLAG      byte 3, int x, int y
+ * </pre>
+ * Jede Anfrage wird beantwortet mit {@code int} Länge des Rests, {@code byte} {@link GameSession.Outcome} und der
+ * Varint-Anzahl der geänderten Felder. Pro Feld folgen zigzag(dx) und zigzag(dy) als Varints, der Abstand zum
+ * vorigen Feld oder beim ersten Feld zum Zug, und der sichtbare {@link FieldState} als Byte. Eine fehlerhafte
+ * Anfrage schließt die Verbindung.
+ * <p>
+ * Spiele mit fester Größe teilen sich ein Budget an Feldern, das für alle Verbindungen zusammen gilt. Ein
+ * NEW_GAME, das es überschreiten würde, wird wie eine fehlerhafte Anfrage abgelehnt. Die Felder eines Spiels werden
+ * frei, sobald seine Verbindung ein anderes Spiel beginnt oder geschlossen wird.
+ * <p>
+ * Alle Spieler einer {@link SharedWorld} beginnen am Ursprung und sehen die Züge der anderen. Eine aufgedeckte
+ * Bombe beendet dort kein Spiel, die Antwort meldet immer {@link GameSession.Outcome#RUNNING}. Eine gemeinsame Welt
+ * besteht, solange mindestens eine Verbindung in ihr spielt. Verlässt die letzte sie, auch durch Schließen wegen
+ * Untätigkeit, wird sie verworfen und ein späterer Beitritt beginnt sie neu.
+ */
+public class GameServer implements Closeable {
+    public static final byte NEW_GAME = 1;
+    public static final byte REVEAL = 2;
+    public static final byte FLAG = 3;
+
+    public static final int SHARED_WORLD = -1;
+
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * Felder, die alle Spiele mit fester Größe zusammen belegen dürfen, mit gut einem Byte je Feld in einem
+     * {@link DenseBoard} etwa 180 MiB.
+     */
+    public static final long DEFAULT_CELL_BUDGET = 1L << 27;
+
+    /**
+     * Größtes Spielfeld, das ein Client anlegen darf.
+     */
+    private static final long MAX_CELLS = 1L << 22;
+
+    private static final int BACKLOG = 4096;
+
+    private static final int NEW_GAME_SIZE = 4 * Integer.BYTES;
+    private static final int MOVE_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Längste Kodierung eines Feldes: zwei Varints und ein Byte.
+     */
+    private static final int MAX_CELL_SIZE = 5 + 5 + 1;
+
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService sessions;
+    private final ScheduledExecutorService reaper;
+    private final Set<Connection> connections;
+    private final ConcurrentHashMap<Integer, World> worlds;
+    private final long idleTimeout;
+    private final long cellBudget;
+    private final Thread acceptor;
+
+    private final AtomicLong allocatedCells;
+    private final LongAdder moves;
+    private final LongAdder sessionsServed;
+    private final LongAdder evictedSessions;
+    private final LongAdder refusedGames;
+
+    private volatile boolean running;
+
+    public GameServer(InetSocketAddress address, long idleTimeout) throws IOException {
+        this(address, idleTimeout, DEFAULT_CELL_BUDGET);
+    }
+
+    /**
+     * @param cellBudget die Felder, die alle Spiele mit fester Größe zusammen belegen dürfen
+     */
+    public GameServer(InetSocketAddress address, long idleTimeout, long cellBudget) throws IOException {
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address, BACKLOG);
+
+        this.sessions = VirtualThreads.newThreadPerTaskExecutor();
+        this.reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "session-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.worlds = new ConcurrentHashMap<>();
+        this.idleTimeout = idleTimeout;
+        this.cellBudget = cellBudget;
+        this.acceptor = new Thread(this::accept, "session-acceptor");
+
+        this.allocatedCells = new AtomicLong();
+        this.moves = new LongAdder();
+        this.sessionsServed = new LongAdder();
+        this.evictedSessions = new LongAdder();
+        this.refusedGames = new LongAdder();
+
+        this.running = false;
+    }
+
+    public int port() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    public void start() {
+        this.running = true;
+        this.acceptor.start();
+
+        final long period = Math.max(this.idleTimeout / 4, TimeUnit.MILLISECONDS.toNanos(100));
+        this.reaper.scheduleAtFixedRate(this::evictIdleSessions, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Nimmt keine Verbindungen mehr an, schließt alle offenen und wartet auf das Ende ihrer Threads.
+     */
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        this.serverChannel.close();
+        this.reaper.shutdownNow();
+
+        for (Connection connection : this.connections) {
+            connection.close();
+        }
+
+        this.sessions.shutdown();
+
+        try {
+            this.acceptor.join();
+            this.sessions.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long moves() {
+        return this.moves.sum();
+    }
+
+    public long sessionsServed() {
+        return this.sessionsServed.sum();
+    }
+
+    public long evictedSessions() {
+        return this.evictedSessions.sum();
+    }
+
+    public int activeSessions() {
+        return this.connections.size();
+    }
+
+    /**
+     * @return die Felder, die Spiele mit fester Größe gerade belegen
+     */
+    public long allocatedCells() {
+        return this.allocatedCells.get();
+    }
+
+    /**
+     * @return die Anzahl der Spiele, die wegen des erschöpften Budgets an Feldern abgelehnt wurden
+     */
+    public long refusedGames() {
+        return this.refusedGames.sum();
+    }
+
+    /**
+     * @return die Anzahl der gemeinsamen Welten, in denen gerade jemand spielt
+     */
+    public int sharedWorlds() {
+        return this.worlds.size();
+    }
+
+    private void accept() {
+        while (this.running) {
+            final SocketChannel channel;
+
+            try {
+                channel = this.serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+            } catch (IOException e) {
+                if (this.running) {
+                    e.printStackTrace(System.err);
+                }
+
+                continue;
+            }
+
+            final Connection connection = new Connection(channel);
+
+            this.connections.add(connection);
+            this.sessionsServed.increment();
+            this.sessions.execute(() -> this.serve(connection));
+        }
+    }
+
+    /**
+     * Schließt Verbindungen ohne Zug seit {@link #idleTimeout}. Der Thread der Sitzung bemerkt das an seinem
+     * unterbrochenen Lesen und räumt auf.
+     */
+    private void evictIdleSessions() {
+        final long time = System.nanoTime();
+
+        for (Connection connection : this.connections) {
+            if (time - connection.lastActivity > this.idleTimeout) {
+                this.evictedSessions.increment();
+                connection.close();
+            }
+        }
+    }
+
+    private void serve(Connection connection) {
+        try {
+            while (connection.readRequest()) {
+                connection.lastActivity = System.nanoTime();
+
+                if (!this.handle(connection)) {
+                    break;
+                }
+
+                connection.writeResponse();
+            }
+        } catch (IOException e) {
+            // Vom Client oder wegen Untätigkeit geschlossen.
+        } finally {
+            this.connections.remove(connection);
+            this.leaveWorld(connection);
+            this.releaseCells(connection);
+            connection.close();
+        }
+    }
+
+    /**
+     * Tritt der Welt mit diesem Seed bei und legt sie an, wenn niemand in ihr spielt. Zähler und Eintrag werden
+     * atomar in {@link ConcurrentHashMap#compute} geändert.
+     */
+    private SharedWorld joinWorld(int seed) {
+        return this.worlds.compute(seed, (key, world) -> {
+            final World joined = world != null ? world : new World(new SharedWorld(key));
+            ++joined.connections;
+            return joined;
+        }).world;
+    }
+
+    /**
+     * Verlässt die Welt der Verbindung, falls sie in einer spielt. Die letzte Verbindung verwirft die Welt.
+     */
+    private void leaveWorld(Connection connection) {
+        if (connection.world == null) {
+            return;
+        }
+
+        this.worlds.computeIfPresent(connection.worldSeed, (key, world) -> --world.connections > 0 ? world : null);
+        connection.world = null;
+    }
+
+    /**
+     * Belegt {@code cells} Felder für das neue Spiel der Verbindung, sofern das Budget reicht. Die Felder ihres
+     * vorigen Spiels müssen schon freigegeben sein.
+     */
+    private boolean reserveCells(Connection connection, long cells) {
+        while (true) {
+            final long allocated = this.allocatedCells.get();
+
+            if (allocated + cells > this.cellBudget) {
+                return false;
+            }
+
+            if (this.allocatedCells.compareAndSet(allocated, allocated + cells)) {
+                connection.cells = cells;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gibt die Felder des Spiels mit fester Größe frei, falls die Verbindung eines spielt.
+     */
+    private void releaseCells(Connection connection) {
+        if (connection.cells == 0L) {
+            return;
+        }
+
+        this.allocatedCells.addAndGet(-connection.cells);
+        connection.cells = 0L;
+    }
+
+    /**
+     * Führt die gelesene Anfrage aus und kodiert die Antwort.
+     *
+     * @return {@code false} bei einer fehlerhaften Anfrage
+     */
+    private boolean handle(Connection connection) {
+        final ByteBuffer request = connection.request;
+        final byte operation = request.get(0);
+
+        if (operation == NEW_GAME) {
+            final int seed = request.getInt(1);
+            final int width = request.getInt(5);
+            final int height = request.getInt(9);
+            final int bombs = request.getInt(13);
+
+            if (width == SHARED_WORLD) {
+                // Erst beitreten, dann die alte Welt verlassen, sonst ginge dieselbe Welt beim erneuten Beitritt verloren.
+                final SharedWorld world = this.joinWorld(seed);
+
+                this.leaveWorld(connection);
+                this.releaseCells(connection);
+                connection.session = null;
+                connection.world = world;
+                connection.worldSeed = seed;
+            } else if (width == 0) {
+                this.leaveWorld(connection);
+                this.releaseCells(connection);
+                connection.session = GameSession.hashedProcedural(seed);
+            } else if (width > 0 && height > 0 && (long) width * height <= MAX_CELLS && bombs >= 0 && bombs < (long) width * height) {
+                this.leaveWorld(connection);
+                this.releaseCells(connection);
+                connection.session = null;
+
+                if (!this.reserveCells(connection, (long) width * height)) {
+                    this.refusedGames.increment();
+                    return false;
+                }
+
+                connection.session = GameSession.square(seed, width, height, bombs);
+            } else {
+                return false;
+            }
+
+            connection.beginResponse(0);
+            connection.endResponse();
+
+            return true;
+        }
+
+        final GameSession session = connection.session;
+        final SharedWorld world = connection.world;
+
+        if (session == null && world == null) {
+            return false;
+        }
+
+        final int x = request.getInt(1);
+        final int y = request.getInt(5);
+        final LongQueue changedCells = connection.changedCells;
+
+        changedCells.clear();
+
+        if (operation == REVEAL) {
+            if (session != null) {
+                session.reveal(x, y, changedCells);
+            } else {
+                world.reveal(x, y, changedCells);
+            }
+        } else if (operation == FLAG) {
+            if (session != null) {
+                session.flag(x, y);
+            } else {
+                world.setFlagAt(x, y);
+            }
+
+            changedCells.add(Coordinate.pack(x, y));
+        } else {
+            return false;
+        }
+
+        this.moves.increment();
+
+        connection.beginResponse(changedCells.size());
+
+        int lastX = x;
+        int lastY = y;
+
+        for (int cell = 0; cell < changedCells.size(); ++cell) {
+            final long packed = changedCells.get(cell);
+            final int cellX = Coordinate.unpackX(packed);
+            final int cellY = Coordinate.unpackY(packed);
+
+            Varint.put(connection.response, Varint.zigzag(cellX - lastX));
+            Varint.put(connection.response, Varint.zigzag(cellY - lastY));
+            final FieldState state = session != null ? session.stateAt(cellX, cellY) : world.stateAt(cellX, cellY);
+
+            connection.response.put((byte) state.ordinal());
+
+            lastX = cellX;
+            lastY = cellY;
+        }
+
+        connection.endResponse();
+
+        return true;
+    }
+
+    /**
+     * Eine gemeinsame Welt und die Anzahl der Verbindungen in ihr.
+     */
+    private static final class World {
+        private final SharedWorld world;
+        private int connections;
+
+        private World(SharedWorld world) {
+            this.world = world;
+            this.connections = 0;
+        }
+    }
+
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer request;
+        private final LongQueue changedCells;
+
+        private ByteBuffer response;
+        private GameSession session;
+        private SharedWorld world;
+        private int worldSeed;
+        private long cells;
+
+        private volatile long lastActivity;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.request = ByteBuffer.allocate(1 + NEW_GAME_SIZE);
+            this.changedCells = new LongQueue();
+            this.response = ByteBuffer.allocate(256);
+            this.session = null;
+            this.world = null;
+            this.worldSeed = 0;
+            this.cells = 0L;
+            this.lastActivity = System.nanoTime();
+        }
+
+        /**
+         * @return {@code false}, wenn der Client die Verbindung geschlossen hat
+         */
+        private boolean readRequest() throws IOException {
+            this.request.clear().limit(1);
+
+            if (!this.readFully()) {
+                return false;
+            }
+
+            final int size = switch (this.request.get(0)) {
+                case NEW_GAME -> NEW_GAME_SIZE;
+                case REVEAL, FLAG -> MOVE_SIZE;
+                default -> throw new IOException("Unknown operation " + this.request.get(0));
+            };
+
+            this.request.limit(1 + size);
+
+            return this.readFully();
+        }
+
+        private boolean readFully() throws IOException {
+            while (this.request.hasRemaining()) {
+                if (this.channel.read(this.request) < 0) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Beginnt eine Antwort mit Platz für {@code cells} Felder. Die Länge wird in {@link #endResponse()}
+         * eingetragen.
+         */
+        private void beginResponse(int cells) {
+            final int capacity = Integer.BYTES + 1 + 5 + cells * MAX_CELL_SIZE;
+
+            if (this.response.capacity() < capacity) {
+                this.response = ByteBuffer.allocate(Math.max(capacity, this.response.capacity() * 2));
+            }
+
+            this.response.clear();
+            this.response.putInt(0);
+            final GameSession.Outcome outcome = this.session != null ? this.session.outcome() : GameSession.Outcome.RUNNING;
+
+            this.response.put((byte) outcome.ordinal());
+            Varint.put(this.response, cells);
+        }
+
+        private void endResponse() {
+            this.response.putInt(0, this.response.position() - Integer.BYTES);
+            this.response.flip();
+        }
+
+        private void writeResponse() throws IOException {
+            while (this.response.hasRemaining()) {
+                this.channel.write(this.response);
+            }
+        }
+
+        private void close() {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                e.printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * Startet einen Server auf dem Loopback-Interface.
+     * <p>
+     * Aufruf: {@code GameServer [port] [idle seconds]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        final long idleTimeout = args.length > 1 ? TimeUnit.SECONDS.toNanos(Long.parseLong(args[1])) : DEFAULT_IDLE_TIMEOUT;
+
+        final GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), idleTimeout);
+        server.start();
+
+        System.out.println("Listening on port " + server.port() + (VirtualThreads.isAvailable() ? " with virtual threads" : " with platform threads"));
+
+        while (true) {
+            Thread.sleep(5000);
+            System.out.printf("Active sessions: %d, served: %d, evicted: %d, shared worlds: %d, allocated cells: %d, refused games: %d, moves: %d%n", server.activeSessions(), server.sessionsServed(), server.evictedSessions(), server.sharedWorlds(), server.allocatedCells(), server.refusedGames(), server.moves());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Ein Spiel ohne Anzeige. Eine Sitzung verwaltet eine {@link GameLogic}, nimmt Züge entgegen und liefert, was ein
+ * Spieler vom Spielfeld sehen kann. Sie kommt ohne AWT aus und kann deshalb auch auf Servern ohne Bildschirm
+ * laufen.
+ */
+public class GameSession {
+    public enum Outcome {
+        RUNNING,
+        WON,
+        LOST
+    }
+
+    private final GameLogic gameLogic;
+    private final int seed;
+    private final int bombs;
+
+    private int moves;
+
+    private GameSession(int seed, int bombs) {
+        this.gameLogic = new GameLogic();
+        this.gameLogic.setSeed(seed);
+        this.seed = seed;
+        this.bombs = bombs;
+        this.moves = 0;
+    }
+
+    /**
+     * Legt ein Spiel mit fester Größe an. Gleicher Seed und gleiche Parameter ergeben dasselbe Spielfeld.
+     *
+     * @throws IllegalArgumentException wenn das Spielfeld leer ist oder nicht genug Platz für die Bomben hat
+     */
+    public static GameSession square(int seed, int width, int height, int bombs) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive: " + width + "x" + height);
+        }
+
+        if (bombs < 0 || bombs >= (long) width * height) {
+            throw new IllegalArgumentException("bombs must be in [0, width * height): " + bombs);
+        }
+
+        final GameSession session = new GameSession(seed, bombs);
+        session.gameLogic.generateSquareGame(width, height, bombs);
+
+        return session;
+    }
+
+    /**
+     * Legt ein prozedurales Spiel an, das mit jedem Aufdecken wächst. Es endet nur durch eine aufgedeckte Bombe.
+     */
+    public static GameSession procedural(int seed) {
+        final GameSession session = new GameSession(seed, -1);
+        session.gameLogic.generateProceduralGame();
+
+        return session;
+    }
+
+    /**
+     * Wie {@link #procedural(int)}, die Bomben hängen aber nur von Seed und Koordinaten ab. Gleicher Seed ergibt
+     * unabhängig von der Zugfolge dieselbe Welt.
+     */
+    public static GameSession hashedProcedural(int seed) {
+        final GameSession session = new GameSession(seed, -1);
+        session.gameLogic.generateHashedProceduralGame();
+
+        return session;
+    }
+
+    /**
+     * Deckt ein Feld samt angrenzendem leeren Gebiet auf. Nach Spielende bleibt der Zug wirkungslos.
+     *
+     * @return die Anzahl der neu aufgedeckten Felder
+     */
+    public int reveal(int x, int y) {
+        return this.reveal(x, y, null);
+    }
+
+    /**
+     * Wie {@link #reveal(int, int)}, hängt aber die aufgedeckten Felder gepackt an {@code revealedCells} an.
+     */
+    public int reveal(int x, int y, LongQueue revealedCells) {
+        if (this.outcome() != Outcome.RUNNING) {
+            return 0;
+        }
+
+        ++this.moves;
+
+        return this.gameLogic.reveal(x, y, revealedCells);
+    }
+
+    /**
+     * Setzt eine Flagge auf ein verdecktes Feld. Anders als im Spiel mit Anzeige bleibt sie auf jedem verdeckten Feld
+     * liegen, sonst verriete {@link #stateAt(int, int)} nach dem Zug, ob darunter eine Bombe liegt.
+     */
+    public void flag(int x, int y) {
+        if (this.outcome() != Outcome.RUNNING) {
+            return;
+        }
+
+        ++this.moves;
+
+        this.gameLogic.placeFlagAt(x, y);
+    }
+
+    /**
+     * Liefert den Zustand, den ein Spieler sieht. Verdeckte Bomben erscheinen wie jedes andere verdeckte Feld.
+     */
+    public FieldState stateAt(int x, int y) {
+        final FieldState state = this.gameLogic.fieldInfoAt(x, y);
+
+        return state == FieldState.UNREVEALED_BOMB ? FieldState.BLANK : state;
+    }
+
+    public Outcome outcome() {
+        if (this.gameLogic.isLost()) {
+            return Outcome.LOST;
+        }
+
+        if (this.gameLogic.isWon()) {
+            return Outcome.WON;
+        }
+
+        return Outcome.RUNNING;
+    }
+
+    public boolean isRunning() {
+        return this.outcome() == Outcome.RUNNING;
+    }
+
+    public void setParallelReveal(boolean parallelReveal) {
+        this.gameLogic.setParallelReveal(parallelReveal);
+    }
+
+    public int seed() {
+        return this.seed;
+    }
+
+    /**
+     * @return die Anzahl der Bomben eines Spiels mit fester Größe, {@code -1} bei einem prozeduralen Spiel
+     */
+    public int bombs() {
+        return this.bombs;
+    }
+
+    public int moves() {
+        return this.moves;
+    }
+
+    public long revealedFields() {
+        return this.gameLogic.revealedFields();
+    }
+
+    public boolean isProcedural() {
+        return this.gameLogic.isProcedural();
+    }
+
+    public int minX() {
+        return this.gameLogic.minX();
+    }
+
+    public int minY() {
+        return this.gameLogic.minY();
+    }
+
+    public int maxX() {
+        return this.gameLogic.maxX();
+    }
+
+    public int maxY() {
+        return this.gameLogic.maxY();
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Speicher für prozedurale Spiele, in denen eine Bombe eine reine Funktion von Seed und Koordinaten ist. Die Welt
+ * hängt damit nicht von der Reihenfolge der Züge ab und ist in jeder Sitzung gleich. Gespeichert werden nur die
+ * bereits erreichten Felder, aufgedeckte Felder und Flaggen. Bomben und Nachbarzähler eines Chunks werden bei
+ * Bedarf aus dem Seed erzeugt und in einem kleinen Zwischenspeicher gehalten, aus dem sie jederzeit verdrängt
+ * werden dürfen.
+ */
+public class HashedBoard implements Board {
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Eine Zeile samt je einem Feld links und rechts des Chunks.
+     */
+    private static final int ROW_CELLS = CHUNK_SIZE + 2;
+
+    private static final int TERRAIN_CACHE_BITS = 8;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final ChunkedBoard state;
+
+    private final long[] terrainKeys;
+    private final Terrain[] terrains;
+
+    private long lastKey;
+    private Terrain lastTerrain;
+
+    public HashedBoard(long seed) {
+        this(seed, new ChunkedBoard());
+    }
+
+    /**
+     * Setzt ein gespeichertes Spiel fort. Von {@code state} werden nur Felder, aufgedeckte Felder und Flaggen
+     * verwendet.
+     */
+    HashedBoard(long seed, ChunkedBoard state) {
+        this.seed = seed;
+        this.state = state;
+
+        this.terrainKeys = new long[1 << TERRAIN_CACHE_BITS];
+        this.terrains = new Terrain[1 << TERRAIN_CACHE_BITS];
+
+        this.lastKey = 0L;
+        this.lastTerrain = null;
+    }
+
+    /**
+     * @return ob im Spiel mit {@code seed} auf dem Feld eine Bombe liegt. Im Schnitt ist jedes achte Feld eine
+     * Bombe, der Ursprung nie.
+     */
+    public static boolean isBombAt(long seed, int x, int y) {
+        return isBombAt(x, y, mix(seed));
+    }
+
+    private static boolean isBombAt(int x, int y, long salt) {
+        if (x == 0 && y == 0) {
+            return false;
+        }
+
+        return (mix(Coordinate.pack(x, y) * GOLDEN_GAMMA ^ salt) & 7) == 0;
+    }
+
+    /**
+     * Die Mischfunktion von {@link java.util.SplittableRandom}.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+
+    long seed() {
+        return this.seed;
+    }
+
+    /**
+     * Der gespeicherte Spielstand ohne Bomben, etwa für einen {@link Snapshot}.
+     */
+    ChunkedBoard state() {
+        return this.state;
+    }
+
+    /**
+     * Zählt nur den gespeicherten Spielstand, nicht die verdrängbaren Bomben und Nachbarzähler.
+     */
+    @Override
+    public long storedCells() {
+        return this.state.storedCells();
+    }
+
+    @Override
+    public boolean isFieldAt(int x, int y) {
+        return this.state.isFieldAt(x, y);
+    }
+
+    @Override
+    public boolean isBombAt(int x, int y) {
+        return (this.terrainAt(x, y).bombs[y & CHUNK_MASK] & (1L << x)) != 0;
+    }
+
+    @Override
+    public boolean isRevealedAt(int x, int y) {
+        return this.state.isRevealedAt(x, y);
+    }
+
+    @Override
+    public boolean isFlaggedAt(int x, int y) {
+        return this.state.isFlaggedAt(x, y);
+    }
+
+    @Override
+    public int bombsAround(int x, int y) {
+        return this.terrainAt(x, y).neighborCounts[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+
+    @Override
+    public void setFieldAt(int x, int y) {
+        this.state.setFieldAt(x, y);
+    }
+
+    @Override
+    public void setRevealedAt(int x, int y) {
+        this.state.setRevealedAt(x, y);
+    }
+
+    @Override
+    public void setFlagAt(int x, int y) {
+        this.state.setFlagAt(x, y);
+    }
+
+    private Terrain terrainAt(int x, int y) {
+        final long key = Coordinate.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+
+        if (this.lastTerrain != null && this.lastKey == key) {
+            return this.lastTerrain;
+        }
+
+        // Direkt abgebildeter Zwischenspeicher: ein verdrängter Chunk wird beim nächsten Zugriff neu erzeugt.
+        final int slot = (int) ((key * GOLDEN_GAMMA) >>> (Long.SIZE - TERRAIN_CACHE_BITS));
+        Terrain terrain = this.terrains[slot];
+
+        if (terrain == null) {
+            terrain = new Terrain();
+            this.terrains[slot] = terrain;
+            generateTerrain(this.seed, key, terrain.bombs, terrain.neighborCounts);
+            this.terrainKeys[slot] = key;
+        } else if (this.terrainKeys[slot] != key) {
+            generateTerrain(this.seed, key, terrain.bombs, terrain.neighborCounts);
+            this.terrainKeys[slot] = key;
+        }
+
+        this.lastKey = key;
+        this.lastTerrain = terrain;
+
+        return terrain;
+    }
+
+    /**
+     * Erzeugt Bomben und Nachbarzähler eines Chunks. Hängt nur von den Argumenten ab und kann deshalb für
+     * verschiedene Chunks gleichzeitig aufgerufen werden. {@code bombs} hat eine Zeile pro {@code long},
+     * {@code neighborCounts} ein Byte pro Feld.
+     */
+    static void generateTerrain(long seed, long key, long[] bombs, byte[] neighborCounts) {
+        final int left = Coordinate.unpackX(key) << CHUNK_SHIFT;
+        final int top = Coordinate.unpackY(key) << CHUNK_SHIFT;
+        final long salt = mix(seed);
+
+        long[] above = new long[2];
+        long[] current = new long[2];
+        long[] below = new long[2];
+        final byte[] counts = new byte[ROW_CELLS];
+
+        bombRow(salt, left - 1, top - 1, above);
+        bombRow(salt, left - 1, top, current);
+
+        for (int row = 0; row < CHUNK_SIZE; ++row) {
+            bombRow(salt, left - 1, top + row + 1, below);
+
+            // Die Zähler der beiden Randfelder sind unvollständig und werden verworfen.
+            DenseBoard.countRow(above, current, below, ROW_CELLS, counts, 0);
+            System.arraycopy(counts, 1, neighborCounts, row << CHUNK_SHIFT, CHUNK_SIZE);
+            bombs[row] = current[0] >>> 1 | current[1] << 63;
+
+            final long[] free = above;
+
+            above = current;
+            current = below;
+            below = free;
+        }
+    }
+
+    /**
+     * Schreibt die Bomben der {@link #ROW_CELLS} Felder ab {@code x} ausgerichtet nach {@code row}.
+     */
+    private static void bombRow(long salt, int x, int y, long[] row) {
+        row[0] = 0L;
+        row[1] = 0L;
+
+        for (int cell = 0; cell < ROW_CELLS; ++cell) {
+            if (isBombAt(x + cell, y, salt)) {
+                row[cell >>> 6] |= 1L << cell;
+            }
+        }
+    }
+
+    private static final class Terrain {
+        private final long[] bombs = new long[CHUNK_SIZE];
+        private final byte[] neighborCounts = new byte[CHUNK_SIZE * CHUNK_SIZE];
+    }
+}
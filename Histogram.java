@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * Häufigkeitsverteilung nicht negativer Werte, etwa Zeiten in Nanosekunden. Die Klassen sind logarithmisch mit acht
+ * Unterteilungen je Zweierpotenz, ein Perzentil ist damit auf 12,5 % genau. Das Aufzeichnen legt keine Objekte an.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts;
+
+    private long count;
+    private long total;
+    private long max;
+
+    public Histogram() {
+        this.counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+
+        this.count = 0L;
+        this.total = 0L;
+        this.max = 0L;
+    }
+
+    public void record(long value) {
+        value = Math.max(value, 0L);
+
+        ++this.counts[bucket(value)];
+        ++this.count;
+        this.total += value;
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Fügt alle Werte von {@code other} hinzu, etwa um die Histogramme mehrerer Threads zusammenzuführen.
+     */
+    public void add(Histogram other) {
+        for (int bucket = 0; bucket < this.counts.length; ++bucket) {
+            this.counts[bucket] += other.counts[bucket];
+        }
+
+        this.count += other.count;
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(this.counts, 0L);
+
+        this.count = 0L;
+        this.total = 0L;
+        this.max = 0L;
+    }
+
+    public long count() {
+        return this.count;
+    }
+
+    public long mean() {
+        return this.count > 0L ? this.total / this.count : 0L;
+    }
+
+    public long max() {
+        return this.max;
+    }
+
+    /**
+     * @param fraction Anteil zwischen {@code 0} und {@code 1}, etwa {@code 0.99}
+     * @return die Obergrenze der Klasse, in der der gesuchte Wert liegt, höchstens aber das Maximum
+     */
+    public long percentile(double fraction) {
+        final long rank = Math.max(1L, (long) Math.ceil(fraction * this.count));
+        long seen = 0L;
+
+        for (int bucket = 0; bucket < this.counts.length; ++bucket) {
+            seen += this.counts[bucket];
+
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), this.max);
+            }
+        }
+
+        return this.max;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return ((exponent + 1) << SUB_BUCKET_BITS) + (int) ((value >>> exponent) & (SUB_BUCKETS - 1));
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int exponent = (bucket >>> SUB_BUCKET_BITS) - 1;
+        final long subBucket = bucket & (SUB_BUCKETS - 1);
+
+        final long bound = ((SUB_BUCKETS + subBucket + 1) << exponent) - 1;
+
+        // Die oberste Klasse reicht bis zum größten Wert.
+        return bound >= 0L ? bound : Long.MAX_VALUE;
+    }
+}
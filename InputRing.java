@@ -0,0 +1,132 @@
+/**
+ * Ringpuffer für Eingabeereignisse zwischen genau einem schreibenden Thread (dem AWT-Ereignis-Thread) und genau
+ * einem lesenden Thread (der Spielschleife). Die Ereignisse liegen in primitiven Feldern und kommen ohne Sperren
+ * und ohne Boxing aus. Jedes Ereignis trägt seinen Zeitpunkt aus {@link System#nanoTime()} und die Mausposition
+ * zu diesem Zeitpunkt.
+ */
+public class InputRing {
+    public static final int KEY_PRESSED = 0;
+    public static final int MOUSE_PRESSED = 1;
+    public static final int MOUSE_RELEASED = 2;
+    public static final int MOUSE_WHEEL = 3;
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] kinds;
+    private final int[] values;
+    private final long[] times;
+    private final int[] xs;
+    private final int[] ys;
+    private final int mask;
+
+    private volatile long head;
+    private volatile long tail;
+
+    private volatile long dropped;
+
+    private int kind;
+    private int value;
+    private long time;
+    private int x;
+    private int y;
+
+    public InputRing() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InputRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+
+        this.kinds = new int[capacity];
+        this.values = new int[capacity];
+        this.times = new long[capacity];
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.mask = capacity - 1;
+
+        this.head = 0L;
+        this.tail = 0L;
+        this.dropped = 0L;
+    }
+
+    /**
+     * Legt ein Ereignis ab. Darf nur vom schreibenden Thread aufgerufen werden. Ist der Puffer voll, wird das
+     * Ereignis verworfen und gezählt.
+     */
+    public boolean offer(int kind, int value, long time, int x, int y) {
+        final long tail = this.tail;
+
+        if (tail - this.head > this.mask) {
+            this.dropped = this.dropped + 1;
+            return false;
+        }
+
+        final int slot = (int) tail & this.mask;
+
+        this.kinds[slot] = kind;
+        this.values[slot] = value;
+        this.times[slot] = time;
+        this.xs[slot] = x;
+        this.ys[slot] = y;
+
+        this.tail = tail + 1;
+
+        return true;
+    }
+
+    /**
+     * Entnimmt das älteste Ereignis, dessen Werte danach über {@link #kind()}, {@link #value()}, {@link #time()},
+     * {@link #x()} und {@link #y()} gelesen werden. Darf nur vom lesenden Thread aufgerufen werden.
+     *
+     * @return {@code false}, wenn kein Ereignis vorlag
+     */
+    public boolean poll() {
+        final long head = this.head;
+
+        if (head == this.tail) {
+            return false;
+        }
+
+        final int slot = (int) head & this.mask;
+
+        this.kind = this.kinds[slot];
+        this.value = this.values[slot];
+        this.time = this.times[slot];
+        this.x = this.xs[slot];
+        this.y = this.ys[slot];
+
+        this.head = head + 1;
+
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return this.head == this.tail;
+    }
+
+    public int kind() {
+        return this.kind;
+    }
+
+    public int value() {
+        return this.value;
+    }
+
+    public long time() {
+        return this.time;
+    }
+
+    public int x() {
+        return this.x;
+    }
+
+    public int y() {
+        return this.y;
+    }
+
+    public long dropped() {
+        return this.dropped;
+    }
+}
@@ -0,0 +1,240 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zeichnet alle Spielzüge einer {@link GameLogic} in einer Datei auf, aus der {@link Replay} das Spiel exakt
+ * wiederherstellt. Die Züge werden auf dem aufrufenden Thread nur in einen Puffer kodiert. Volle Puffer schreibt
+ * ein eigener Thread über einen {@link FileChannel}, die Spielschleife wartet also nie auf die Festplatte. Bleibt ein
+ * angefangener Puffer liegen, weil keine Züge mehr kommen, übernimmt ihn der schreibende Thread nach
+ * {@link #HAND_OFF_INTERVAL} selbst. Dafür sind die Methoden synchronisiert, ohne Konkurrenz kostet das kaum etwas.
+ * <p>
+ * Nach einer Kennung und der Version (je ein {@code int}, Little Endian) folgen die Einträge. Jeder beginnt mit
+ * einer Varint, deren untere zwei Bits die Art angeben:
+ * <pre>
+ * REVEAL, INTERACT, FLAG  zigzag(dx) &lt;&lt; 2 | Art, zigzag(dy)
+ * GENERATE                Spielart &lt;&lt; 2 | Art, zigzag(Seed), bei fester Größe Breite, Höhe, Bomben
+ * </pre>
+ * Koordinaten sind Abstände zum vorigen Zug, ein neues Spiel beginnt wieder bei (0, 0). Ein Zug braucht so meist
+ * nur zwei Bytes.
+ */
+public final class Journal implements Closeable {
+    static final int MAGIC = 0x4A57534D;
+    static final int VERSION = 1;
+
+    static final int REVEAL = 0;
+    static final int INTERACT = 1;
+    static final int FLAG = 2;
+    static final int GENERATE = 3;
+
+    static final int SQUARE_GAME = 0;
+    static final int PROCEDURAL_GAME = 1;
+    static final int HASHED_PROCEDURAL_GAME = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_RECORD_SIZE = 5 * 10;
+
+    /**
+     * Spätestens nach dieser Zeit wird ein angefangener Puffer geschrieben, damit bei einem Absturz wenig verloren
+     * geht, auch wenn danach kein Zug mehr kommt.
+     */
+    private static final long HAND_OFF_INTERVAL = 1_000_000_000L;
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+    private final Queue<ByteBuffer> freeBuffers;
+    private final Thread writer;
+
+    private ByteBuffer buffer;
+    private long lastHandOff;
+
+    private int lastX;
+    private int lastY;
+
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Legt {@code path} neu an. Eine vorhandene Aufzeichnung wird nie überschrieben.
+     *
+     * @throws java.nio.file.FileAlreadyExistsException wenn die Datei schon existiert
+     */
+    public Journal(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.filledBuffers = new LinkedBlockingQueue<>();
+        this.freeBuffers = new ConcurrentLinkedQueue<>();
+
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.putInt(MAGIC);
+        this.buffer.putInt(VERSION);
+        this.lastHandOff = System.nanoTime();
+
+        this.lastX = 0;
+        this.lastY = 0;
+
+        this.failure = null;
+        this.closed = false;
+
+        this.writer = new Thread(this::write, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public synchronized void recordSquareGame(int seed, int width, int height, int bombs) {
+        if (this.closed) {
+            return;
+        }
+
+        Varint.put(this.buffer, (long) SQUARE_GAME << 2 | GENERATE);
+        Varint.put(this.buffer, Varint.zigzag(seed));
+        Varint.put(this.buffer, width);
+        Varint.put(this.buffer, height);
+        Varint.put(this.buffer, bombs);
+        this.endRecord(0, 0);
+    }
+
+    public synchronized void recordProceduralGame(int seed, boolean hashed) {
+        if (this.closed) {
+            return;
+        }
+
+        Varint.put(this.buffer, (long) (hashed ? HASHED_PROCEDURAL_GAME : PROCEDURAL_GAME) << 2 | GENERATE);
+        Varint.put(this.buffer, Varint.zigzag(seed));
+        this.endRecord(0, 0);
+    }
+
+    public void recordReveal(int x, int y) {
+        this.recordMove(REVEAL, x, y);
+    }
+
+    public void recordInteract(int x, int y) {
+        this.recordMove(INTERACT, x, y);
+    }
+
+    public void recordFlag(int x, int y) {
+        this.recordMove(FLAG, x, y);
+    }
+
+    private synchronized void recordMove(int kind, int x, int y) {
+        if (this.closed) {
+            return;
+        }
+
+        Varint.put(this.buffer, Varint.zigzag(x - this.lastX) << 2 | kind);
+        Varint.put(this.buffer, Varint.zigzag(y - this.lastY));
+        this.endRecord(x, y);
+    }
+
+    private void endRecord(int x, int y) {
+        this.lastX = x;
+        this.lastY = y;
+
+        if (this.buffer.remaining() < MAX_RECORD_SIZE || System.nanoTime() - this.lastHandOff > HAND_OFF_INTERVAL) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Übergibt die bisher kodierten Einträge an den schreibenden Thread, ohne auf das Schreiben zu warten.
+     */
+    public synchronized void flush() {
+        this.lastHandOff = System.nanoTime();
+
+        if (this.closed || this.buffer.position() == 0) {
+            return;
+        }
+
+        if (this.failure != null) {
+            // Das Schreiben ist bereits gescheitert, der Fehler wird beim Schließen gemeldet.
+            this.buffer.clear();
+            return;
+        }
+
+        this.buffer.flip();
+        this.filledBuffers.add(this.buffer);
+
+        final ByteBuffer free = this.freeBuffers.poll();
+        this.buffer = free != null ? free : ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Schreibt alle Einträge und schließt die Datei.
+     *
+     * @throws IOException wenn ein Eintrag nicht geschrieben werden konnte
+     */
+    @Override
+    public void close() throws IOException {
+        // Nicht beim Warten auf den schreibenden Thread sperren, der selbst flushIfStale() aufruft.
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            this.flush();
+            this.closed = true;
+            this.filledBuffers.add(END);
+        }
+
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the journal");
+        } finally {
+            this.channel.close();
+        }
+
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Übergibt den angefangenen Puffer, wenn er länger als {@link #HAND_OFF_INTERVAL} nicht übergeben wurde.
+     */
+    private synchronized void flushIfStale() {
+        if (System.nanoTime() - this.lastHandOff > HAND_OFF_INTERVAL) {
+            this.flush();
+        }
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                final ByteBuffer filled = this.filledBuffers.poll(HAND_OFF_INTERVAL, TimeUnit.NANOSECONDS);
+
+                if (filled == null) {
+                    this.flushIfStale();
+                    continue;
+                }
+
+                if (filled == END) {
+                    return;
+                }
+
+                while (filled.hasRemaining()) {
+                    this.channel.write(filled);
+                }
+
+                filled.clear();
+                this.freeBuffers.add(filled);
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
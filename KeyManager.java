@@ -1,31 +1,35 @@
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.ArrayDeque;
-import java.util.Queue;
 
 public class KeyManager extends KeyAdapter {
-    private final Queue<Integer> keyQueue;
+    private final InputRing events;
+    private volatile Runnable wakeUp;
 
     public KeyManager() {
-        this.keyQueue = new ArrayDeque<>();
+        this.events = new InputRing();
     }
 
-    public boolean hasNextKey() {
-        return !keyQueue.isEmpty();
+    public InputRing events() {
+        return events;
     }
 
-    public int nextKey() {
-        if(keyQueue.isEmpty()){
-            return KeyEvent.VK_UNDEFINED;
-        }
-
-        return keyQueue.poll();
+    /**
+     * Wird nach jeder Eingabe aufgerufen, damit eine ruhende Spielschleife weiterläuft.
+     */
+    public void setWakeUp(Runnable wakeUp) {
+        this.wakeUp = wakeUp;
     }
 
     @Override
     public void keyPressed(KeyEvent e) {
         super.keyPressed(e);
-        keyQueue.add(e.getKeyCode());
+        events.offer(InputRing.KEY_PRESSED, e.getKeyCode(), System.nanoTime(), 0, 0);
+
+        final Runnable wakeUp = this.wakeUp;
+
+        if (wakeUp != null) {
+            wakeUp.run();
+        }
     }
 
     @Override
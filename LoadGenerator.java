@@ -0,0 +1,281 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lastgenerator für {@link GameServer} über Loopback. Jede Sitzung ist ein eigener Client auf einem virtuellen
+ * Thread, der nach dem Verbinden ohne Pause Felder aufdeckt und nach Spielende ein neues Spiel beginnt. Gemessen
+ * werden Züge pro Sekunde und die Zeit vom Senden eines Zuges bis zum Empfang der vollständigen Antwort.
+ * <p>
+ * Aufruf: {@code LoadGenerator [sessions] [seconds] [port]}. Ohne Port startet ein Server in derselben JVM, dann
+ * braucht jede Sitzung zwei Dateideskriptoren. Ohne virtuelle Threads (vor Java 21) belegt jede Sitzung einen
+ * Plattform-Thread, mit eigenem Server zwei; die Voreinstellung ist dann deutlich kleiner.
+ */
+public class LoadGenerator {
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 16;
+    private static final int BOMBS = 40;
+
+    private static final int DEFAULT_SESSIONS = 10_000;
+    private static final int DEFAULT_PLATFORM_THREAD_SESSIONS = 500;
+
+    private final InetSocketAddress address;
+    private final int sessions;
+    private final long duration;
+
+    private final Histogram latencies;
+    private final AtomicInteger failedSessions;
+
+    private long moves;
+    private long games;
+
+    public LoadGenerator(InetSocketAddress address, int sessions, long duration) {
+        this.address = address;
+        this.sessions = sessions;
+        this.duration = duration;
+
+        this.latencies = new Histogram();
+        this.failedSessions = new AtomicInteger();
+
+        this.moves = 0L;
+        this.games = 0L;
+    }
+
+    /**
+     * Verbindet alle Sitzungen, lässt sie gleichzeitig {@link #duration} Nanosekunden spielen und wartet auf ihr Ende.
+     */
+    public void run() throws InterruptedException {
+        final CountDownLatch connected = new CountDownLatch(this.sessions);
+        final CountDownLatch start = new CountDownLatch(1);
+        final long[] deadline = new long[1];
+
+        final ExecutorService clients = VirtualThreads.newThreadPerTaskExecutor();
+
+        for (int session = 0; session < this.sessions; ++session) {
+            final int seed = session;
+
+            clients.execute(() -> this.play(seed, connected, start, deadline));
+        }
+
+        connected.await();
+
+        deadline[0] = System.nanoTime() + this.duration;
+        start.countDown();
+
+        clients.shutdown();
+        clients.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void play(int seed, CountDownLatch connected, CountDownLatch start, long[] deadline) {
+        final Client client;
+
+        try {
+            client = new Client(this.address, seed);
+        } catch (IOException e) {
+            this.failedSessions.incrementAndGet();
+            connected.countDown();
+            return;
+        }
+
+        final Histogram latencies = new Histogram();
+        long moves = 0L;
+        long games = 0L;
+
+        try (client) {
+            connected.countDown();
+            start.await();
+
+            final long end = deadline[0];
+
+            client.newGame();
+            ++games;
+
+            while (System.nanoTime() - end < 0) {
+                final long time = System.nanoTime();
+
+                client.revealUnknownCell();
+                latencies.record(System.nanoTime() - time);
+                ++moves;
+
+                if (client.outcome != GameSession.Outcome.RUNNING.ordinal()) {
+                    client.newGame();
+                    ++games;
+                }
+            }
+        } catch (IOException e) {
+            this.failedSessions.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            this.latencies.add(latencies);
+            this.moves += moves;
+            this.games += games;
+        }
+    }
+
+    public synchronized long moves() {
+        return this.moves;
+    }
+
+    public synchronized long games() {
+        return this.games;
+    }
+
+    public synchronized Histogram latencies() {
+        return this.latencies;
+    }
+
+    public int failedSessions() {
+        return this.failedSessions.get();
+    }
+
+    /**
+     * Eine Sitzung auf Client-Seite. Kennt nur, was der Server ihr über die geänderten Felder mitgeteilt hat.
+     */
+    private static final class Client implements AutoCloseable {
+        private final SocketChannel channel;
+        private final SplittableRandom random;
+        private final ByteBuffer request;
+        private ByteBuffer response;
+
+        private final boolean[] revealed;
+        private int seed;
+        private int outcome;
+
+        private Client(InetSocketAddress address, int seed) throws IOException {
+            this.channel = SocketChannel.open(address);
+            this.channel.socket().setTcpNoDelay(true);
+            this.random = new SplittableRandom(seed);
+            this.request = ByteBuffer.allocate(1 + 4 * Integer.BYTES);
+            this.response = ByteBuffer.allocate(256);
+
+            this.revealed = new boolean[WIDTH * HEIGHT];
+            this.seed = seed;
+            this.outcome = GameSession.Outcome.RUNNING.ordinal();
+        }
+
+        private void newGame() throws IOException {
+            this.request.clear();
+            this.request.put(GameServer.NEW_GAME).putInt(this.seed).putInt(WIDTH).putInt(HEIGHT).putInt(BOMBS);
+            this.seed += 1 << 20;
+
+            Arrays.fill(this.revealed, false);
+            this.exchange(0, 0);
+        }
+
+        /**
+         * Deckt ein zufälliges Feld auf, das noch nicht als aufgedeckt gemeldet wurde.
+         */
+        private void revealUnknownCell() throws IOException {
+            int cell = this.random.nextInt(this.revealed.length);
+
+            while (this.revealed[cell]) {
+                cell = (cell + 1) % this.revealed.length;
+            }
+
+            final int x = cell % WIDTH;
+            final int y = cell / WIDTH;
+
+            this.request.clear();
+            this.request.put(GameServer.REVEAL).putInt(x).putInt(y);
+            this.exchange(x, y);
+        }
+
+        private void exchange(int x, int y) throws IOException {
+            this.request.flip();
+
+            while (this.request.hasRemaining()) {
+                this.channel.write(this.request);
+            }
+
+            this.response.clear().limit(Integer.BYTES);
+            this.readFully();
+
+            final int length = this.response.getInt(0);
+
+            if (this.response.capacity() < length) {
+                this.response = ByteBuffer.allocate(length);
+            }
+
+            this.response.clear().limit(length);
+            this.readFully();
+            this.response.flip();
+
+            this.outcome = this.response.get();
+
+            final long cells = Varint.get(this.response);
+
+            for (long cell = 0; cell < cells; ++cell) {
+                x += Varint.unzigzag(Varint.get(this.response));
+                y += Varint.unzigzag(Varint.get(this.response));
+
+                final byte state = this.response.get();
+
+                if (state != FieldState.BLANK.ordinal() && state != FieldState.FLAG.ordinal()) {
+                    this.revealed[y * WIDTH + x] = true;
+                }
+            }
+        }
+
+        private void readFully() throws IOException {
+            while (this.response.hasRemaining()) {
+                if (this.channel.read(this.response) < 0) {
+                    throw new EOFException("Server closed the session");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final int defaultSessions = VirtualThreads.isAvailable() ? DEFAULT_SESSIONS : DEFAULT_PLATFORM_THREAD_SESSIONS;
+        final int sessions = args.length > 0 ? Integer.parseInt(args[0]) : defaultSessions;
+
+        if (!VirtualThreads.isAvailable() && sessions > DEFAULT_PLATFORM_THREAD_SESSIONS) {
+            System.err.println("Warning: virtual threads need Java 21, " + sessions + " sessions will use about " + (args.length > 2 ? sessions : 2 * sessions) + " platform threads");
+        } else if (!VirtualThreads.isAvailable() && args.length == 0) {
+            System.err.println("Warning: virtual threads need Java 21, running " + sessions + " sessions instead of " + DEFAULT_SESSIONS);
+        }
+        final long duration = TimeUnit.SECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 10L);
+
+        GameServer server = null;
+        InetSocketAddress address;
+
+        if (args.length > 2) {
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[2]));
+        } else {
+            server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), GameServer.DEFAULT_IDLE_TIMEOUT);
+            server.start();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port());
+        }
+
+        System.out.println(sessions + " sessions for " + TimeUnit.NANOSECONDS.toSeconds(duration) + " s on " + (VirtualThreads.isAvailable() ? "virtual threads" : "platform threads"));
+
+        final LoadGenerator generator = new LoadGenerator(address, sessions, duration);
+        generator.run();
+
+        final Histogram latencies = generator.latencies();
+
+        System.out.printf("Moves: %d (%.0f/s), games: %d, failed sessions: %d%n", generator.moves(), generator.moves() * 1e9 / duration, generator.games(), generator.failedSessions());
+        System.out.printf("Move latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", latencies.percentile(0.5) / 1e6, latencies.percentile(0.99) / 1e6, latencies.max() / 1e6);
+
+        if (server != null) {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Zusammengefasste Darstellung des Spielfelds für starke Verkleinerungen. Ebene {@code k} fasst jeweils
+ * {@code 2^k x 2^k} Felder zu einem Block zusammen und zählt darin vorhandene, aufgedeckte und markierte Felder.
+ * Geänderte Felder werden nur vorgemerkt und beim nächsten {@link #refresh()} von der untersten Ebene aus nach
+ * oben nachgerechnet.
+ */
+public class LodPyramid {
+    public static final int BASE_LEVEL = 2;
+    public static final int MAX_LEVEL = 10;
+
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private static final int COUNT_BITS = 21;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private static final int NONE_COLOR = 0x000000;
+    private static final int BLANK_COLOR = 0xBDBDBD;
+    private static final int REVEALED_COLOR = 0x7B7B7B;
+    private static final int FLAG_COLOR = 0xE00000;
+
+    /**
+     * Liefert den Zustand, mit dem ein Feld dargestellt wird.
+     */
+    public interface StateSource {
+        FieldState stateAt(int x, int y);
+    }
+
+    private final StateSource source;
+
+    private final LongMap<long[]>[] levels;
+    private final LongHashSet[] dirtyBlocks;
+    private final LongQueue[] dirtyQueues;
+
+    private boolean rebuild;
+    private int rebuildMinX, rebuildMinY;
+    private int rebuildMaxX, rebuildMaxY;
+
+    private long lastTileKey;
+    private long[] lastTile;
+    private int lastTileLevel;
+
+    @SuppressWarnings("unchecked")
+    public LodPyramid(StateSource source) {
+        this.source = source;
+
+        this.levels = (LongMap<long[]>[]) new LongMap<?>[MAX_LEVEL + 1];
+        this.dirtyBlocks = new LongHashSet[MAX_LEVEL + 1];
+        this.dirtyQueues = new LongQueue[MAX_LEVEL + 1];
+
+        for (int level = BASE_LEVEL; level <= MAX_LEVEL; ++level) {
+            this.levels[level] = new LongMap<>();
+            this.dirtyBlocks[level] = new LongHashSet();
+            this.dirtyQueues[level] = new LongQueue();
+        }
+
+        this.rebuild = false;
+        this.lastTile = null;
+    }
+
+    /**
+     * Verwirft alle Ebenen. Beim nächsten {@link #refresh()} wird das angegebene Rechteck vollständig neu aufgebaut.
+     */
+    public void invalidate(int minX, int minY, int maxX, int maxY) {
+        for (int level = BASE_LEVEL; level <= MAX_LEVEL; ++level) {
+            this.levels[level].clear();
+            this.dirtyBlocks[level].clear();
+            this.dirtyQueues[level].clear();
+        }
+
+        this.rebuild = true;
+        this.rebuildMinX = minX;
+        this.rebuildMinY = minY;
+        this.rebuildMaxX = maxX;
+        this.rebuildMaxY = maxY;
+
+        this.lastTile = null;
+    }
+
+    public void markDirtyAt(int x, int y) {
+        this.markDirtyBlock(BASE_LEVEL, x >> BASE_LEVEL, y >> BASE_LEVEL);
+    }
+
+    /**
+     * Merkt die Blöcke vor, die das Feld oder eines seiner Nachbarfelder enthalten.
+     */
+    public void markDirtyAround(int x, int y) {
+        this.markDirtyBlock(BASE_LEVEL, (x - 1) >> BASE_LEVEL, (y - 1) >> BASE_LEVEL);
+        this.markDirtyBlock(BASE_LEVEL, (x + 1) >> BASE_LEVEL, (y - 1) >> BASE_LEVEL);
+        this.markDirtyBlock(BASE_LEVEL, (x - 1) >> BASE_LEVEL, (y + 1) >> BASE_LEVEL);
+        this.markDirtyBlock(BASE_LEVEL, (x + 1) >> BASE_LEVEL, (y + 1) >> BASE_LEVEL);
+    }
+
+    /**
+     * Rechnet alle vorgemerkten Blöcke und ihre übergeordneten Blöcke neu.
+     */
+    public void refresh() {
+        if (this.rebuild) {
+            this.rebuild = false;
+            this.rebuildRectangle();
+        }
+
+        for (int level = BASE_LEVEL; level <= MAX_LEVEL; ++level) {
+            final LongQueue queue = this.dirtyQueues[level];
+
+            while (!queue.isEmpty()) {
+                final long block = queue.poll();
+                final int blockX = Coordinate.unpackX(block);
+                final int blockY = Coordinate.unpackY(block);
+
+                this.dirtyBlocks[level].remove(block);
+                this.recompute(level, blockX, blockY);
+
+                if (level < MAX_LEVEL) {
+                    this.markDirtyBlock(level + 1, blockX >> 1, blockY >> 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Liefert die Farbe eines Blocks als RGB-Wert, gemischt aus den Anteilen der Feldarten.
+     */
+    public int colorAt(int level, int blockX, int blockY) {
+        final long counts = this.countsAt(level, blockX, blockY);
+
+        if (counts == 0) {
+            return NONE_COLOR;
+        }
+
+        final long cells = 1L << (level << 1);
+        final long fields = counts & COUNT_MASK;
+        final long revealed = (counts >>> COUNT_BITS) & COUNT_MASK;
+        final long flagged = (counts >>> (COUNT_BITS * 2)) & COUNT_MASK;
+        final long blank = fields - revealed - flagged;
+
+        int color = 0;
+
+        for (int shift = 0; shift <= 16; shift += 8) {
+            final long channel = blank * ((BLANK_COLOR >>> shift) & 0xFF)
+                    + revealed * ((REVEALED_COLOR >>> shift) & 0xFF)
+                    + flagged * ((FLAG_COLOR >>> shift) & 0xFF)
+                    + (cells - fields) * ((NONE_COLOR >>> shift) & 0xFF);
+
+            color |= (int) (channel / cells) << shift;
+        }
+
+        return color;
+    }
+
+    private void rebuildRectangle() {
+        for (int level = BASE_LEVEL; level <= MAX_LEVEL; ++level) {
+            for (int blockY = this.rebuildMinY >> level; blockY <= this.rebuildMaxY >> level; ++blockY) {
+                for (int blockX = this.rebuildMinX >> level; blockX <= this.rebuildMaxX >> level; ++blockX) {
+                    this.recompute(level, blockX, blockY);
+                }
+            }
+        }
+    }
+
+    private void recompute(int level, int blockX, int blockY) {
+        long counts = 0;
+
+        if (level == BASE_LEVEL) {
+            final int firstX = blockX << BASE_LEVEL;
+            final int firstY = blockY << BASE_LEVEL;
+
+            for (int y = firstY; y < firstY + (1 << BASE_LEVEL); ++y) {
+                for (int x = firstX; x < firstX + (1 << BASE_LEVEL); ++x) {
+                    counts += countsOf(this.source.stateAt(x, y));
+                }
+            }
+        } else {
+            counts += this.countsAt(level - 1, blockX << 1, blockY << 1);
+            counts += this.countsAt(level - 1, (blockX << 1) + 1, blockY << 1);
+            counts += this.countsAt(level - 1, blockX << 1, (blockY << 1) + 1);
+            counts += this.countsAt(level - 1, (blockX << 1) + 1, (blockY << 1) + 1);
+        }
+
+        final long tileKey = Coordinate.pack(blockX >> TILE_SHIFT, blockY >> TILE_SHIFT);
+        long[] tile = this.levels[level].get(tileKey);
+
+        if (tile == null) {
+            if (counts == 0) {
+                return;
+            }
+
+            tile = new long[TILE_SIZE * TILE_SIZE];
+            this.levels[level].put(tileKey, tile);
+        }
+
+        tile[((blockY & TILE_MASK) << TILE_SHIFT) | (blockX & TILE_MASK)] = counts;
+    }
+
+    private long countsAt(int level, int blockX, int blockY) {
+        final long tileKey = Coordinate.pack(blockX >> TILE_SHIFT, blockY >> TILE_SHIFT);
+
+        if (this.lastTile == null || this.lastTileLevel != level || this.lastTileKey != tileKey) {
+            final long[] tile = this.levels[level].get(tileKey);
+
+            if (tile == null) {
+                return 0;
+            }
+
+            this.lastTile = tile;
+            this.lastTileLevel = level;
+            this.lastTileKey = tileKey;
+        }
+
+        return this.lastTile[((blockY & TILE_MASK) << TILE_SHIFT) | (blockX & TILE_MASK)];
+    }
+
+    private void markDirtyBlock(int level, int blockX, int blockY) {
+        final long block = Coordinate.pack(blockX, blockY);
+
+        if (this.dirtyBlocks[level].add(block)) {
+            this.dirtyQueues[level].add(block);
+        }
+    }
+
+    private static long countsOf(FieldState state) {
+        return switch (state) {
+            case NONE -> 0;
+            case BLANK, UNREVEALED_BOMB -> 1;
+            case FLAG -> 1 | (1L << (COUNT_BITS * 2));
+            default -> 1 | (1L << COUNT_BITS);
+        };
+    }
+}
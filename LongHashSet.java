@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/**
+ * Menge primitiver {@code long}-Werte mit offener Adressierung.
+ */
+public class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public LongHashSet() {
+        this.keys = new long[DEFAULT_CAPACITY];
+        this.used = new boolean[DEFAULT_CAPACITY];
+        this.size = 0;
+        this.mask = DEFAULT_CAPACITY - 1;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(long key) {
+        int slot = slotOf(key, this.mask);
+
+        while (this.used[slot]) {
+            if (this.keys[slot] == key) {
+                return true;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Fügt {@code key} hinzu. Liefert {@code false}, wenn der Wert schon enthalten war.
+     */
+    public boolean add(long key) {
+        int slot = slotOf(key, this.mask);
+
+        while (this.used[slot]) {
+            if (this.keys[slot] == key) {
+                return false;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.keys[slot] = key;
+        this.used[slot] = true;
+
+        if (++this.size * 2 > this.keys.length) {
+            this.grow();
+        }
+
+        return true;
+    }
+
+    public boolean remove(long key) {
+        int slot = slotOf(key, this.mask);
+
+        while (this.used[slot]) {
+            if (this.keys[slot] == key) {
+                this.used[slot] = false;
+                --this.size;
+                this.closeGap(slot);
+
+                return true;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(this.used, false);
+        this.size = 0;
+    }
+
+    /**
+     * Schiebt nachfolgende Einträge in die freie Stelle, damit keine Lücke die lineare Suche abbricht.
+     */
+    private void closeGap(int gap) {
+        int slot = (gap + 1) & this.mask;
+
+        while (this.used[slot]) {
+            final int home = slotOf(this.keys[slot], this.mask);
+
+            if (((slot - home) & this.mask) >= ((slot - gap) & this.mask)) {
+                this.keys[gap] = this.keys[slot];
+                this.used[gap] = true;
+                this.used[slot] = false;
+
+                gap = slot;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+    }
+
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final boolean[] oldUsed = this.used;
+
+        this.keys = new long[oldKeys.length * 2];
+        this.used = new boolean[oldUsed.length * 2];
+        this.mask = this.keys.length - 1;
+
+        for (int index = 0; index < oldKeys.length; ++index) {
+            if (!oldUsed[index]) {
+                continue;
+            }
+
+            int slot = slotOf(oldKeys[index], this.mask);
+
+            while (this.used[slot]) {
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.keys[slot] = oldKeys[index];
+            this.used[slot] = true;
+        }
+    }
+
+    private static int slotOf(long key, int mask) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,164 @@
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Hash-Tabelle mit primitiven {@code long}-Schlüsseln und offener Adressierung.
+ */
+public class LongMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public LongMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.size = 0;
+        this.mask = capacity - 1;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Ruft {@code action} für jeden Eintrag in Tabellenreihenfolge auf. Die Tabelle darf dabei nicht verändert
+     * werden.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<V> action) {
+        for (int slot = 0; slot < this.values.length; ++slot) {
+            if (this.values[slot] != null) {
+                action.accept((V) this.values[slot], this.keys[slot]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slotOf(key, this.mask);
+
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                return (V) this.values[slot];
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        return null;
+    }
+
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+
+        int slot = slotOf(key, this.mask);
+
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value;
+                return;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.keys[slot] = key;
+        this.values[slot] = value;
+
+        if (++this.size * 2 > this.keys.length) {
+            this.grow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = slotOf(key, this.mask);
+
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                final V value = (V) this.values[slot];
+
+                this.values[slot] = null;
+                --this.size;
+                this.closeGap(slot);
+
+                return value;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Schiebt nachfolgende Einträge in die freie Stelle, damit keine Lücke die lineare Suche abbricht.
+     */
+    private void closeGap(int gap) {
+        int slot = (gap + 1) & this.mask;
+
+        while (this.values[slot] != null) {
+            final int home = slotOf(this.keys[slot], this.mask);
+
+            if (((slot - home) & this.mask) >= ((slot - gap) & this.mask)) {
+                this.keys[gap] = this.keys[slot];
+                this.values[gap] = this.values[slot];
+                this.values[slot] = null;
+
+                gap = slot;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+    }
+
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+
+        this.keys = new long[oldKeys.length * 2];
+        this.values = new Object[oldValues.length * 2];
+        this.mask = this.keys.length - 1;
+
+        for (int index = 0; index < oldKeys.length; ++index) {
+            if (oldValues[index] == null) {
+                continue;
+            }
+
+            int slot = slotOf(oldKeys[index], this.mask);
+
+            while (this.values[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.keys[slot] = oldKeys[index];
+            this.values[slot] = oldValues[index];
+        }
+    }
+
+    private static int slotOf(long key, int mask) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.Arrays;
+
+/**
+ * Warteschlange für primitive {@code long}-Werte als wachsender Ringpuffer.
+ */
+public class LongQueue {
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongQueue() {
+        this(16);
+    }
+
+    public LongQueue(int capacity) {
+        this.elements = new long[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void add(long element) {
+        if (this.size == this.elements.length) {
+            this.grow();
+        }
+
+        this.elements[(this.head + this.size) & (this.elements.length - 1)] = element;
+        ++this.size;
+    }
+
+    public long poll() {
+        if (this.size == 0) {
+            throw new IllegalStateException("queue is empty");
+        }
+
+        final long element = this.elements[this.head];
+
+        this.head = (this.head + 1) & (this.elements.length - 1);
+        --this.size;
+
+        return element;
+    }
+
+    /**
+     * Liefert das Element an Position {@code index}, gezählt vom Kopf der Warteschlange.
+     */
+    public long get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return this.elements[(this.head + index) & (this.elements.length - 1)];
+    }
+
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    private void grow() {
+        final long[] elements = new long[this.elements.length * 2];
+        final int tail = this.elements.length - this.head;
+
+        System.arraycopy(this.elements, this.head, elements, 0, tail);
+        System.arraycopy(this.elements, 0, elements, tail, this.head);
+
+        this.elements = elements;
+        this.head = 0;
+    }
+
+    @Override
+    public String toString() {
+        final long[] elements = new long[this.size];
+
+        for (int index = 0; index < this.size; ++index) {
+            elements[index] = this.get(index);
+        }
+
+        return Arrays.toString(elements);
+    }
+}
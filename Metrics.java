@@ -0,0 +1,151 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Sammelt Messwerte der laufenden Sitzung: Zeiten als {@link Histogram}, Zustände als Messfühler, die beim Auswerten
+ * abgefragt werden, und die Allokationsrate der laufenden Threads. Die Zeiten werden in Fenstern von mindestens einer
+ * Sekunde ausgewertet, danach beginnt ein neues Fenster. Die Zeilen für die Anzeige entstehen nur einmal pro Fenster.
+ */
+public class Metrics {
+    private static final long WINDOW = 1_000_000_000L;
+
+    private final List<String> timerNames;
+    private final List<Histogram> timers;
+    private final List<String> gaugeNames;
+    private final List<LongSupplier> gauges;
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    private long windowStart;
+    private long windowAllocatedBytes;
+    private long allocationRate;
+
+    private String[] lines;
+
+    public Metrics() {
+        this.timerNames = new ArrayList<>();
+        this.timers = new ArrayList<>();
+        this.gaugeNames = new ArrayList<>();
+        this.gauges = new ArrayList<>();
+
+        this.threads = allocationCounter();
+
+        this.windowStart = System.nanoTime();
+        this.windowAllocatedBytes = this.allocatedBytes();
+        this.allocationRate = -1L;
+
+        this.lines = new String[0];
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+
+        return null;
+    }
+
+    /**
+     * Legt eine Zeitmessung in Nanosekunden an.
+     */
+    public Histogram timer(String name) {
+        final Histogram timer = new Histogram();
+
+        this.timerNames.add(name);
+        this.timers.add(timer);
+
+        return timer;
+    }
+
+    /**
+     * Meldet einen Messfühler an, der beim Abschluss jedes Fensters abgefragt wird.
+     */
+    public void gauge(String name, LongSupplier value) {
+        this.gaugeNames.add(name);
+        this.gauges.add(value);
+    }
+
+    /**
+     * Schließt das laufende Fenster ab, wenn es älter als eine Sekunde ist.
+     *
+     * @return ob ein neues Fenster begonnen hat und die Zeilen neu gebildet wurden
+     */
+    public boolean update(long time) {
+        final long elapsed = time - this.windowStart;
+
+        if (elapsed < WINDOW) {
+            return false;
+        }
+
+        this.closeWindow(time);
+
+        return true;
+    }
+
+    /**
+     * Schließt das laufende Fenster sofort ab, etwa für den Bericht am Ende einer Sitzung.
+     */
+    public void closeWindow(long time) {
+        final long elapsed = Math.max(time - this.windowStart, 1L);
+        final long allocatedBytes = this.allocatedBytes();
+
+        if (allocatedBytes >= 0L) {
+            this.allocationRate = (long) (Math.max(allocatedBytes - this.windowAllocatedBytes, 0L) * (1e9 / elapsed));
+        }
+
+        final String[] lines = new String[this.timers.size() + this.gauges.size() + 1];
+        int line = 0;
+
+        for (int timer = 0; timer < this.timers.size(); ++timer) {
+            final Histogram histogram = this.timers.get(timer);
+
+            lines[line++] = String.format("%-14s %5d/s  p50 %6.2f ms  p99 %6.2f ms  max %6.2f ms", this.timerNames.get(timer), histogram.count() * WINDOW / elapsed, histogram.percentile(0.5) / 1e6, histogram.percentile(0.99) / 1e6, histogram.max() / 1e6);
+            histogram.reset();
+        }
+
+        for (int gauge = 0; gauge < this.gauges.size(); ++gauge) {
+            lines[line++] = String.format("%-14s %d", this.gaugeNames.get(gauge), this.gauges.get(gauge).getAsLong());
+        }
+
+        lines[line] = this.allocationRate >= 0L ? String.format("%-14s %.1f MB/s", "allocation", this.allocationRate / 1e6) : String.format("%-14s n/a", "allocation");
+
+        this.lines = lines;
+        this.windowStart = time;
+        this.windowAllocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return die Zeilen des zuletzt abgeschlossenen Fensters
+     */
+    public String[] lines() {
+        return this.lines;
+    }
+
+    /**
+     * @return Bytes pro Sekunde, die im zuletzt abgeschlossenen Fenster angelegt wurden, oder {@code -1}, wenn die
+     * JVM das nicht misst
+     */
+    public long allocationRate() {
+        return this.allocationRate;
+    }
+
+    /**
+     * Summe über die lebenden Threads. Was beendete Threads angelegt haben, fällt dabei heraus.
+     */
+    private long allocatedBytes() {
+        if (this.threads == null) {
+            return -1L;
+        }
+
+        long total = 0L;
+
+        for (long bytes : this.threads.getThreadAllocatedBytes(this.threads.getAllThreadIds())) {
+            total += Math.max(bytes, 0L);
+        }
+
+        return total;
+    }
+}
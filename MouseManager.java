@@ -1,24 +1,20 @@
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.util.ArrayDeque;
-import java.util.Queue;
 
 public class MouseManager extends MouseAdapter {
-    private int mouseX;
-    private int mouseY;
+    private volatile int mouseX;
+    private volatile int mouseY;
 
-    private final Queue<Integer> pressedButtonQueue;
-    private final Queue<Integer> releasedButtonQueue;
+    private volatile long moveTime;
 
-    private final Queue<Integer> scrollQueue;
+    private final InputRing events;
+    private volatile Runnable wakeUp;
 
     public MouseManager() {
         this.mouseX = 0;
         this.mouseY = 0;
-        this.pressedButtonQueue = new ArrayDeque<>();
-        this.releasedButtonQueue = new ArrayDeque<>();
-        this.scrollQueue = new ArrayDeque<>();
+        this.events = new InputRing();
     }
 
     public int mouseX() {
@@ -29,40 +25,30 @@ public class MouseManager extends MouseAdapter {
         return mouseY;
     }
 
-    public boolean hasNextPressedButton() {
-        return !pressedButtonQueue.isEmpty();
+    public InputRing events() {
+        return events;
     }
 
-    public int nextPressedButton() {
-        if(pressedButtonQueue.isEmpty()) {
-            return MouseEvent.NOBUTTON;
-        }
-
-        return pressedButtonQueue.poll();
-    }
-
-    public boolean hasNextReleasedButton() {
-        return !releasedButtonQueue.isEmpty();
+    /**
+     * Zeitpunkt der letzten Mausbewegung in {@link System#nanoTime()}.
+     */
+    public long moveTime() {
+        return moveTime;
     }
 
-    public int nextReleasedButton() {
-        if(releasedButtonQueue.isEmpty()) {
-            return MouseEvent.NOBUTTON;
-        }
-
-        return releasedButtonQueue.poll();
+    /**
+     * Wird nach jeder Eingabe aufgerufen, damit eine ruhende Spielschleife weiterläuft.
+     */
+    public void setWakeUp(Runnable wakeUp) {
+        this.wakeUp = wakeUp;
     }
 
-    public boolean hasNextScroll() {
-        return !scrollQueue.isEmpty();
-    }
+    private void wakeUp() {
+        final Runnable wakeUp = this.wakeUp;
 
-    public int nextScroll() {
-        if(scrollQueue.isEmpty()){
-            return 0;
+        if (wakeUp != null) {
+            wakeUp.run();
         }
-
-        return scrollQueue.poll();
     }
 
     @Override
@@ -70,6 +56,8 @@ public class MouseManager extends MouseAdapter {
         super.mouseMoved(e);
         this.mouseX = e.getX();
         this.mouseY = e.getY();
+        this.moveTime = System.nanoTime();
+        this.wakeUp();
     }
 
     @Override
@@ -77,23 +65,28 @@ public class MouseManager extends MouseAdapter {
         super.mouseDragged(e);
         this.mouseX = e.getX();
         this.mouseY = e.getY();
+        this.moveTime = System.nanoTime();
+        this.wakeUp();
     }
 
     @Override
     public void mousePressed(MouseEvent e) {
         super.mousePressed(e);
-        this.pressedButtonQueue.add(e.getButton());
+        this.events.offer(InputRing.MOUSE_PRESSED, e.getButton(), System.nanoTime(), e.getX(), e.getY());
+        this.wakeUp();
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
         super.mouseReleased(e);
-        this.releasedButtonQueue.add(e.getButton());
+        this.events.offer(InputRing.MOUSE_RELEASED, e.getButton(), System.nanoTime(), e.getX(), e.getY());
+        this.wakeUp();
     }
 
     @Override
     public void mouseWheelMoved(MouseWheelEvent e) {
         super.mouseWheelMoved(e);
-        this.scrollQueue.add(e.getUnitsToScroll());
+        this.events.offer(InputRing.MOUSE_WHEEL, e.getUnitsToScroll(), System.nanoTime(), e.getX(), e.getY());
+        this.wakeUp();
     }
 }
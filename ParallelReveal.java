@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Setzt eine große Aufdeckung auf einem {@link DenseBoard} parallel fort. Jede Aufgabe arbeitet einen eigenen
+ * Stapel von Feldern ab und gibt die Hälfte davon an eine neue Aufgabe ab, sobald der Stapel groß genug ist.
+ * Welche Aufgabe ein Feld aufdeckt, entscheidet {@link DenseBoard#tryRevealAt(int, int)} atomar, deshalb wird
+ * jedes Feld genau einmal aufgedeckt und das Ergebnis entspricht dem der sequentiellen Aufdeckung.
+ */
+public final class ParallelReveal {
+    private static final int SPLIT_SIZE = 1024;
+
+    private ParallelReveal() {
+    }
+
+    /**
+     * Deckt ausgehend von den bereits aufgedeckten Feldern in {@code pending} den Rest des Gebiets auf. Die neu
+     * aufgedeckten Felder werden an {@code revealedCells} angehängt, sofern die Warteschlange nicht {@code null} ist.
+     *
+     * @return die Anzahl der neu aufgedeckten Felder
+     */
+    public static int reveal(DenseBoard board, LongQueue pending, LongQueue revealedCells) {
+        final long[] cells = new long[Math.max(pending.size(), SPLIT_SIZE)];
+        final int size = pending.size();
+
+        for (int index = 0; index < size; ++index) {
+            cells[index] = pending.poll();
+        }
+
+        final RevealTask task = new RevealTask(board, cells, size);
+
+        ForkJoinPool.commonPool().invoke(task);
+
+        return task.collect(revealedCells);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RevealTask extends RecursiveAction {
+        private final DenseBoard board;
+
+        private long[] stack;
+        private int stackSize;
+
+        private long[] revealed;
+        private int revealedSize;
+
+        private final List<RevealTask> children;
+
+        private RevealTask(DenseBoard board, long[] stack, int stackSize) {
+            this.board = board;
+            this.stack = stack;
+            this.stackSize = stackSize;
+            this.revealed = new long[SPLIT_SIZE];
+            this.revealedSize = 0;
+            this.children = new ArrayList<>();
+        }
+
+        @Override
+        protected void compute() {
+            while (this.stackSize > 0) {
+                if (this.stackSize >= SPLIT_SIZE) {
+                    this.split();
+                }
+
+                final long cell = this.stack[--this.stackSize];
+                final int x = Coordinate.unpackX(cell);
+                final int y = Coordinate.unpackY(cell);
+
+                if (this.board.bombsAround(x, y) != 0) {
+                    continue;
+                }
+
+                for (int neighbor = 0; neighbor < GameLogic.NEIGHBORS; ++neighbor) {
+                    final int neighborX = GameLogic.neighborX(x, neighbor);
+                    final int neighborY = GameLogic.neighborY(y, neighbor);
+
+                    if (this.board.tryRevealAt(neighborX, neighborY)) {
+                        final long packed = Coordinate.pack(neighborX, neighborY);
+
+                        this.push(packed);
+                        this.record(packed);
+                    }
+                }
+            }
+
+            for (RevealTask child : this.children) {
+                child.join();
+            }
+        }
+
+        private void split() {
+            final int half = this.stackSize / 2;
+            final long[] stack = Arrays.copyOfRange(this.stack, 0, Math.max(half, SPLIT_SIZE));
+
+            System.arraycopy(this.stack, half, this.stack, 0, this.stackSize - half);
+            this.stackSize -= half;
+
+            final RevealTask child = new RevealTask(this.board, stack, half);
+
+            this.children.add(child);
+            child.fork();
+        }
+
+        private void push(long cell) {
+            if (this.stackSize == this.stack.length) {
+                this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+            }
+
+            this.stack[this.stackSize++] = cell;
+        }
+
+        private void record(long cell) {
+            if (this.revealedSize == this.revealed.length) {
+                this.revealed = Arrays.copyOf(this.revealed, this.revealed.length * 2);
+            }
+
+            this.revealed[this.revealedSize++] = cell;
+        }
+
+        private int collect(LongQueue revealedCells) {
+            int count = this.revealedSize;
+
+            if (revealedCells != null) {
+                for (int index = 0; index < this.revealedSize; ++index) {
+                    revealedCells.add(this.revealed[index]);
+                }
+            }
+
+            for (RevealTask child : this.children) {
+                count += child.collect(revealedCells);
+            }
+
+            return count;
+        }
+    }
+}
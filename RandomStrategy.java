@@ -0,0 +1,39 @@
+import java.util.SplittableRandom;
+
+/**
+ * Deckt zufällig ein noch verdecktes Feld eines Spiels mit fester Größe auf. Dient als Vergleichsgröße für bessere
+ * Strategien.
+ */
+public class RandomStrategy implements Strategy {
+    private final SplittableRandom random;
+
+    public RandomStrategy(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public boolean move(GameSession session) {
+        if (session.isProcedural()) {
+            return false;
+        }
+
+        final int width = session.maxX() - session.minX() + 1;
+        final int height = session.maxY() - session.minY() + 1;
+        final long fields = (long) width * height;
+        final long start = this.random.nextLong(fields);
+
+        // Vom zufälligen Startfeld aus das nächste verdeckte Feld suchen, statt bis zum Treffer neu zu würfeln.
+        for (long offset = 0; offset < fields; ++offset) {
+            final long index = (start + offset) % fields;
+            final int x = session.minX() + (int) (index % width);
+            final int y = session.minY() + (int) (index / width);
+
+            if (session.stateAt(x, y) == FieldState.BLANK) {
+                session.reveal(x, y);
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
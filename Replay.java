@@ -0,0 +1,305 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Spielt ein mit {@link Journal} aufgezeichnetes Spiel ohne Anzeige mit voller Geschwindigkeit nach. Die Züge
+ * werden beim Öffnen einmal in primitive Felder dekodiert. Beim Nachspielen wird alle
+ * {@code checkpointInterval} Züge ein {@link Snapshot} abgelegt, von dem aus {@link #seek(int)} später jeden Zug
+ * erreicht, ohne vom Anfang an nachzuspielen.
+ * <p>
+ * Eine Position ist die Anzahl der bereits ausgeführten Einträge, das Erzeugen eines Spiels zählt dabei als Zug.
+ * Ein am Ende abgeschnittener Eintrag, etwa nach einem Absturz, wird ignoriert.
+ */
+public final class Replay implements Closeable {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1024;
+
+    private static final int GAME_PARAMETERS = 5;
+
+    private final byte[] kinds;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] games;
+    private final int moves;
+
+    private final Path checkpointDirectory;
+    private final int checkpointInterval;
+    private final boolean[] checkpoints;
+
+    private GameLogic gameLogic;
+    private int position;
+    private boolean generated;
+
+    private Replay(byte[] kinds, int[] xs, int[] ys, int[] games, int moves, Path checkpointDirectory, int checkpointInterval) {
+        this.kinds = kinds;
+        this.xs = xs;
+        this.ys = ys;
+        this.games = games;
+        this.moves = moves;
+
+        this.checkpointDirectory = checkpointDirectory;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpoints = new boolean[moves / checkpointInterval + 1];
+
+        this.reset();
+    }
+
+    /**
+     * Liest ein Journal ein. Die Zwischenstände werden in {@code checkpointDirectory} abgelegt und beim Schließen
+     * wieder gelöscht.
+     *
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder kein Journal ist
+     */
+    public static Replay open(Path journal, Path checkpointDirectory, int checkpointInterval) throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive: " + checkpointInterval);
+        }
+
+        final ByteBuffer data;
+
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (data.remaining() < 8 || data.getInt() != Journal.MAGIC) {
+            throw new IOException("Not a journal: " + journal);
+        }
+
+        final int version = data.getInt();
+
+        if (version != Journal.VERSION) {
+            throw new IOException("Unsupported journal version " + version + ": " + journal);
+        }
+
+        // Jeder Eintrag ist mindestens zwei Bytes lang, die Felder müssen also nicht wachsen.
+        final int capacity = data.remaining() / 2;
+        final byte[] kinds = new byte[capacity];
+        final int[] xs = new int[capacity];
+        final int[] ys = new int[capacity];
+        int[] games = new int[GAME_PARAMETERS * 4];
+
+        int moves = 0;
+        int gameCount = 0;
+        int lastX = 0;
+        int lastY = 0;
+
+        while (data.hasRemaining()) {
+            final long header = Varint.get(data);
+            final int kind = (int) (header & 3);
+
+            if (header < 0L) {
+                break;
+            }
+
+            if (kind == Journal.GENERATE) {
+                final int mode = (int) (header >>> 2);
+
+                if (mode != Journal.SQUARE_GAME && mode != Journal.PROCEDURAL_GAME && mode != Journal.HASHED_PROCEDURAL_GAME) {
+                    throw new IOException("Corrupt journal, unknown game mode " + mode + ": " + journal);
+                }
+
+                final long seed = Varint.get(data);
+                final long width = mode == Journal.SQUARE_GAME ? Varint.get(data) : 0L;
+                final long height = mode == Journal.SQUARE_GAME ? Varint.get(data) : 0L;
+                final long bombs = mode == Journal.SQUARE_GAME ? Varint.get(data) : 0L;
+
+                if (seed < 0L || width < 0L || height < 0L || bombs < 0L) {
+                    break;
+                }
+
+                if (gameCount * GAME_PARAMETERS == games.length) {
+                    games = Arrays.copyOf(games, games.length * 2);
+                }
+
+                final int game = gameCount * GAME_PARAMETERS;
+
+                games[game] = mode;
+                games[game + 1] = Varint.unzigzag(seed);
+                games[game + 2] = (int) width;
+                games[game + 3] = (int) height;
+                games[game + 4] = (int) bombs;
+
+                kinds[moves] = (byte) kind;
+                xs[moves] = gameCount++;
+                lastX = 0;
+                lastY = 0;
+            } else {
+                final long deltaY = Varint.get(data);
+
+                if (deltaY < 0L) {
+                    break;
+                }
+
+                lastX += Varint.unzigzag(header >>> 2);
+                lastY += Varint.unzigzag(deltaY);
+
+                kinds[moves] = (byte) kind;
+                xs[moves] = lastX;
+                ys[moves] = lastY;
+            }
+
+            ++moves;
+        }
+
+        return new Replay(kinds, xs, ys, games, moves, checkpointDirectory, checkpointInterval);
+    }
+
+    /**
+     * @return die Anzahl der Einträge im Journal
+     */
+    public int moves() {
+        return this.moves;
+    }
+
+    public int position() {
+        return this.position;
+    }
+
+    /**
+     * @return das Spiel an der aktuellen Position. Nach {@link #seek(int)} kann das ein neues Objekt sein.
+     */
+    public GameLogic game() {
+        return this.gameLogic;
+    }
+
+    /**
+     * Führt den nächsten Eintrag aus.
+     *
+     * @return {@code false} am Ende des Journals
+     */
+    public boolean step() throws IOException {
+        if (this.position == this.moves) {
+            return false;
+        }
+
+        this.apply(this.position++);
+
+        if (this.generated && this.position % this.checkpointInterval == 0 && !this.checkpoints[this.position / this.checkpointInterval]) {
+            Snapshot.save(this.gameLogic, this.checkpointPath(this.position));
+            this.checkpoints[this.position / this.checkpointInterval] = true;
+        }
+
+        return true;
+    }
+
+    /**
+     * Stellt den Spielstand nach {@code move} Einträgen her. Liegt ein Zwischenstand näher als die aktuelle
+     * Position, wird er geladen.
+     */
+    public void seek(int move) throws IOException {
+        if (move < 0 || move > this.moves) {
+            throw new IllegalArgumentException("move out of range [0, " + this.moves + "]: " + move);
+        }
+
+        int checkpoint = move / this.checkpointInterval;
+
+        while (checkpoint > 0 && !this.checkpoints[checkpoint]) {
+            --checkpoint;
+        }
+
+        final int checkpointPosition = checkpoint * this.checkpointInterval;
+
+        if (move < this.position || checkpointPosition > this.position) {
+            if (checkpoint > 0) {
+                this.gameLogic = Snapshot.load(this.checkpointPath(checkpointPosition));
+                this.position = checkpointPosition;
+                this.generated = true;
+            } else {
+                this.reset();
+            }
+        }
+
+        while (this.position < move) {
+            this.step();
+        }
+    }
+
+    /**
+     * Spielt bis zum Ende des Journals.
+     */
+    public void play() throws IOException {
+        this.seek(this.moves);
+    }
+
+    /**
+     * Löscht die abgelegten Zwischenstände.
+     */
+    @Override
+    public void close() throws IOException {
+        for (int checkpoint = 1; checkpoint < this.checkpoints.length; ++checkpoint) {
+            if (this.checkpoints[checkpoint]) {
+                Files.deleteIfExists(this.checkpointPath(checkpoint * this.checkpointInterval));
+                this.checkpoints[checkpoint] = false;
+            }
+        }
+    }
+
+    private void reset() {
+        this.gameLogic = new GameLogic();
+        this.position = 0;
+        this.generated = false;
+    }
+
+    private void apply(int move) {
+        final int x = this.xs[move];
+        final int y = this.ys[move];
+
+        switch (this.kinds[move]) {
+            case Journal.REVEAL -> this.gameLogic.reveal(x, y, null);
+            case Journal.INTERACT -> this.gameLogic.interactAt(x, y);
+            case Journal.FLAG -> this.gameLogic.setFlagAt(x, y);
+            case Journal.GENERATE -> {
+                final int game = x * GAME_PARAMETERS;
+
+                this.gameLogic.setSeed(this.games[game + 1]);
+
+                switch (this.games[game]) {
+                    case Journal.SQUARE_GAME -> this.gameLogic.generateSquareGame(this.games[game + 2], this.games[game + 3], this.games[game + 4]);
+                    case Journal.PROCEDURAL_GAME -> this.gameLogic.generateProceduralGame();
+                    default -> this.gameLogic.generateHashedProceduralGame();
+                }
+
+                this.generated = true;
+            }
+            default -> throw new IllegalStateException("unknown journal entry: " + this.kinds[move]);
+        }
+    }
+
+    private Path checkpointPath(int position) {
+        return this.checkpointDirectory.resolve("checkpoint-" + position + ".snapshot");
+    }
+
+    /**
+     * Spielt ein Journal nach und springt anschließend zu einem Zug.
+     * <p>
+     * Aufruf: {@code Replay <journal> [move]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: Replay <journal> [move]");
+            System.exit(1);
+        }
+
+        final Path checkpointDirectory = Files.createTempDirectory("replay");
+
+        try (Replay replay = Replay.open(Path.of(args[0]), checkpointDirectory, DEFAULT_CHECKPOINT_INTERVAL)) {
+            long start = System.nanoTime();
+            replay.play();
+            System.out.printf("Replayed %d moves in %.2f ms, revealed %d fields, lost: %b%n", replay.moves(), (System.nanoTime() - start) / 1e6, replay.game().revealedFields(), replay.game().isLost());
+
+            final int move = args.length > 1 ? Integer.parseInt(args[1]) : replay.moves() / 2;
+
+            start = System.nanoTime();
+            replay.seek(move);
+            System.out.printf("Seeked to move %d in %.2f ms, revealed %d fields, lost: %b%n", move, (System.nanoTime() - start) / 1e6, replay.game().revealedFields(), replay.game().isLost());
+        } finally {
+            Files.deleteIfExists(checkpointDirectory);
+        }
+    }
+}
@@ -0,0 +1,504 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Eine unendliche Welt, in der viele Spieler gleichzeitig aufdecken und Flaggen setzen. Wie bei {@link HashedBoard}
+ * sind die Bomben eine reine Funktion von Seed und Koordinaten, gespeichert werden nur aufgedeckte Felder, Flaggen
+ * und Startpunkte. Ein Feld existiert, wenn es ein Startpunkt oder aufgedeckt ist oder neben einem aufgedeckten Feld
+ * ohne Bombe liegt. Der Ursprung ist immer ein Startpunkt, damit verhält sich die Welt für einen einzelnen Spieler wie
+ * {@link GameLogic#generateHashedProceduralGame()} mit demselben Seed.
+ * <p>
+ * Die Chunks sind auf {@link #STRIPES} Streifen verteilt. Jeder Streifen hat eine eigene Sperre und eine eigene
+ * Tabelle seiner Chunks, Spieler in verschiedenen Gegenden sperren deshalb meist verschiedene Streifen. Ein Zug hält
+ * nie mehr als eine Sperre: Eine Kaskade deckt unter der Sperre eines Chunks auf, was in diesem Chunk liegt, und
+ * reiht Felder jenseits des Randes ein, um sie danach unter der Sperre ihres Chunks aufzudecken. Ob ein Feld neu
+ * aufgedeckt wird, entscheidet sich unter der Sperre seines Chunks, treffen sich zwei Kaskaden, deckt jede nur die
+ * Felder auf, die die andere noch nicht erreicht hat.
+ */
+public class SharedWorld {
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int STRIPE_BITS = 8;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Warteschlangen einer Kaskade, je Thread wiederverwendet.
+     */
+    private static final ThreadLocal<Cascade> CASCADES = ThreadLocal.withInitial(Cascade::new);
+
+    private final long seed;
+    private final Stripe[] stripes;
+
+    private final LongAdder revealedFields;
+    private final LongAdder explosions;
+
+    public SharedWorld(long seed) {
+        this.seed = seed;
+        this.stripes = new Stripe[STRIPES];
+
+        for (int stripe = 0; stripe < STRIPES; ++stripe) {
+            this.stripes[stripe] = new Stripe();
+        }
+
+        this.revealedFields = new LongAdder();
+        this.explosions = new LongAdder();
+
+        final Stripe stripe = this.stripeFor(0L);
+        final Chunk origin = this.lockChunk(stripe, 0L);
+
+        try {
+            setBit(origin.spawns, 0);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    public long seed() {
+        return this.seed;
+    }
+
+    /**
+     * @return die Anzahl der aufgedeckten Felder ohne Bombe
+     */
+    public long revealedFields() {
+        return this.revealedFields.sum();
+    }
+
+    /**
+     * @return die Anzahl der aufgedeckten Bomben. Eine Bombe beendet in der gemeinsamen Welt kein Spiel.
+     */
+    public long explosions() {
+        return this.explosions.sum();
+    }
+
+    public int chunkCount() {
+        int chunks = 0;
+
+        for (Stripe stripe : this.stripes) {
+            stripe.lock();
+
+            try {
+                chunks += stripe.chunks.size();
+            } finally {
+                stripe.unlock();
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Legt ab {@code x} nach rechts suchend das erste Feld ohne Bombe und ohne benachbarte Bomben als Startpunkt an,
+     * damit ein neuer Spieler abseits der anderen mit einem aufdeckenden Zug beginnen kann.
+     *
+     * @return das gepackte Feld des Startpunkts
+     */
+    public long spawnNear(int x, int y) {
+        for (int cellX = x; ; ++cellX) {
+            final long key = Coordinate.pack(cellX >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+            final Stripe stripe = this.stripeFor(key);
+            final Chunk chunk = this.lockChunk(stripe, key);
+
+            try {
+                final int index = index(cellX, y);
+
+                if (!bit(chunk.bombs, index) && chunk.neighborCounts[index] == 0) {
+                    setBit(chunk.spawns, index);
+                    return Coordinate.pack(cellX, y);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    public boolean isFieldAt(int x, int y) {
+        final long key = Coordinate.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        final Stripe stripe = this.stripeFor(key);
+
+        stripe.lock();
+
+        try {
+            final Chunk chunk = stripe.chunks.get(key);
+            final int index = index(x, y);
+
+            if (chunk != null && (bit(chunk.spawns, index) || bit(chunk.revealed, index))) {
+                return true;
+            }
+        } finally {
+            stripe.unlock();
+        }
+
+        for (int neighbor = 0; neighbor < GameLogic.NEIGHBORS; ++neighbor) {
+            if (this.isOpenAt(GameLogic.neighborX(x, neighbor), GameLogic.neighborY(y, neighbor))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return ob das Feld aufgedeckt ist und keine Bombe hat, seine Nachbarn also Felder sind
+     */
+    private boolean isOpenAt(int x, int y) {
+        final long key = Coordinate.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        final Stripe stripe = this.stripeFor(key);
+
+        stripe.lock();
+
+        try {
+            final Chunk chunk = stripe.chunks.get(key);
+            final int index = index(x, y);
+
+            return chunk != null && bit(chunk.revealed, index) && !bit(chunk.bombs, index);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Wie {@link GameLogic#fieldInfoAt(int, int)}. Der Zustand kann sich durch andere Spieler schon beim Zurückgeben
+     * geändert haben, aufgedeckte Felder bleiben aber aufgedeckt.
+     */
+    public FieldState fieldInfoAt(int x, int y) {
+        final long key = Coordinate.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        final Stripe stripe = this.stripeFor(key);
+        final int index = index(x, y);
+
+        boolean revealed = false;
+        boolean flagged = false;
+        boolean bomb;
+        int unsafeNeighbors = 0;
+
+        stripe.lock();
+
+        try {
+            final Chunk chunk = stripe.chunks.get(key);
+
+            if (chunk != null) {
+                revealed = bit(chunk.revealed, index);
+                flagged = bit(chunk.flags, index);
+                bomb = bit(chunk.bombs, index);
+                unsafeNeighbors = chunk.neighborCounts[index];
+            } else {
+                bomb = HashedBoard.isBombAt(this.seed, x, y);
+            }
+        } finally {
+            stripe.unlock();
+        }
+
+        if (revealed) {
+            return bomb ? FieldState.REVEALED_BOMB : GameLogic.revealedState(unsafeNeighbors);
+        }
+
+        if (!this.isFieldAt(x, y)) {
+            return FieldState.NONE;
+        }
+
+        if (flagged) {
+            return FieldState.FLAG;
+        }
+
+        return bomb ? FieldState.UNREVEALED_BOMB : FieldState.BLANK;
+    }
+
+    /**
+     * Liefert den Zustand, den ein Spieler sieht. Verdeckte Bomben erscheinen wie jedes andere verdeckte Feld.
+     */
+    public FieldState stateAt(int x, int y) {
+        final FieldState state = this.fieldInfoAt(x, y);
+
+        return state == FieldState.UNREVEALED_BOMB ? FieldState.BLANK : state;
+    }
+
+    /**
+     * Wie {@link GameLogic#placeFlagAt(int, int)}: Eine Flagge bleibt auf jedem verdeckten Feld liegen, sonst
+     * verriete {@link #stateAt(int, int)} danach, ob darunter eine Bombe liegt.
+     */
+    public void setFlagAt(int x, int y) {
+        if (!this.isFieldAt(x, y)) {
+            return;
+        }
+
+        final long key = Coordinate.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        final Stripe stripe = this.stripeFor(key);
+        final Chunk chunk = this.lockChunk(stripe, key);
+
+        try {
+            final int index = index(x, y);
+
+            if (!bit(chunk.revealed, index)) {
+                setBit(chunk.flags, index);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Deckt das Feld und, falls es keine benachbarten Bomben hat, das gesamte zusammenhängende leere Gebiet samt
+     * Rand auf, soweit kein anderer Spieler es schon aufgedeckt hat. Die neu aufgedeckten Felder werden gepackt an
+     * {@code revealedCells} angehängt, sofern die Warteschlange nicht {@code null} ist, Chunk für Chunk und
+     * innerhalb eines Chunks in Aufdeckreihenfolge.
+     *
+     * @return die Anzahl der von diesem Zug aufgedeckten Felder
+     */
+    public int reveal(int x, int y, LongQueue revealedCells) {
+        if (!this.isFieldAt(x, y)) {
+            return 0;
+        }
+
+        final Cascade cascade = CASCADES.get();
+        final LongQueue pending = cascade.pending;
+
+        pending.clear();
+        pending.add(Coordinate.pack(x, y));
+
+        int revealed = 0;
+
+        while (!pending.isEmpty()) {
+            revealed += this.revealInChunk(pending.poll(), cascade, revealedCells);
+        }
+
+        return revealed;
+    }
+
+    /**
+     * Deckt {@code cell} und das von dort in seinem Chunk erreichbare leere Gebiet unter der Sperre des Chunks auf.
+     * Nachbarn in anderen Chunks werden an {@link Cascade#pending} angehängt, auch wenn sie schon aufgedeckt sind;
+     * das zeigt sich erst unter ihrer eigenen Sperre.
+     */
+    private int revealInChunk(long cell, Cascade cascade, LongQueue revealedCells) {
+        final int cellX = Coordinate.unpackX(cell);
+        final int cellY = Coordinate.unpackY(cell);
+        final int left = cellX & ~CHUNK_MASK;
+        final int top = cellY & ~CHUNK_MASK;
+
+        final long key = Coordinate.pack(cellX >> CHUNK_SHIFT, cellY >> CHUNK_SHIFT);
+        final Stripe stripe = this.stripeFor(key);
+        final Chunk chunk = this.lockChunk(stripe, key);
+
+        try {
+            final int index = index(cellX, cellY);
+
+            if (!setBit(chunk.revealed, index)) {
+                return 0;
+            }
+
+            if (revealedCells != null) {
+                revealedCells.add(cell);
+            }
+
+            // Nur der angeklickte Startpunkt kann eine Bombe sein, jedes weitere Feld grenzt an eines ohne Nachbarbomben.
+            if (bit(chunk.bombs, index)) {
+                this.explosions.increment();
+                return 1;
+            }
+
+            final LongQueue local = cascade.local;
+
+            local.clear();
+            local.add(index);
+
+            int revealed = 1;
+
+            while (!local.isEmpty()) {
+                final int current = (int) local.poll();
+
+                if (chunk.neighborCounts[current] != 0) {
+                    continue;
+                }
+
+                final int column = current & CHUNK_MASK;
+                final int row = current >>> CHUNK_SHIFT;
+
+                for (int neighbor = 0; neighbor < GameLogic.NEIGHBORS; ++neighbor) {
+                    final int neighborColumn = GameLogic.neighborX(column, neighbor);
+                    final int neighborRow = GameLogic.neighborY(row, neighbor);
+
+                    if (((neighborColumn | neighborRow) & ~CHUNK_MASK) != 0) {
+                        cascade.pending.add(Coordinate.pack(left + neighborColumn, top + neighborRow));
+                        continue;
+                    }
+
+                    final int neighborIndex = (neighborRow << CHUNK_SHIFT) | neighborColumn;
+
+                    if (!setBit(chunk.revealed, neighborIndex)) {
+                        continue;
+                    }
+
+                    local.add(neighborIndex);
+                    ++revealed;
+
+                    if (revealedCells != null) {
+                        revealedCells.add(Coordinate.pack(left + neighborColumn, top + neighborRow));
+                    }
+                }
+            }
+
+            this.revealedFields.add(revealed);
+
+            return revealed;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private Stripe stripeFor(long key) {
+        return this.stripes[(int) ((key * GOLDEN_GAMMA) >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    /**
+     * Sperrt {@code stripe} und liefert den Chunk, der bei Bedarf angelegt wird. Die Bomben eines neuen Chunks
+     * entstehen ohne Sperre, damit andere Chunks des Streifens so lange erreichbar bleiben. Der Aufrufer gibt die
+     * Sperre wieder frei.
+     */
+    private Chunk lockChunk(Stripe stripe, long key) {
+        stripe.lock();
+
+        final Chunk chunk = stripe.chunks.get(key);
+
+        if (chunk != null) {
+            return chunk;
+        }
+
+        stripe.unlock();
+
+        final Chunk created = new Chunk();
+        HashedBoard.generateTerrain(this.seed, key, created.bombs, created.neighborCounts);
+
+        stripe.lock();
+
+        // Ein anderer Thread kann den Chunk in der Zwischenzeit angelegt haben.
+        final Chunk existing = stripe.chunks.get(key);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        stripe.chunks.put(key, created);
+
+        return created;
+    }
+
+    private static int index(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    private static boolean bit(long[] plane, int index) {
+        return (plane[index >>> CHUNK_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return {@code false}, wenn das Bit schon gesetzt war
+     */
+    private static boolean setBit(long[] plane, int index) {
+        final long before = plane[index >>> CHUNK_SHIFT];
+
+        plane[index >>> CHUNK_SHIFT] = before | 1L << index;
+
+        return (before & (1L << index)) == 0;
+    }
+
+    /**
+     * Eine Sperre samt der Chunks, die sie schützt.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongMap<Chunk> chunks = new LongMap<>();
+
+        private void lock() {
+            this.lock.lock();
+        }
+
+        private void unlock() {
+            this.lock.unlock();
+        }
+    }
+
+    private static final class Chunk {
+        private final long[] bombs = new long[CHUNK_SIZE];
+        private final byte[] neighborCounts = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        private final long[] revealed = new long[CHUNK_SIZE];
+        private final long[] flags = new long[CHUNK_SIZE];
+        private final long[] spawns = new long[CHUNK_SIZE];
+    }
+
+    private static final class Cascade {
+        private final LongQueue pending = new LongQueue();
+        private final LongQueue local = new LongQueue();
+    }
+
+    /**
+     * Misst, wie viele Züge eine Anzahl Spieler in derselben Welt schafft. Jeder Spieler deckt zufällige Nachbarn
+     * der Felder auf, die er selbst aufgedeckt hat. Mit {@code spacing} 0 beginnen alle am Ursprung und kommen sich
+     * ständig in die Quere, sonst beginnt jeder Spieler {@code spacing} Felder rechts des vorigen.
+     * <p>
+     * Aufruf: {@code SharedWorld [players] [seconds] [spacing]}
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int players = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final long duration = TimeUnit.SECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 10L);
+        final int spacing = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 16;
+
+        final SharedWorld world = new SharedWorld(92161842L);
+        final LongAdder moves = new LongAdder();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[players];
+        final long[] deadline = new long[1];
+
+        for (int player = 0; player < players; ++player) {
+            final long spawn = spacing == 0 ? 0L : world.spawnNear(player * spacing, 0);
+            final SplittableRandom random = new SplittableRandom(player);
+
+            threads[player] = new Thread(() -> {
+                final LongQueue frontier = new LongQueue();
+                long playerMoves = 0L;
+
+                frontier.add(spawn);
+
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                final long end = deadline[0];
+
+                while (System.nanoTime() - end < 0) {
+                    final long cell = frontier.get(random.nextInt(frontier.size()));
+                    final int neighbor = random.nextInt(GameLogic.NEIGHBORS + 1);
+
+                    if (neighbor == GameLogic.NEIGHBORS) {
+                        world.reveal(Coordinate.unpackX(cell), Coordinate.unpackY(cell), frontier);
+                    } else {
+                        world.reveal(GameLogic.neighborX(Coordinate.unpackX(cell), neighbor), GameLogic.neighborY(Coordinate.unpackY(cell), neighbor), frontier);
+                    }
+
+                    ++playerMoves;
+                }
+
+                moves.add(playerMoves);
+            }, "player-" + player);
+
+            threads[player].start();
+        }
+
+        deadline[0] = System.nanoTime() + duration;
+        start.countDown();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%d players, %d s: %d moves (%.0f/s), %d revealed, %d explosions, %d chunks%n", players, TimeUnit.NANOSECONDS.toSeconds(duration), moves.sum(), moves.sum() * 1e9 / duration, world.revealedFields(), world.explosions(), world.chunkCount());
+    }
+}
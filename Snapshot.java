@@ -0,0 +1,344 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Speichert und lädt Spielstände in einem kompakten Binärformat. Die Bit-Ebenen werden unverändert als
+ * {@code long}s in die Datei abgebildet und beim Laden blockweise kopiert, ohne einzelne Felder zu dekodieren.
+ * <p>
+ * Aufbau (Little Endian):
+ * <pre>
+ *  0  int    Kennung "MSWP"
+ *  4  int    Version
+ *  8  byte   Art des Spielfelds (0 feste Größe, 1 Chunks, 2 Chunks mit Bomben aus dem Seed)
+ *  9  byte   verloren
+ * 12  int    Länge des Zufallszustands
+ * 16  long   Seed
+ * 24  int[4] minX, minY, maxX, maxY
+ * 40  long   Felder ohne Bombe
+ * 48  long   aufgedeckte Felder ohne Bombe
+ * 56  int[2] Breite und Höhe, bei Chunks die Anzahl der Chunks
+ * 64         Zufallszustand, aufgefüllt auf 8 Bytes
+ * </pre>
+ * Bei fester Größe folgen die Ebenen Bomben, aufgedeckt und Flaggen mit je {@code (width * height + 63) / 64}
+ * {@code long}s. Bei Chunks folgt pro Chunk der Schlüssel und die Ebenen Felder, Bomben, aufgedeckt und Flaggen mit
+ * je 64 {@code long}s. Die Nachbarzähler werden nicht gespeichert, sondern beim Laden neu gebildet. Ergeben sich
+ * die Bomben aus dem Seed, bleibt deren Ebene leer.
+ */
+public final class Snapshot {
+    private static final int MAGIC = 0x5057534D;
+    private static final int VERSION = 1;
+
+    private static final byte DENSE = 0;
+    private static final byte CHUNKED = 1;
+    private static final byte HASHED = 2;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int CHUNK_ROWS = 64;
+    private static final int CHUNK_LONGS = 1 + 4 * CHUNK_ROWS;
+
+    /**
+     * Chunks werden in Abschnitten dieser Größe abgebildet, damit keine Abbildung größer als 2 GB wird.
+     */
+    private static final int CHUNKS_PER_MAPPING = 1 << 16;
+
+    private Snapshot() {
+    }
+
+    public static void save(GameLogic gameLogic, Path path) throws IOException {
+        final Board board = gameLogic.board();
+        final byte[] random = serialize(gameLogic.random());
+        final long dataOffset = align(HEADER_SIZE + random.length);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0L, dataOffset);
+
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.put(board instanceof DenseBoard ? DENSE : board instanceof HashedBoard ? HASHED : CHUNKED);
+            header.put((byte) (gameLogic.isLost() ? 1 : 0));
+            header.putShort((short) 0);
+            header.putInt(random.length);
+            header.putLong(gameLogic.seed());
+            header.putInt(gameLogic.minX());
+            header.putInt(gameLogic.minY());
+            header.putInt(gameLogic.maxX());
+            header.putInt(gameLogic.maxY());
+            header.putLong(gameLogic.safeFields());
+            header.putLong(gameLogic.revealedFields());
+
+            if (board instanceof DenseBoard dense) {
+                header.putInt(dense.width());
+                header.putInt(dense.height());
+                header.put(random);
+                header.force();
+
+                long offset = dataOffset;
+
+                offset = writePlane(channel, offset, dense.bombPlane());
+                offset = writePlane(channel, offset, dense.revealedPlane());
+                writePlane(channel, offset, dense.flagPlane());
+            } else if (board instanceof ChunkedBoard chunked) {
+                header.putInt(chunked.chunkCount());
+                header.putInt(0);
+                header.put(random);
+                header.force();
+
+                writeChunks(channel, dataOffset, chunked);
+            } else if (board instanceof HashedBoard hashed) {
+                header.putInt(hashed.state().chunkCount());
+                header.putInt(0);
+                header.put(random);
+                header.force();
+
+                writeChunks(channel, dataOffset, hashed.state());
+            } else {
+                throw new IOException("Unsupported board: " + board.getClass().getName());
+            }
+        }
+    }
+
+    public static GameLogic load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+
+            final MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+
+            final int version = header.getInt();
+
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+
+            final byte mode = header.get();
+            final boolean lost = header.get() != 0;
+            header.getShort();
+            final int randomLength = header.getInt();
+            final long seed = header.getLong();
+            final int minX = header.getInt();
+            final int minY = header.getInt();
+            final int maxX = header.getInt();
+            final int maxY = header.getInt();
+            final long safeFields = header.getLong();
+            final long revealedFields = header.getLong();
+            final int first = header.getInt();
+            final int second = header.getInt();
+
+            final long dataOffset = align(HEADER_SIZE + (long) randomLength);
+
+            if (randomLength < 0 || dataOffset > channel.size()) {
+                throw new IOException("Truncated snapshot: " + path);
+            }
+
+            final Random random = deserialize(map(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, randomLength));
+            final Board board;
+
+            if (mode == DENSE) {
+                final long words = ((long) first * second + 63) >>> 6;
+
+                if (first <= 0 || second <= 0 || dataOffset + 3 * words * Long.BYTES > channel.size()) {
+                    throw new IOException("Truncated snapshot: " + path);
+                }
+
+                final long[] bombs = readPlane(channel, dataOffset, (int) words);
+                final long[] revealed = readPlane(channel, dataOffset + words * Long.BYTES, (int) words);
+                final long[] flags = readPlane(channel, dataOffset + 2 * words * Long.BYTES, (int) words);
+
+                board = new DenseBoard(first, second, bombs, revealed, flags);
+            } else if (mode == CHUNKED || mode == HASHED) {
+                if (first < 0 || dataOffset + (long) first * CHUNK_LONGS * Long.BYTES > channel.size()) {
+                    throw new IOException("Truncated snapshot: " + path);
+                }
+
+                final ChunkedBoard chunked = readChunks(channel, dataOffset, first);
+
+                board = mode == HASHED ? new HashedBoard(seed, chunked) : chunked;
+            } else {
+                throw new IOException("Unknown board type " + mode + ": " + path);
+            }
+
+            final GameLogic gameLogic = new GameLogic();
+            gameLogic.restore((int) seed, board, minX, minY, maxX, maxY, mode != DENSE, random, safeFields, revealedFields, lost);
+
+            return gameLogic;
+        }
+    }
+
+    private static long writePlane(FileChannel channel, long offset, long[] plane) throws IOException {
+        final MappedByteBuffer buffer = map(channel, FileChannel.MapMode.READ_WRITE, offset, (long) plane.length * Long.BYTES);
+
+        buffer.asLongBuffer().put(plane);
+        buffer.force();
+
+        return offset + (long) plane.length * Long.BYTES;
+    }
+
+    private static long[] readPlane(FileChannel channel, long offset, int words) throws IOException {
+        final long[] plane = new long[words];
+
+        map(channel, FileChannel.MapMode.READ_ONLY, offset, (long) words * Long.BYTES).asLongBuffer().get(plane);
+
+        return plane;
+    }
+
+    private static void writeChunks(FileChannel channel, long offset, ChunkedBoard board) throws IOException {
+        final ChunkWriter writer = new ChunkWriter(channel, offset, board.chunkCount());
+
+        try {
+            board.forEachChunk(writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.finish();
+    }
+
+    private static ChunkedBoard readChunks(FileChannel channel, long offset, int chunkCount) throws IOException {
+        final ChunkedBoard board = new ChunkedBoard();
+        final long[] keys = new long[chunkCount];
+        final long[] chunkData = new long[CHUNK_LONGS];
+
+        final long[] fields = new long[CHUNK_ROWS];
+        final long[] bombs = new long[CHUNK_ROWS];
+        final long[] revealed = new long[CHUNK_ROWS];
+        final long[] flags = new long[CHUNK_ROWS];
+
+        for (int start = 0; start < chunkCount; start += CHUNKS_PER_MAPPING) {
+            final int chunks = Math.min(CHUNKS_PER_MAPPING, chunkCount - start);
+            final LongBuffer input = map(channel, FileChannel.MapMode.READ_ONLY, offset + (long) start * CHUNK_LONGS * Long.BYTES, (long) chunks * CHUNK_LONGS * Long.BYTES).asLongBuffer();
+
+            for (int chunk = 0; chunk < chunks; ++chunk) {
+                input.get(chunkData);
+
+                System.arraycopy(chunkData, 1, fields, 0, CHUNK_ROWS);
+                System.arraycopy(chunkData, 1 + CHUNK_ROWS, bombs, 0, CHUNK_ROWS);
+                System.arraycopy(chunkData, 1 + 2 * CHUNK_ROWS, revealed, 0, CHUNK_ROWS);
+                System.arraycopy(chunkData, 1 + 3 * CHUNK_ROWS, flags, 0, CHUNK_ROWS);
+
+                keys[start + chunk] = chunkData[0];
+                board.putChunk(chunkData[0], fields, bombs, revealed, flags);
+            }
+        }
+
+        for (long key : keys) {
+            board.countBombsIn(key);
+        }
+
+        return board;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long size) throws IOException {
+        final MappedByteBuffer buffer = channel.map(mode, offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        return buffer;
+    }
+
+    private static long align(long offset) {
+        return (offset + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * Der Zufallsgenerator des prozeduralen Modus bestimmt die künftigen Bomben, sein Zustand wird deshalb
+     * mitgespeichert. {@link Random} gibt ihn nur über die Serialisierung preis.
+     */
+    private static byte[] serialize(Random random) throws IOException {
+        if (random == null) {
+            return new byte[0];
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(random);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static Random deserialize(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            input.setObjectInputFilter(ObjectInputFilter.Config.createFilter("java.util.Random;!*"));
+
+            return (Random) input.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid random state in snapshot", e);
+        }
+    }
+
+    /**
+     * Schreibt die Chunks nacheinander und bildet dazu jeweils den nächsten Abschnitt der Datei ab.
+     */
+    private static final class ChunkWriter implements ObjLongConsumer<long[][]> {
+        private final FileChannel channel;
+        private final long offset;
+        private final int chunkCount;
+        private final long[] chunkData;
+
+        private MappedByteBuffer mapping;
+        private LongBuffer output;
+        private int written;
+
+        private ChunkWriter(FileChannel channel, long offset, int chunkCount) {
+            this.channel = channel;
+            this.offset = offset;
+            this.chunkCount = chunkCount;
+            this.chunkData = new long[CHUNK_LONGS];
+            this.mapping = null;
+            this.output = null;
+            this.written = 0;
+        }
+
+        @Override
+        public void accept(long[][] planes, long key) {
+            if (this.written % CHUNKS_PER_MAPPING == 0) {
+                this.finish();
+
+                final long chunks = Math.min(CHUNKS_PER_MAPPING, this.chunkCount - this.written);
+
+                try {
+                    this.mapping = map(this.channel, FileChannel.MapMode.READ_WRITE, this.offset + (long) this.written * CHUNK_LONGS * Long.BYTES, chunks * CHUNK_LONGS * Long.BYTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                this.output = this.mapping.asLongBuffer();
+            }
+
+            this.chunkData[0] = key;
+
+            for (int plane = 0; plane < planes.length; ++plane) {
+                System.arraycopy(planes[plane], 0, this.chunkData, 1 + plane * CHUNK_ROWS, CHUNK_ROWS);
+            }
+
+            this.output.put(this.chunkData);
+            ++this.written;
+        }
+
+        private void finish() {
+            if (this.mapping != null) {
+                this.mapping.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,955 @@
+import java.util.Arrays;
+
+/**
+ * Spielt Spiele mit fester Größe allein anhand der sichtbaren Felder. Zuerst werden sichere Felder und Bomben mit
+ * einfachen Regeln gefolgert: aus einer einzelnen Zahl und aus zwei Zahlen, deren verdeckte Nachbarn in einander
+ * enthalten sind. Reicht das nicht, werden die Belegungen des Randes gezählt. Der Rand zerfällt dabei in
+ * unabhängige Teile, die einzeln aufgezählt und über die Anzahl ihrer Bomben zu exakten Wahrscheinlichkeiten
+ * zusammengesetzt werden. Ist kein Feld sicher, wird das Feld mit der kleinsten Wahrscheinlichkeit aufgedeckt.
+ * <p>
+ * Der Solver merkt sich seinen Stand zwischen den Zügen. Nach einem Zug werden nur die neu aufgedeckten Felder und
+ * deren Nachbarn erneut geprüft, die Zahlen am Rand werden fortlaufend in {@link #frontier} gehalten.
+ */
+public class Solver implements Strategy {
+    private static final byte UNKNOWN = -1;
+    private static final byte MINE = -2;
+    private static final byte SAFE = -3;
+
+    private static final int DEDUCED = -1;
+    private static final int NO_MOVE = -2;
+
+    /**
+     * Größere Teile des Randes werden nicht aufgezählt, ihre Felder zählen dann wie Felder abseits des Randes.
+     */
+    private static final int MAX_COMPONENT_VARIABLES = 64;
+    private static final long MAX_SEARCH_STEPS = 1_000_000L;
+
+    private static final int LOG_FACTORIAL_TABLE_SIZE = 4096;
+    private static final double[] LOG_FACTORIAL = new double[LOG_FACTORIAL_TABLE_SIZE];
+
+    static {
+        for (int n = 1; n < LOG_FACTORIAL_TABLE_SIZE; ++n) {
+            LOG_FACTORIAL[n] = LOG_FACTORIAL[n - 1] + Math.log(n);
+        }
+    }
+
+    private int width;
+    private int height;
+    private int minX;
+    private int minY;
+
+    /**
+     * Stand jedes Feldes: die Zahl eines aufgedeckten Feldes, {@link #UNKNOWN}, {@link #MINE} oder {@link #SAFE}.
+     */
+    private byte[] cells;
+    private int unknownCells;
+    private int remainingMines;
+
+    private int[] work;
+    private boolean[] inWork;
+    private int workHead;
+    private int workSize;
+
+    private int[] frontier;
+    private int[] frontierPosition;
+    private int frontierSize;
+
+    private int[] safeCells;
+    private int safeCount;
+
+    private int[] variableOf;
+    private int[] variableCells;
+    private int[] parent;
+    private int guessStart;
+
+    private final LongQueue revealedCells;
+    private final int[] neighbors;
+
+    public Solver() {
+        this.cells = null;
+        this.revealedCells = new LongQueue();
+        this.neighbors = new int[GameLogic.NEIGHBORS];
+    }
+
+    @Override
+    public boolean move(GameSession session) {
+        if (session.isProcedural() || session.bombs() < 0) {
+            return false;
+        }
+
+        if (this.cells == null) {
+            this.start(session);
+        }
+
+        while (true) {
+            while (this.safeCount > 0) {
+                final int cell = this.safeCells[--this.safeCount];
+
+                if (this.cells[cell] == SAFE) {
+                    this.reveal(session, cell);
+                    return true;
+                }
+            }
+
+            if (this.propagate() || this.applySubsetRule()) {
+                continue;
+            }
+
+            final int guess = this.enumerate();
+
+            if (guess == DEDUCED) {
+                continue;
+            }
+
+            if (guess == NO_MOVE) {
+                return false;
+            }
+
+            this.reveal(session, guess);
+            return true;
+        }
+    }
+
+    private void start(GameSession session) {
+        this.minX = session.minX();
+        this.minY = session.minY();
+        this.width = session.maxX() - this.minX + 1;
+        this.height = session.maxY() - this.minY + 1;
+
+        final int fields = this.width * this.height;
+
+        this.cells = new byte[fields];
+        Arrays.fill(this.cells, UNKNOWN);
+        this.unknownCells = fields;
+        this.remainingMines = session.bombs();
+
+        this.work = new int[fields];
+        this.inWork = new boolean[fields];
+        this.workHead = 0;
+        this.workSize = 0;
+
+        this.frontier = new int[fields];
+        this.frontierPosition = new int[fields];
+        Arrays.fill(this.frontierPosition, -1);
+        this.frontierSize = 0;
+
+        this.safeCells = new int[fields];
+        this.safeCount = 0;
+
+        this.variableOf = new int[fields];
+        Arrays.fill(this.variableOf, -1);
+        this.variableCells = new int[64];
+        this.parent = new int[64];
+        this.guessStart = 0;
+
+        // Felder, die schon vor dem ersten Zug aufgedeckt sind, übernehmen.
+        for (int cell = 0; cell < fields; ++cell) {
+            final int value = number(session.stateAt(this.minX + cell % this.width, this.minY + cell / this.width));
+
+            if (value >= 0) {
+                this.learn(cell, value);
+            }
+        }
+    }
+
+    private void reveal(GameSession session, int cell) {
+        this.revealedCells.clear();
+        session.reveal(this.minX + cell % this.width, this.minY + cell / this.width, this.revealedCells);
+
+        while (!this.revealedCells.isEmpty()) {
+            final long packed = this.revealedCells.poll();
+            final int x = Coordinate.unpackX(packed);
+            final int y = Coordinate.unpackY(packed);
+            final int value = number(session.stateAt(x, y));
+
+            if (value >= 0) {
+                this.learn((y - this.minY) * this.width + (x - this.minX), value);
+            }
+        }
+
+        if (this.cells[cell] < 0 && this.cells[cell] != MINE) {
+            // Das Feld war schon aufgedeckt oder das Spiel ist vorbei, es soll nicht erneut gewählt werden.
+            final int value = number(session.stateAt(this.minX + cell % this.width, this.minY + cell / this.width));
+
+            if (value >= 0) {
+                this.learn(cell, value);
+            } else {
+                this.markMine(cell);
+            }
+        }
+    }
+
+    private void learn(int cell, int value) {
+        final byte previous = this.cells[cell];
+
+        if (previous >= 0) {
+            return;
+        }
+
+        if (previous == UNKNOWN) {
+            --this.unknownCells;
+        } else if (previous == MINE) {
+            ++this.remainingMines;
+        }
+
+        this.cells[cell] = (byte) value;
+        this.addWork(cell);
+        this.touchNeighbors(cell);
+    }
+
+    private void markSafe(int cell) {
+        this.cells[cell] = SAFE;
+        --this.unknownCells;
+        this.safeCells[this.safeCount++] = cell;
+        this.touchNeighbors(cell);
+    }
+
+    private void markMine(int cell) {
+        if (this.cells[cell] == UNKNOWN) {
+            --this.unknownCells;
+        }
+
+        this.cells[cell] = MINE;
+        --this.remainingMines;
+        this.touchNeighbors(cell);
+    }
+
+    private void touchNeighbors(int cell) {
+        final int count = this.neighborsOf(cell, this.neighbors);
+
+        for (int index = 0; index < count; ++index) {
+            if (this.cells[this.neighbors[index]] >= 0) {
+                this.addWork(this.neighbors[index]);
+            }
+        }
+    }
+
+    private void addWork(int cell) {
+        if (this.inWork[cell]) {
+            return;
+        }
+
+        this.inWork[cell] = true;
+        this.work[(this.workHead + this.workSize) % this.work.length] = cell;
+        ++this.workSize;
+    }
+
+    /**
+     * Schreibt die Nachbarn eines Feldes innerhalb des Spielfelds nach {@code result}.
+     *
+     * @return die Anzahl der Nachbarn
+     */
+    private int neighborsOf(int cell, int[] result) {
+        final int x = cell % this.width;
+        final int y = cell / this.width;
+
+        int count = 0;
+
+        for (int neighbor = 0; neighbor < GameLogic.NEIGHBORS; ++neighbor) {
+            final int neighborX = GameLogic.neighborX(x, neighbor);
+            final int neighborY = GameLogic.neighborY(y, neighbor);
+
+            if (neighborX >= 0 && neighborX < this.width && neighborY >= 0 && neighborY < this.height) {
+                result[count++] = neighborY * this.width + neighborX;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Wendet die Regel für einzelne Zahlen auf alle geänderten Zahlen an, bis sich nichts mehr ändert: Fehlen
+     * einer Zahl keine Bomben mehr, sind ihre verdeckten Nachbarn sicher, fehlen so viele wie verdeckte Nachbarn
+     * übrig sind, sind es alle Bomben. Nebenbei wird der Rand nachgeführt.
+     *
+     * @return ob ein sicheres Feld gefunden wurde
+     */
+    private boolean propagate() {
+        final int[] neighbors = new int[GameLogic.NEIGHBORS];
+
+        while (this.workSize > 0) {
+            final int cell = this.work[this.workHead];
+            this.workHead = (this.workHead + 1) % this.work.length;
+            --this.workSize;
+            this.inWork[cell] = false;
+
+            final int count = this.neighborsOf(cell, neighbors);
+
+            int unknown = 0;
+            int mines = 0;
+
+            for (int index = 0; index < count; ++index) {
+                final byte state = this.cells[neighbors[index]];
+
+                if (state == UNKNOWN) {
+                    ++unknown;
+                } else if (state == MINE) {
+                    ++mines;
+                }
+            }
+
+            if (unknown == 0) {
+                this.removeFrontier(cell);
+                continue;
+            }
+
+            final int missing = this.cells[cell] - mines;
+
+            if (missing == 0 || missing == unknown) {
+                for (int index = 0; index < count; ++index) {
+                    if (this.cells[neighbors[index]] == UNKNOWN) {
+                        if (missing == 0) {
+                            this.markSafe(neighbors[index]);
+                        } else {
+                            this.markMine(neighbors[index]);
+                        }
+                    }
+                }
+
+                this.removeFrontier(cell);
+            } else {
+                this.addFrontier(cell);
+            }
+        }
+
+        return this.safeCount > 0;
+    }
+
+    private void addFrontier(int cell) {
+        if (this.frontierPosition[cell] >= 0) {
+            return;
+        }
+
+        this.frontierPosition[cell] = this.frontierSize;
+        this.frontier[this.frontierSize++] = cell;
+    }
+
+    private void removeFrontier(int cell) {
+        final int position = this.frontierPosition[cell];
+
+        if (position < 0) {
+            return;
+        }
+
+        final int last = this.frontier[--this.frontierSize];
+
+        this.frontier[position] = last;
+        this.frontierPosition[last] = position;
+        this.frontierPosition[cell] = -1;
+    }
+
+    /**
+     * Sind die verdeckten Nachbarn einer Zahl {@code a} alle auch Nachbarn einer Zahl {@code b}, liegen im Rest
+     * der Nachbarn von {@code b} genau so viele Bomben, wie {@code b} mehr fehlen als {@code a}.
+     *
+     * @return ob ein Feld gefolgert wurde
+     */
+    private boolean applySubsetRule() {
+        final int[] neighbors = new int[GameLogic.NEIGHBORS];
+        final int[] bNeighbors = new int[GameLogic.NEIGHBORS];
+        boolean deduced = false;
+
+        for (int position = 0; position < this.frontierSize; ++position) {
+            final int a = this.frontier[position];
+            final int ax = a % this.width;
+            final int ay = a / this.width;
+            final int aUnknown = this.countUnknown(a, neighbors);
+
+            if (aUnknown == 0) {
+                continue;
+            }
+
+            final int aMissing = this.cells[a] - this.countMines(a, neighbors);
+            final int aCount = this.neighborsOf(a, neighbors);
+
+            for (int by = Math.max(ay - 2, 0); by <= Math.min(ay + 2, this.height - 1); ++by) {
+                for (int bx = Math.max(ax - 2, 0); bx <= Math.min(ax + 2, this.width - 1); ++bx) {
+                    final int b = by * this.width + bx;
+
+                    if (b == a || this.frontierPosition[b] < 0 || !this.isSubset(neighbors, aCount, bx, by)) {
+                        continue;
+                    }
+
+                    final int bUnknown = this.countUnknown(b, bNeighbors);
+                    final int difference = bUnknown - aUnknown;
+
+                    if (difference == 0) {
+                        continue;
+                    }
+
+                    final int missing = this.cells[b] - this.countMines(b, bNeighbors) - aMissing;
+
+                    if (missing != 0 && missing != difference) {
+                        continue;
+                    }
+
+                    final int bCount = this.neighborsOf(b, bNeighbors);
+
+                    for (int index = 0; index < bCount; ++index) {
+                        final int cell = bNeighbors[index];
+                        final int dx = cell % this.width - ax;
+                        final int dy = cell / this.width - ay;
+
+                        if (this.cells[cell] != UNKNOWN || (Math.abs(dx) <= 1 && Math.abs(dy) <= 1)) {
+                            continue;
+                        }
+
+                        if (missing == 0) {
+                            this.markSafe(cell);
+                        } else {
+                            this.markMine(cell);
+                        }
+
+                        deduced = true;
+                    }
+
+                    if (deduced) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return deduced;
+    }
+
+    /**
+     * @return ob alle verdeckten Felder in {@code neighbors} Nachbarn von ({@code bx}, {@code by}) sind
+     */
+    private boolean isSubset(int[] neighbors, int count, int bx, int by) {
+        for (int index = 0; index < count; ++index) {
+            final int cell = neighbors[index];
+
+            if (this.cells[cell] != UNKNOWN) {
+                continue;
+            }
+
+            if (Math.abs(cell % this.width - bx) > 1 || Math.abs(cell / this.width - by) > 1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int countUnknown(int cell, int[] neighbors) {
+        final int count = this.neighborsOf(cell, neighbors);
+        int unknown = 0;
+
+        for (int index = 0; index < count; ++index) {
+            if (this.cells[neighbors[index]] == UNKNOWN) {
+                ++unknown;
+            }
+        }
+
+        return unknown;
+    }
+
+    private int countMines(int cell, int[] neighbors) {
+        final int count = this.neighborsOf(cell, neighbors);
+        int mines = 0;
+
+        for (int index = 0; index < count; ++index) {
+            if (this.cells[neighbors[index]] == MINE) {
+                ++mines;
+            }
+        }
+
+        return mines;
+    }
+
+    /**
+     * Zählt die Belegungen des Randes. Die verdeckten Felder am Rand werden über gemeinsame Zahlen zu
+     * unabhängigen Teilen verbunden, jeder Teil wird für sich aufgezählt. Die Gewichte der Teile werden über die
+     * Anzahl ihrer Bomben mit der Anzahl der Möglichkeiten kombiniert, die übrigen Bomben auf die Felder abseits
+     * des Randes zu verteilen.
+     *
+     * @return {@link #DEDUCED}, wenn Felder sicher gefolgert wurden, sonst das Feld mit der kleinsten
+     * Wahrscheinlichkeit für eine Bombe oder {@link #NO_MOVE}
+     */
+    private int enumerate() {
+        final int[] neighbors = new int[GameLogic.NEIGHBORS];
+
+        int variables = 0;
+
+        for (int position = 0; position < this.frontierSize; ++position) {
+            final int constraint = this.frontier[position];
+            final int count = this.neighborsOf(constraint, neighbors);
+
+            int first = -1;
+
+            for (int index = 0; index < count; ++index) {
+                final int cell = neighbors[index];
+
+                if (this.cells[cell] != UNKNOWN) {
+                    continue;
+                }
+
+                if (this.variableOf[cell] < 0) {
+                    if (variables == this.variableCells.length) {
+                        this.variableCells = Arrays.copyOf(this.variableCells, variables * 2);
+                        this.parent = Arrays.copyOf(this.parent, variables * 2);
+                    }
+
+                    this.variableOf[cell] = variables;
+                    this.variableCells[variables] = cell;
+                    this.parent[variables] = variables;
+                    ++variables;
+                }
+
+                if (first < 0) {
+                    first = this.variableOf[cell];
+                } else {
+                    this.union(first, this.variableOf[cell]);
+                }
+            }
+        }
+
+        final Component[] components = this.components(variables, neighbors);
+
+        int exactVariables = 0;
+
+        for (Component component : components) {
+            component.search(0, 0);
+
+            if (!component.aborted) {
+                exactVariables += component.variables();
+            }
+        }
+
+        final int result = this.decide(components, this.unknownCells - exactVariables);
+
+        for (int variable = 0; variable < variables; ++variable) {
+            this.variableOf[this.variableCells[variable]] = -1;
+        }
+
+        return result;
+    }
+
+    private int find(int variable) {
+        while (this.parent[variable] != variable) {
+            this.parent[variable] = this.parent[this.parent[variable]];
+            variable = this.parent[variable];
+        }
+
+        return variable;
+    }
+
+    private void union(int a, int b) {
+        final int rootA = this.find(a);
+        final int rootB = this.find(b);
+
+        if (rootA != rootB) {
+            this.parent[rootA] = rootB;
+        }
+    }
+
+    /**
+     * Teilt die Variablen und die Zahlen am Rand nach ihren Wurzeln in unabhängige Teile auf. Zu große Teile
+     * werden als abgebrochen markiert.
+     */
+    private Component[] components(int variables, int[] neighbors) {
+        final int[] componentOfRoot = new int[variables];
+        Arrays.fill(componentOfRoot, -1);
+
+        final int[] localIndex = new int[variables];
+        final int[] componentSizes = new int[variables];
+        int componentCount = 0;
+
+        for (int variable = 0; variable < variables; ++variable) {
+            final int root = this.find(variable);
+
+            if (componentOfRoot[root] < 0) {
+                componentOfRoot[root] = componentCount++;
+            }
+
+            localIndex[variable] = componentSizes[componentOfRoot[root]]++;
+        }
+
+        final int[] constraintCounts = new int[componentCount];
+
+        for (int position = 0; position < this.frontierSize; ++position) {
+            final int component = this.componentOf(this.frontier[position], componentOfRoot, neighbors);
+
+            if (component >= 0) {
+                ++constraintCounts[component];
+            }
+        }
+
+        final Component[] components = new Component[componentCount];
+
+        for (int component = 0; component < componentCount; ++component) {
+            components[component] = new Component(componentSizes[component], constraintCounts[component]);
+        }
+
+        for (int variable = 0; variable < variables; ++variable) {
+            components[componentOfRoot[this.find(variable)]].cells[localIndex[variable]] = this.variableCells[variable];
+        }
+
+        for (int position = 0; position < this.frontierSize; ++position) {
+            final int constraint = this.frontier[position];
+            final int index = this.componentOf(constraint, componentOfRoot, neighbors);
+
+            if (index < 0) {
+                continue;
+            }
+
+            final Component component = components[index];
+            final int local = component.constraintCount++;
+            final int count = this.neighborsOf(constraint, neighbors);
+
+            int mines = 0;
+
+            for (int neighbor = 0; neighbor < count; ++neighbor) {
+                final int cell = neighbors[neighbor];
+
+                if (this.cells[cell] == MINE) {
+                    ++mines;
+                } else if (this.cells[cell] == UNKNOWN) {
+                    component.addConstraint(localIndex[this.variableOf[cell]], local);
+                    ++component.open[local];
+                }
+            }
+
+            component.needed[local] = this.cells[constraint] - mines;
+        }
+
+        for (Component component : components) {
+            component.aborted = component.variables() > MAX_COMPONENT_VARIABLES;
+        }
+
+        return components;
+    }
+
+    private int componentOf(int constraint, int[] componentOfRoot, int[] neighbors) {
+        final int count = this.neighborsOf(constraint, neighbors);
+
+        for (int index = 0; index < count; ++index) {
+            if (this.cells[neighbors[index]] == UNKNOWN) {
+                return componentOfRoot[this.find(this.variableOf[neighbors[index]])];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Setzt die Ergebnisse der Teile zu Wahrscheinlichkeiten zusammen, markiert sichere Felder und Bomben und
+     * wählt sonst das Feld mit der kleinsten Wahrscheinlichkeit.
+     */
+    private int decide(Component[] components, int interiorCells) {
+        int exactVariables = 0;
+
+        for (Component component : components) {
+            if (!component.aborted) {
+                exactVariables += component.variables();
+            }
+        }
+
+        // Gewicht einer Belegung mit m Bomben am Rand: Möglichkeiten, die restlichen Bomben abseits zu verteilen.
+        final double[] weights = new double[exactVariables + 1];
+        double maxLogWeight = Double.NEGATIVE_INFINITY;
+
+        for (int mines = 0; mines <= exactVariables; ++mines) {
+            final int rest = this.remainingMines - mines;
+
+            weights[mines] = rest < 0 || rest > interiorCells ? Double.NEGATIVE_INFINITY : logBinomial(interiorCells, rest);
+            maxLogWeight = Math.max(maxLogWeight, weights[mines]);
+        }
+
+        if (maxLogWeight == Double.NEGATIVE_INFINITY) {
+            return this.guessInterior();
+        }
+
+        for (int mines = 0; mines <= exactVariables; ++mines) {
+            weights[mines] = Math.exp(weights[mines] - maxLogWeight);
+        }
+
+        boolean deduced = false;
+        double bestProbability = Double.POSITIVE_INFINITY;
+        int bestCell = NO_MOVE;
+
+        double[] total = {1.0};
+
+        for (Component component : components) {
+            if (!component.aborted) {
+                total = convolve(total, component.counts);
+            }
+        }
+
+        for (int index = 0; index < components.length; ++index) {
+            final Component component = components[index];
+
+            if (component.aborted) {
+                continue;
+            }
+
+            double[] others = {1.0};
+
+            for (int other = 0; other < components.length; ++other) {
+                if (other != index && !components[other].aborted) {
+                    others = convolve(others, components[other].counts);
+                }
+            }
+
+            // g[k]: Gewicht aller Belegungen der übrigen Teile, wenn dieser Teil k Bomben enthält.
+            final int size = component.variables();
+            final double[] g = new double[size + 1];
+
+            for (int k = 0; k <= size; ++k) {
+                for (int j = 0; j < others.length && k + j < weights.length; ++j) {
+                    g[k] += others[j] * weights[k + j];
+                }
+            }
+
+            double denominator = 0.0;
+
+            for (int k = 0; k <= size; ++k) {
+                denominator += component.counts[k] * g[k];
+            }
+
+            if (denominator <= 0.0) {
+                continue;
+            }
+
+            for (int variable = 0; variable < size; ++variable) {
+                boolean safe = true;
+                boolean mine = true;
+                double numerator = 0.0;
+
+                for (int k = 0; k <= size; ++k) {
+                    final double count = component.cellCounts[variable * (size + 1) + k];
+
+                    if (g[k] > 0.0) {
+                        safe &= count == 0.0;
+                        mine &= count == component.counts[k];
+                    }
+
+                    numerator += count * g[k];
+                }
+
+                final int cell = component.cells[variable];
+
+                if (safe) {
+                    this.markSafe(cell);
+                    deduced = true;
+                } else if (mine) {
+                    this.markMine(cell);
+                    deduced = true;
+                } else if (numerator / denominator < bestProbability) {
+                    bestProbability = numerator / denominator;
+                    bestCell = cell;
+                }
+            }
+        }
+
+        if (deduced) {
+            return DEDUCED;
+        }
+
+        if (interiorCells > 0) {
+            double weighted = 0.0;
+            double expectedMines = 0.0;
+
+            for (int mines = 0; mines < total.length && mines < weights.length; ++mines) {
+                weighted += total[mines] * weights[mines];
+                expectedMines += total[mines] * weights[mines] * (this.remainingMines - mines);
+            }
+
+            final double interiorProbability = weighted > 0.0 ? expectedMines / weighted / interiorCells : 1.0;
+
+            if (interiorProbability < bestProbability) {
+                final int interior = this.guessInterior();
+
+                if (interior >= 0) {
+                    return interior;
+                }
+            }
+        }
+
+        return bestCell;
+    }
+
+    /**
+     * @return ein verdecktes Feld abseits der exakt gezählten Teile des Randes oder {@link #NO_MOVE}
+     */
+    private int guessInterior() {
+        final int fields = this.cells.length;
+
+        for (int offset = 0; offset < fields; ++offset) {
+            final int cell = (this.guessStart + offset) % fields;
+
+            if (this.cells[cell] == UNKNOWN && this.variableOf[cell] < 0) {
+                this.guessStart = cell;
+                return cell;
+            }
+        }
+
+        for (int offset = 0; offset < fields; ++offset) {
+            if (this.cells[offset] == UNKNOWN) {
+                return offset;
+            }
+        }
+
+        return NO_MOVE;
+    }
+
+    /**
+     * Faltet zwei Verteilungen über die Anzahl der Bomben. Das Ergebnis wird auf sein Maximum normiert, da nur
+     * Verhältnisse gebraucht werden.
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        final double[] result = new double[a.length + b.length - 1];
+        double max = 0.0;
+
+        for (int i = 0; i < a.length; ++i) {
+            if (a[i] == 0.0) {
+                continue;
+            }
+
+            for (int j = 0; j < b.length; ++j) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+
+        for (double value : result) {
+            max = Math.max(max, value);
+        }
+
+        if (max > 0.0) {
+            for (int index = 0; index < result.length; ++index) {
+                result[index] /= max;
+            }
+        }
+
+        return result;
+    }
+
+    private static double logBinomial(int n, int k) {
+        return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+    }
+
+    private static double logFactorial(int n) {
+        if (n < LOG_FACTORIAL_TABLE_SIZE) {
+            return LOG_FACTORIAL[n];
+        }
+
+        // Stirling-Reihe, für große n genauer als jede Summe in double.
+        final double x = n;
+
+        return x * Math.log(x) - x + 0.5 * Math.log(2.0 * Math.PI * x) + 1.0 / (12.0 * x) - 1.0 / (360.0 * x * x * x);
+    }
+
+    private static int number(FieldState state) {
+        return switch (state) {
+            case EMPTY -> 0;
+            case ONE -> 1;
+            case TWO -> 2;
+            case THREE -> 3;
+            case FOUR -> 4;
+            case FIVE -> 5;
+            case SIX -> 6;
+            case SEVEN -> 7;
+            case EIGHT -> 8;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Ein unabhängiger Teil des Randes: verdeckte Felder als Variablen und die angrenzenden Zahlen als
+     * Bedingungen. Die Suche zählt alle gültigen Belegungen nach der Anzahl ihrer Bomben.
+     */
+    private static final class Component {
+        private final int[] cells;
+        private final int[][] variableConstraints;
+        private final int[] variableConstraintCounts;
+        private final int[] needed;
+        private final int[] open;
+        private final boolean[] mines;
+        private int constraintCount;
+
+        private final double[] counts;
+        private final double[] cellCounts;
+
+        private long steps;
+        private boolean aborted;
+
+        private Component(int variables, int constraints) {
+            this.cells = new int[variables];
+            this.variableConstraints = new int[variables][GameLogic.NEIGHBORS];
+            this.variableConstraintCounts = new int[variables];
+            this.needed = new int[constraints];
+            this.open = new int[constraints];
+            this.mines = new boolean[variables];
+            this.constraintCount = 0;
+
+            this.counts = new double[variables + 1];
+            this.cellCounts = new double[variables * (variables + 1)];
+
+            this.steps = 0L;
+            this.aborted = false;
+        }
+
+        private int variables() {
+            return this.cells.length;
+        }
+
+        private void addConstraint(int variable, int constraint) {
+            this.variableConstraints[variable][this.variableConstraintCounts[variable]++] = constraint;
+        }
+
+        private void search(int variable, int mineCount) {
+            if (this.aborted) {
+                return;
+            }
+
+            if (++this.steps > MAX_SEARCH_STEPS) {
+                this.aborted = true;
+                return;
+            }
+
+            final int size = this.cells.length;
+
+            if (variable == size) {
+                ++this.counts[mineCount];
+
+                for (int index = 0; index < size; ++index) {
+                    if (this.mines[index]) {
+                        ++this.cellCounts[index * (size + 1) + mineCount];
+                    }
+                }
+
+                return;
+            }
+
+            final int[] constraints = this.variableConstraints[variable];
+            final int constraintCount = this.variableConstraintCounts[variable];
+
+            for (int value = 0; value <= 1; ++value) {
+                boolean valid = true;
+
+                for (int index = 0; index < constraintCount; ++index) {
+                    final int constraint = constraints[index];
+
+                    --this.open[constraint];
+                    this.needed[constraint] -= value;
+
+                    valid &= this.needed[constraint] >= 0 && this.needed[constraint] <= this.open[constraint];
+                }
+
+                if (valid) {
+                    this.mines[variable] = value == 1;
+                    this.search(variable + 1, mineCount + value);
+                    this.mines[variable] = false;
+                }
+
+                for (int index = 0; index < constraintCount; ++index) {
+                    final int constraint = constraints[index];
+
+                    ++this.open[constraint];
+                    this.needed[constraint] += value;
+                }
+            }
+        }
+    }
+}
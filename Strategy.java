@@ -0,0 +1,12 @@
+/**
+ * Ein Spieler für {@link GameSession}s ohne Anzeige, etwa ein Bot, der vom {@link BatchRunner} bewertet wird. Jede
+ * Sitzung bekommt ihre eigene Instanz.
+ */
+public interface Strategy {
+    /**
+     * Macht den nächsten Zug in der Sitzung.
+     *
+     * @return {@code false}, wenn die Strategie keinen Zug mehr weiß und aufgibt
+     */
+    boolean move(GameSession session);
+}
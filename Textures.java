@@ -0,0 +1,287 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Lädt die Texturen der Felder vom Klassenpfad, unabhängig vom Arbeitsverzeichnis. Zustände mit derselben Datei
+ * teilen sich ein Bild, jede Datei wird nur einmal und parallel zu den anderen dekodiert. Liegt neben den Bildern ein
+ * {@link #ATLAS}, werden stattdessen alle Texturen aus dieser einen Datei gelesen, ganz ohne {@link ImageIO}.
+ * <p>
+ * Aufbau des Atlas (Big Endian):
+ * <pre>
+ * int    Kennung "MSTA"
+ * int    Version
+ * int    Breite und Höhe des Atlas
+ * int    Anzahl der Texturen
+ *        pro Textur der Dateiname als modifiziertes UTF-8 und ihr Rechteck im Atlas als int x, y, Breite, Höhe
+ * int[]  Pixel des Atlas als RGB, zeilenweise
+ * </pre>
+ */
+public final class Textures {
+    /**
+     * Verzeichnis auf dem Klassenpfad. Fehlt dort eine Datei, wird sie im gleichnamigen Verzeichnis unterhalb des
+     * Arbeitsverzeichnisses gesucht.
+     */
+    public static final String DIRECTORY = "resource/texture/";
+
+    public static final String ATLAS = "textures.atlas";
+
+    private static final int MAGIC = 0x4D535441;
+    private static final int VERSION = 1;
+
+    private static final Map<FieldState, String> FILES = new EnumMap<>(FieldState.class);
+
+    static {
+        FILES.put(FieldState.NONE, "black.jpg");
+        FILES.put(FieldState.ERROR_STATE, "explodiert.jpg");
+        FILES.put(FieldState.BLANK, "blank.jpg");
+        FILES.put(FieldState.EMPTY, "leer.jpg");
+        FILES.put(FieldState.ONE, "eins.jpg");
+        FILES.put(FieldState.TWO, "zwei.jpg");
+        FILES.put(FieldState.THREE, "drei.jpg");
+        FILES.put(FieldState.FOUR, "vier.jpg");
+        FILES.put(FieldState.FIVE, "fuenf.jpg");
+        FILES.put(FieldState.SIX, "sechs.jpg");
+        FILES.put(FieldState.SEVEN, "sieben.jpg");
+        FILES.put(FieldState.EIGHT, "acht.jpg");
+        FILES.put(FieldState.UNREVEALED_BOMB, "blank.jpg");
+        FILES.put(FieldState.REVEALED_BOMB, "explodiert.jpg");
+        FILES.put(FieldState.FLAG, "fahne.jpg");
+    }
+
+    private Textures() {
+    }
+
+    /**
+     * Beginnt das Laden im Hintergrund, damit der Aufrufer derweil etwa das Fenster anlegen kann.
+     *
+     * @return die Textur für jeden {@link FieldState}. Schlägt das Laden fehl, endet die Zukunft mit einer
+     * {@link UncheckedIOException}.
+     */
+    public static CompletableFuture<Map<FieldState, BufferedImage>> loadAsync() {
+        final URL atlas = resource(ATLAS);
+
+        if (atlas != null) {
+            return CompletableFuture.supplyAsync(() -> readAtlas(atlas));
+        }
+
+        return decodeAsync();
+    }
+
+    private static CompletableFuture<Map<FieldState, BufferedImage>> decodeAsync() {
+        // Der Zwischenspeicher auf der Platte lohnt sich nur für große Bilder aus langsamen Strömen.
+        ImageIO.setUseCache(false);
+
+        final Map<String, CompletableFuture<BufferedImage>> images = new LinkedHashMap<>();
+        final ExecutorService decoders = newDecoderExecutor();
+
+        for (String file : FILES.values()) {
+            images.computeIfAbsent(file, name -> CompletableFuture.supplyAsync(() -> decode(name), decoders));
+        }
+
+        decoders.shutdown();
+
+        return CompletableFuture.allOf(images.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            final Map<FieldState, BufferedImage> textures = new EnumMap<>(FieldState.class);
+
+            for (Map.Entry<FieldState, String> entry : FILES.entrySet()) {
+                textures.put(entry.getKey(), images.get(entry.getValue()).join());
+            }
+
+            return textures;
+        });
+    }
+
+    /**
+     * Dekodiert mit mehreren Kernen im gemeinsamen Pool, sonst nacheinander in einem einzigen Hintergrundthread.
+     * Der gemeinsame Pool würde ohne Parallelität für jede Datei einen eigenen Thread starten.
+     */
+    private static ExecutorService newDecoderExecutor() {
+        if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+            // Der gemeinsame Pool ignoriert shutdown().
+            return ForkJoinPool.commonPool();
+        }
+
+        return Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "texture-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static URL resource(String name) {
+        final URL url = Textures.class.getResource("/" + DIRECTORY + name);
+
+        if (url != null) {
+            return url;
+        }
+
+        final Path path = Path.of(DIRECTORY, name);
+
+        try {
+            return Files.isRegularFile(path) ? path.toUri().toURL() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static BufferedImage decode(String name) {
+        final URL url = resource(name);
+
+        try {
+            if (url == null) {
+                throw new FileNotFoundException(DIRECTORY + name);
+            }
+
+            final BufferedImage image = ImageIO.read(url);
+
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + url);
+            }
+
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<FieldState, BufferedImage> readAtlas(URL url) {
+        final Map<String, int[]> rectangles = new LinkedHashMap<>();
+        final int width;
+        final int height;
+        final int[] pixels;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(url.openStream()))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a texture atlas: " + url);
+            }
+
+            width = input.readInt();
+            height = input.readInt();
+
+            final int count = input.readInt();
+
+            for (int texture = 0; texture < count; ++texture) {
+                rectangles.put(input.readUTF(), new int[]{input.readInt(), input.readInt(), input.readInt(), input.readInt()});
+            }
+
+            final byte[] bytes = new byte[width * height * Integer.BYTES];
+            input.readFully(bytes);
+
+            pixels = new int[width * height];
+            ByteBuffer.wrap(bytes).asIntBuffer().get(pixels);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        atlas.setRGB(0, 0, width, height, pixels, 0, width);
+
+        final Map<String, BufferedImage> images = new LinkedHashMap<>();
+        final Map<FieldState, BufferedImage> textures = new EnumMap<>(FieldState.class);
+
+        for (Map.Entry<FieldState, String> entry : FILES.entrySet()) {
+            final BufferedImage image = images.computeIfAbsent(entry.getValue(), name -> {
+                final int[] rectangle = rectangles.get(name);
+
+                if (rectangle == null) {
+                    throw new UncheckedIOException(new FileNotFoundException(name + " in " + url));
+                }
+
+                // Teilt sich die Pixel mit dem Atlas.
+                return atlas.getSubimage(rectangle[0], rectangle[1], rectangle[2], rectangle[3]);
+            });
+
+            textures.put(entry.getKey(), image);
+        }
+
+        return textures;
+    }
+
+    /**
+     * Packt die einzelnen Bilder nebeneinander in einen Atlas.
+     */
+    public static void writeAtlas(Path path) throws IOException {
+        final Map<FieldState, BufferedImage> textures = decodeAsync().join();
+
+        // Jede Datei nur einmal, in der Reihenfolge ihres ersten Zustands.
+        final Map<BufferedImage, String> names = new IdentityHashMap<>();
+        final List<BufferedImage> images = new ArrayList<>();
+
+        for (Map.Entry<FieldState, String> entry : FILES.entrySet()) {
+            final BufferedImage image = textures.get(entry.getKey());
+
+            if (names.putIfAbsent(image, entry.getValue()) == null) {
+                images.add(image);
+            }
+        }
+
+        int width = 0;
+        int height = 0;
+
+        for (BufferedImage image : images) {
+            width += image.getWidth();
+            height = Math.max(height, image.getHeight());
+        }
+
+        final int[] pixels = new int[width * height];
+
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(path))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(width);
+            output.writeInt(height);
+            output.writeInt(images.size());
+
+            int x = 0;
+
+            for (BufferedImage image : images) {
+                output.writeUTF(names.get(image));
+                output.writeInt(x);
+                output.writeInt(0);
+                output.writeInt(image.getWidth());
+                output.writeInt(image.getHeight());
+
+                image.getRGB(0, 0, image.getWidth(), image.getHeight(), pixels, x, width);
+                x += image.getWidth();
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(pixels.length * Integer.BYTES);
+            buffer.asIntBuffer().put(pixels);
+            output.write(buffer.array());
+        }
+    }
+
+    /**
+     * Schreibt den Atlas aus den Bildern auf dem Klassenpfad. Damit das Spiel ihn findet, muss er neben den Bildern
+     * liegen.
+     * <p>
+     * Aufruf: {@code Textures [output]}
+     */
+    public static void main(String[] args) throws IOException {
+        final Path path = Path.of(args.length > 0 ? args[0] : ATLAS);
+
+        writeAtlas(path);
+
+        System.out.println("Wrote " + path + " (" + Files.size(path) + " bytes)");
+    }
+}
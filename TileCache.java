@@ -0,0 +1,108 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Hält die Texturen im Pixelformat des Bildschirms und zusätzlich auf die aktuelle Feldgröße skaliert vor, damit
+ * jedes Feld ohne Umrechnung kopiert werden kann. Die skalierten Kacheln werden nur neu erzeugt, wenn sich die
+ * Feldgröße oder die Grafikkonfiguration ändert. Zustände mit demselben Bild teilen sich auch dessen Kacheln.
+ */
+public class TileCache {
+    private static final int MAX_TILE_SIZE = 512;
+
+    private final Map<FieldState, BufferedImage> textures;
+
+    private final Map<FieldState, BufferedImage> compatibleTextures;
+    private final Map<FieldState, BufferedImage> tiles;
+
+    private GraphicsConfiguration configuration;
+    private int tileWidth;
+    private int tileHeight;
+
+    public TileCache(Map<FieldState, BufferedImage> textures) {
+        this.textures = textures;
+        this.compatibleTextures = new EnumMap<>(FieldState.class);
+        this.tiles = new EnumMap<>(FieldState.class);
+
+        this.configuration = null;
+        this.tileWidth = 0;
+        this.tileHeight = 0;
+    }
+
+    /**
+     * Passt die Kacheln an die Feldgröße an. Ist die Feldgröße sehr groß, werden keine skalierten Kacheln angelegt.
+     */
+    public void update(GraphicsConfiguration configuration, int tileWidth, int tileHeight) {
+        if (this.compatibleTextures.isEmpty() || configuration != this.configuration) {
+            this.configuration = configuration;
+            this.compatibleTextures.clear();
+            this.tiles.clear();
+
+            final Map<BufferedImage, BufferedImage> converted = new IdentityHashMap<>();
+
+            for (Map.Entry<FieldState, BufferedImage> entry : this.textures.entrySet()) {
+                this.compatibleTextures.put(entry.getKey(), converted.computeIfAbsent(entry.getValue(), texture -> this.scale(texture, texture.getWidth(), texture.getHeight())));
+            }
+        } else if (tileWidth == this.tileWidth && tileHeight == this.tileHeight) {
+            return;
+        }
+
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tiles.clear();
+
+        if (tileWidth <= 0 || tileHeight <= 0 || tileWidth > MAX_TILE_SIZE || tileHeight > MAX_TILE_SIZE) {
+            return;
+        }
+
+        final Map<BufferedImage, BufferedImage> scaled = new IdentityHashMap<>();
+
+        for (Map.Entry<FieldState, BufferedImage> entry : this.compatibleTextures.entrySet()) {
+            this.tiles.put(entry.getKey(), scaled.computeIfAbsent(entry.getValue(), texture -> this.scale(texture, tileWidth, tileHeight)));
+        }
+    }
+
+    public int tileWidth() {
+        return this.tileWidth;
+    }
+
+    public int tileHeight() {
+        return this.tileHeight;
+    }
+
+    /**
+     * Liefert die auf die aktuelle Feldgröße skalierte Kachel oder {@code null}, wenn es keine gibt.
+     */
+    public BufferedImage tile(FieldState state) {
+        return this.tiles.get(state);
+    }
+
+    /**
+     * Liefert die Textur im Pixelformat des Bildschirms, aber in Originalgröße.
+     */
+    public BufferedImage texture(FieldState state) {
+        return this.compatibleTextures.get(state);
+    }
+
+    private BufferedImage scale(BufferedImage source, int width, int height) {
+        final BufferedImage image;
+
+        if (this.configuration != null) {
+            image = this.configuration.createCompatibleImage(width, height, Transparency.OPAQUE);
+        } else {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        final Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+
+        return image;
+    }
+}
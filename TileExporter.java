@@ -0,0 +1,502 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Schreibt ein Spielfeld ohne Anzeige als zoombare Kachelpyramide aus PNG-Dateien {@code <Ebene>/<x>/<y>.png} mit
+ * den Texturen des Spiels. Auf der tiefsten Ebene ist jedes Feld {@code cellSize} Pixel groß, jede Ebene darüber
+ * halbiert die Auflösung, bis auf Ebene 0 das ganze Spielfeld in eine Kachel passt. Kacheln ganz außerhalb des
+ * Spielfelds werden nicht geschrieben.
+ * <p>
+ * Die Kacheln entstehen in einem {@link ForkJoinPool} als Baum: Eine Kachel wartet auf ihre vier Kinder, setzt sich
+ * aus deren auf halbe Größe verkleinerten Bildern zusammen und wird sofort geschrieben. Im Speicher liegen deshalb nur
+ * die Kacheln auf den Wegen, die gerade bearbeitet werden, nie das ganze Bild. Das Spielfeld wird nur unter der Sperre
+ * der {@link GameLogic} gelesen, denn die Zwischenspeicher der Spielfelder sind nicht threadsicher. Der Aufrufer darf
+ * das Spiel während des Exports nur unter derselben Sperre verändern.
+ * <p>
+ * Eine Kachel, deren Felder alle denselben Zustand haben, sieht auf ihrer Ebene immer gleich aus, etwa die weiten
+ * verdeckten Flächen eines großen Spiels. Sie wird pro Ebene und Zustand nur einmal gezeichnet und kodiert, danach
+ * werden nur noch die fertigen Bytes geschrieben.
+ */
+public class TileExporter {
+    public static final int TILE_SIZE = 256;
+
+    private static final int HALF_TILE_SIZE = TILE_SIZE / 2;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * Stufe 3 kodiert doppelt so schnell wie die Voreinstellung von {@link Deflater} und ergibt etwa so große Dateien
+     * wie {@code ImageIO}.
+     */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+    /**
+     * Kein einheitlicher Zustand.
+     */
+    private static final int MIXED = -1;
+
+    private final GameLogic gameLogic;
+    private final int cellSize;
+    private final int cellsPerTile;
+    private final int[][] texturePixels;
+
+    private final int minX, minY;
+    private final int maxX, maxY;
+    private final int maxLevel;
+
+    private final Map<Integer, UniformTile> uniformTiles;
+    private int compressionLevel;
+
+    private final LongAdder tilesWritten;
+    private final LongAdder uniformTilesWritten;
+
+    /**
+     * @param cellSize Kantenlänge eines Feldes in Pixeln auf der tiefsten Ebene, ein Teiler von {@link #TILE_SIZE}
+     */
+    public TileExporter(GameLogic gameLogic, Map<FieldState, BufferedImage> textures, int cellSize) {
+        if (cellSize <= 0 || TILE_SIZE % cellSize != 0) {
+            throw new IllegalArgumentException("cellSize must divide " + TILE_SIZE + ": " + cellSize);
+        }
+
+        this.gameLogic = gameLogic;
+        this.cellSize = cellSize;
+        this.cellsPerTile = TILE_SIZE / cellSize;
+        this.texturePixels = new int[FieldState.values().length][];
+
+        // Zustände mit demselben Bild teilen sich auch die skalierten Pixel.
+        final Map<BufferedImage, int[]> scaled = new IdentityHashMap<>();
+
+        for (Map.Entry<FieldState, BufferedImage> entry : textures.entrySet()) {
+            this.texturePixels[entry.getKey().ordinal()] = scaled.computeIfAbsent(entry.getValue(), this::scale);
+        }
+
+        final int[] bounds = bounds(gameLogic);
+
+        this.minX = bounds[0];
+        this.minY = bounds[1];
+        this.maxX = bounds[2];
+        this.maxY = bounds[3];
+
+        final long cells = Math.max((long) this.maxX - this.minX, (long) this.maxY - this.minY) + 1;
+        int maxLevel = 0;
+
+        while (((long) this.cellsPerTile << maxLevel) < cells) {
+            ++maxLevel;
+        }
+
+        this.maxLevel = maxLevel;
+        this.uniformTiles = new ConcurrentHashMap<>();
+        this.compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+
+        this.tilesWritten = new LongAdder();
+        this.uniformTilesWritten = new LongAdder();
+    }
+
+    /**
+     * Die Grenzen eines Spiels mit fester Größe stehen in der {@link GameLogic}, die eines prozeduralen Spiels ergeben
+     * sich aus den angelegten Chunks.
+     *
+     * @return minX, minY, maxX und maxY, jeweils einschließlich
+     */
+    private static int[] bounds(GameLogic gameLogic) {
+        final Board board = gameLogic.board();
+        final ChunkedBoard chunks = board instanceof HashedBoard hashed ? hashed.state() : board instanceof ChunkedBoard chunked ? chunked : null;
+
+        if (chunks == null || chunks.chunkCount() == 0) {
+            return new int[]{gameLogic.minX(), gameLogic.minY(), gameLogic.maxX(), gameLogic.maxY()};
+        }
+
+        final int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+
+        chunks.forEachChunk((planes, key) -> {
+            final int left = Coordinate.unpackX(key) * ChunkedBoard.CHUNK_SIZE;
+            final int top = Coordinate.unpackY(key) * ChunkedBoard.CHUNK_SIZE;
+
+            bounds[0] = Math.min(bounds[0], left);
+            bounds[1] = Math.min(bounds[1], top);
+            bounds[2] = Math.max(bounds[2], left + ChunkedBoard.CHUNK_SIZE - 1);
+            bounds[3] = Math.max(bounds[3], top + ChunkedBoard.CHUNK_SIZE - 1);
+        });
+
+        return bounds;
+    }
+
+    public int maxLevel() {
+        return this.maxLevel;
+    }
+
+    /**
+     * @param compressionLevel Stufe von {@link Deflater#BEST_SPEED} bis {@link Deflater#BEST_COMPRESSION}
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < Deflater.BEST_SPEED || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("compressionLevel must be in [1, 9]: " + compressionLevel);
+        }
+
+        this.compressionLevel = compressionLevel;
+    }
+
+    public long tilesWritten() {
+        return this.tilesWritten.sum();
+    }
+
+    /**
+     * @return die Anzahl der Kacheln, die aus einer schon kodierten gleichen Kachel geschrieben wurden
+     */
+    public long uniformTilesWritten() {
+        return this.uniformTilesWritten.sum();
+    }
+
+    /**
+     * Schreibt alle Ebenen nach {@code directory}.
+     *
+     * @param parallelism die Anzahl der Threads, die gleichzeitig Kacheln zeichnen und kodieren
+     */
+    public void export(Path directory, int parallelism) throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            pool.invoke(new TileTask(directory, 0, 0, 0));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int[] scale(BufferedImage texture) {
+        final BufferedImage image = new BufferedImage(this.cellSize, this.cellSize, BufferedImage.TYPE_INT_RGB);
+
+        final Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(texture, 0, 0, this.cellSize, this.cellSize, null);
+        graphics.dispose();
+
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Eine fertige Kachel, deren Felder alle denselben Zustand haben.
+     */
+    private static final class UniformTile {
+        private final byte[] png;
+        private final int[] half;
+
+        private UniformTile(byte[] png, int[] half) {
+            this.png = png;
+            this.half = half;
+        }
+    }
+
+    /**
+     * Was eine Kachel an die Ebene darüber weitergibt: sich selbst auf halbe Größe verkleinert und den Zustand aller
+     * ihrer Felder oder {@link #MIXED}.
+     */
+    private static final class Tile {
+        private final int[] half;
+        private final int state;
+
+        private Tile(int[] half, int state) {
+            this.half = half;
+            this.state = state;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class TileTask extends RecursiveTask<Tile> {
+        private final Path directory;
+        private final int level;
+        private final int tileX;
+        private final int tileY;
+
+        private TileTask(Path directory, int level, int tileX, int tileY) {
+            this.directory = directory;
+            this.level = level;
+            this.tileX = tileX;
+            this.tileY = tileY;
+        }
+
+        /**
+         * @return {@code null}, wenn die Kachel außerhalb des Spielfelds liegt
+         */
+        @Override
+        protected Tile compute() {
+            final TileExporter exporter = TileExporter.this;
+            final long cellsPerSide = (long) exporter.cellsPerTile << (exporter.maxLevel - this.level);
+
+            if (exporter.minX + this.tileX * cellsPerSide > exporter.maxX || exporter.minY + this.tileY * cellsPerSide > exporter.maxY) {
+                return null;
+            }
+
+            final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+            final int state;
+
+            if (this.level == exporter.maxLevel) {
+                state = exporter.renderCells(this.tileX, this.tileY, pixels);
+            } else {
+                final TileTask[] children = new TileTask[4];
+
+                for (int child = 0; child < children.length; ++child) {
+                    children[child] = new TileTask(this.directory, this.level + 1, this.tileX * 2 + (child & 1), this.tileY * 2 + (child >>> 1));
+                }
+
+                invokeAll(children);
+
+                int childState = MIXED;
+
+                for (int child = 0; child < children.length; ++child) {
+                    final Tile tile = children[child].join();
+
+                    if (tile == null) {
+                        childState = MIXED;
+                        continue;
+                    }
+
+                    if (child == 0) {
+                        childState = tile.state;
+                    } else if (tile.state != childState) {
+                        childState = MIXED;
+                    }
+
+                    copyQuadrant(tile.half, pixels, (child & 1) * HALF_TILE_SIZE, (child >>> 1) * HALF_TILE_SIZE);
+                }
+
+                state = childState;
+            }
+
+            final Path path = exporter.tilePath(this.directory, this.level, this.tileX, this.tileY);
+
+            if (state == MIXED) {
+                exporter.write(path, encodePng(pixels, exporter.compressionLevel));
+
+                return this.level > 0 ? new Tile(downsample(pixels), MIXED) : null;
+            }
+
+            // Gezeichnet wurde die Kachel trotzdem, weil ihr Zustand erst danach feststeht. Kodiert wird sie nur einmal.
+            final UniformTile uniform = exporter.uniformTiles.computeIfAbsent(this.level * FieldState.values().length + state, key -> new UniformTile(encodePng(pixels, exporter.compressionLevel), downsample(pixels)));
+
+            exporter.write(path, uniform.png);
+            exporter.uniformTilesWritten.increment();
+
+            return new Tile(uniform.half, state);
+        }
+    }
+
+    /**
+     * Zeichnet eine Kachel der tiefsten Ebene. Die Zustände werden in einem Zug unter der Sperre gelesen, gezeichnet
+     * wird ohne Sperre.
+     *
+     * @return der Zustand aller Felder der Kachel oder {@link #MIXED}, auch wenn sie über den Rand des Spielfelds
+     * hinausragt
+     */
+    private int renderCells(int tileX, int tileY, int[] pixels) {
+        final int left = this.minX + tileX * this.cellsPerTile;
+        final int top = this.minY + tileY * this.cellsPerTile;
+        final int columns = (int) Math.min(this.cellsPerTile, (long) this.maxX - left + 1);
+        final int rows = (int) Math.min(this.cellsPerTile, (long) this.maxY - top + 1);
+        final byte[] states = new byte[this.cellsPerTile * this.cellsPerTile];
+
+        synchronized (this.gameLogic) {
+            for (int row = 0; row < rows; ++row) {
+                for (int column = 0; column < columns; ++column) {
+                    states[row * this.cellsPerTile + column] = (byte) this.gameLogic.fieldInfoAt(left + column, top + row).ordinal();
+                }
+            }
+        }
+
+        int state = columns == this.cellsPerTile && rows == this.cellsPerTile ? states[0] : MIXED;
+
+        // Felder außerhalb des Spielfelds bleiben schwarz wie FieldState.NONE.
+        for (int row = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column) {
+                final int cellState = states[row * this.cellsPerTile + column];
+                final int[] texture = this.texturePixels[cellState];
+                int offset = row * this.cellSize * TILE_SIZE + column * this.cellSize;
+
+                if (cellState != state) {
+                    state = MIXED;
+                }
+
+                for (int y = 0; y < this.cellSize; ++y) {
+                    System.arraycopy(texture, y * this.cellSize, pixels, offset, this.cellSize);
+                    offset += TILE_SIZE;
+                }
+            }
+        }
+
+        return state;
+    }
+
+    private Path tilePath(Path directory, int level, int tileX, int tileY) {
+        return directory.resolve(Integer.toString(level)).resolve(Integer.toString(tileX)).resolve(tileY + ".png");
+    }
+
+    private void write(Path path, byte[] png) {
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.tilesWritten.increment();
+    }
+
+    /**
+     * Kodiert eine Kachel als PNG mit 8 Bit pro Farbkanal. Jede Zeile wird gegen die darüber gefiltert, das ist
+     * bei den sich wiederholenden Texturen kaum schlechter als die adaptive Filterwahl von {@code ImageIO}, aber
+     * deutlich schneller.
+     */
+    private static byte[] encodePng(int[] pixels, int compressionLevel) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(8192);
+        final Deflater deflater = new Deflater(compressionLevel);
+
+        try (DeflaterOutputStream output = new DeflaterOutputStream(compressed, deflater, 16384)) {
+            byte[] previous = new byte[TILE_SIZE * 3];
+            byte[] current = new byte[TILE_SIZE * 3];
+            final byte[] filtered = new byte[1 + TILE_SIZE * 3];
+
+            // Filter "Up"
+            filtered[0] = 2;
+
+            for (int y = 0; y < TILE_SIZE; ++y) {
+                for (int x = 0; x < TILE_SIZE; ++x) {
+                    final int pixel = pixels[y * TILE_SIZE + x];
+
+                    current[3 * x] = (byte) (pixel >>> 16);
+                    current[3 * x + 1] = (byte) (pixel >>> 8);
+                    current[3 * x + 2] = (byte) pixel;
+                }
+
+                for (int index = 0; index < current.length; ++index) {
+                    filtered[1 + index] = (byte) (current[index] - previous[index]);
+                }
+
+                output.write(filtered);
+
+                final byte[] swap = previous;
+
+                previous = current;
+                current = swap;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+
+        final ByteArrayOutputStream png = new ByteArrayOutputStream(compressed.size() + 64);
+
+        try (DataOutputStream output = new DataOutputStream(png)) {
+            output.write(PNG_SIGNATURE);
+
+            final ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+            final DataOutputStream headerOutput = new DataOutputStream(header);
+
+            headerOutput.writeInt(TILE_SIZE);
+            headerOutput.writeInt(TILE_SIZE);
+            // 8 Bit, RGB, Deflate, Filter pro Zeile, ohne Interlacing
+            headerOutput.write(new byte[]{8, 2, 0, 0, 0});
+
+            writeChunk(output, "IHDR", header.toByteArray());
+            writeChunk(output, "IDAT", compressed.toByteArray());
+            writeChunk(output, "IEND", new byte[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return png.toByteArray();
+    }
+
+    private static void writeChunk(DataOutputStream output, String type, byte[] data) throws IOException {
+        final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        final CRC32 crc = new CRC32();
+
+        crc.update(typeBytes);
+        crc.update(data);
+
+        output.writeInt(data.length);
+        output.write(typeBytes);
+        output.write(data);
+        output.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Mittelt je 2x2 Pixel pro Farbkanal.
+     */
+    private static int[] downsample(int[] pixels) {
+        final int[] half = new int[HALF_TILE_SIZE * HALF_TILE_SIZE];
+
+        for (int y = 0; y < HALF_TILE_SIZE; ++y) {
+            final int upper = 2 * y * TILE_SIZE;
+            final int lower = upper + TILE_SIZE;
+
+            for (int x = 0; x < HALF_TILE_SIZE; ++x) {
+                final int a = pixels[upper + 2 * x];
+                final int b = pixels[upper + 2 * x + 1];
+                final int c = pixels[lower + 2 * x];
+                final int d = pixels[lower + 2 * x + 1];
+
+                // Rot und Blau gemeinsam, Grün getrennt, damit die Summen nicht in den Nachbarkanal überlaufen.
+                final int redBlue = ((a & 0xFF00FF) + (b & 0xFF00FF) + (c & 0xFF00FF) + (d & 0xFF00FF) + 0x020002) >>> 2 & 0xFF00FF;
+                final int green = ((a & 0x00FF00) + (b & 0x00FF00) + (c & 0x00FF00) + (d & 0x00FF00) + 0x000200) >>> 2 & 0x00FF00;
+
+                half[y * HALF_TILE_SIZE + x] = redBlue | green;
+            }
+        }
+
+        return half;
+    }
+
+    private static void copyQuadrant(int[] half, int[] pixels, int left, int top) {
+        for (int y = 0; y < HALF_TILE_SIZE; ++y) {
+            System.arraycopy(half, y * HALF_TILE_SIZE, pixels, (top + y) * TILE_SIZE + left, HALF_TILE_SIZE);
+        }
+    }
+
+    /**
+     * Exportiert einen mit {@link Snapshot} gespeicherten Spielstand.
+     * <p>
+     * Aufruf: {@code TileExporter <snapshot> <directory> [cell size] [threads] [compression level]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TileExporter <snapshot> <directory> [cell size] [threads] [compression level]");
+            System.exit(1);
+        }
+
+        final GameLogic gameLogic = Snapshot.load(Path.of(args[0]));
+        final int cellSize = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        final TileExporter exporter = new TileExporter(gameLogic, Textures.loadAsync().join(), cellSize);
+
+        if (args.length > 4) {
+            exporter.setCompressionLevel(Integer.parseInt(args[4]));
+        }
+
+        final long start = System.nanoTime();
+
+        exporter.export(Path.of(args[1]), threads);
+
+        System.out.printf("%d tiles (%d uniform) on %d levels in %.1f s%n", exporter.tilesWritten(), exporter.uniformTilesWritten(), exporter.maxLevel() + 1, (System.nanoTime() - start) / 1e9);
+    }
+}
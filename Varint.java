@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Ganzzahlen mit variabler Länge: sieben Bits pro Byte, das oberste Bit kündigt ein weiteres Byte an. Kleine Werte
+ * brauchen so ein Byte. Vorzeichenbehaftete Werte werden vorher mit {@link #zigzag(int)} abgebildet, damit auch
+ * kleine negative Abstände kurz bleiben.
+ */
+public final class Varint {
+    /**
+     * Rückgabe von {@link #get(ByteBuffer)}, wenn die Daten vor dem Ende der Zahl enden.
+     */
+    public static final long INCOMPLETE = -1L;
+
+    private Varint() {
+    }
+
+    /**
+     * Schreibt einen nicht negativen Wert.
+     */
+    public static void put(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * @return den gelesenen Wert oder {@link #INCOMPLETE}
+     * @throws IOException wenn die Zahl länger als 64 Bit ist
+     */
+    public static long get(ByteBuffer buffer) throws IOException {
+        long value = 0L;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return INCOMPLETE;
+            }
+
+            final byte next = buffer.get();
+
+            value |= (long) (next & 0x7F) << shift;
+
+            if (next >= 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Corrupt varint, longer than 64 bits");
+    }
+
+    public static long zigzag(int value) {
+        return Integer.toUnsignedLong(value << 1 ^ value >> 31);
+    }
+
+    public static int unzigzag(long value) {
+        final int bits = (int) value;
+
+        return bits >>> 1 ^ -(bits & 1);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Unveränderlicher Stand der Ansicht, aus dem ein Bild gezeichnet wird. Die Eingabeverarbeitung veröffentlicht
+ * nach jeder Änderung einen neuen Stand, damit das Zeichnen nie eine halb verschobene Ansicht sieht.
+ */
+public final class ViewSnapshot {
+    private final float left;
+    private final float top;
+    private final float right;
+    private final float bottom;
+
+    private final int mouseCoordinateX;
+    private final int mouseCoordinateY;
+
+    public ViewSnapshot(float left, float top, float right, float bottom, int mouseCoordinateX, int mouseCoordinateY) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.mouseCoordinateX = mouseCoordinateX;
+        this.mouseCoordinateY = mouseCoordinateY;
+    }
+
+    public float left() {
+        return this.left;
+    }
+
+    public float top() {
+        return this.top;
+    }
+
+    public float right() {
+        return this.right;
+    }
+
+    public float bottom() {
+        return this.bottom;
+    }
+
+    public int mouseCoordinateX() {
+        return this.mouseCoordinateX;
+    }
+
+    public int mouseCoordinateY() {
+        return this.mouseCoordinateY;
+    }
+
+    public float width() {
+        return this.right - this.left;
+    }
+
+    public float height() {
+        return this.bottom - this.top;
+    }
+
+    public float originX(int canvasWidth) {
+        return -this.left / this.width() * canvasWidth;
+    }
+
+    public float originY(int canvasHeight) {
+        return -this.top / this.height() * canvasHeight;
+    }
+
+    public int leftMostVisibleColumn() {
+        return (int) Math.ceil(this.left) - 1;
+    }
+
+    public int rightMostVisibleColumn() {
+        return (int) Math.floor(this.right) + 1;
+    }
+
+    public int topMostVisibleRow() {
+        return (int) Math.ceil(this.top) - 1;
+    }
+
+    public int bottomMostVisibleRow() {
+        return (int) Math.floor(this.bottom) + 1;
+    }
+
+    /**
+     * Prüft, ob sich dieser Stand von den angegebenen Werten unterscheidet.
+     */
+    public boolean differs(float left, float top, float right, float bottom, int mouseCoordinateX, int mouseCoordinateY) {
+        return this.left != left || this.top != top || this.right != right || this.bottom != bottom
+                || this.mouseCoordinateX != mouseCoordinateX || this.mouseCoordinateY != mouseCoordinateY;
+    }
+}
@@ -0,0 +1,198 @@
+import bench.Workload;
+import bench.WorkloadFactory;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+/**
+ * Die gemessenen Abläufe. Liegt wie das Spiel im Standardpaket und kann deshalb dessen Klassen direkt verwenden.
+ */
+public class Workloads implements WorkloadFactory {
+    private static final int SEED = 92161842;
+
+    @Override
+    public Workload generateSquareGame(int size, int spacesPerBomb) {
+        final GameLogic gameLogic = new GameLogic();
+        gameLogic.setSeed(SEED);
+
+        return () -> {
+            gameLogic.generateSquareGame(size, size, size * size / spacesPerBomb);
+            return gameLogic.fieldInfoAt(size / 2, size / 2).ordinal();
+        };
+    }
+
+    @Override
+    public Workload fieldInfoViewport(int boardSize, int viewportSize) {
+        final GameLogic gameLogic = new GameLogic();
+        gameLogic.setSeed(SEED);
+        gameLogic.generateSquareGame(boardSize, boardSize, boardSize * boardSize / 8);
+
+        final int left = (boardSize - viewportSize) / 2;
+        final int top = (boardSize - viewportSize) / 2;
+
+        // Einige Gebiete aufdecken, damit alle Zustände vorkommen.
+        final SplittableRandom random = new SplittableRandom(SEED);
+
+        for (int click = 0; click < viewportSize; ++click) {
+            final int x = left + random.nextInt(viewportSize);
+            final int y = top + random.nextInt(viewportSize);
+
+            if (gameLogic.fieldInfoAt(x, y) == FieldState.BLANK) {
+                gameLogic.reveal(x, y, null);
+            }
+        }
+
+        return () -> {
+            int sum = 0;
+
+            for (int y = top; y < top + viewportSize; ++y) {
+                for (int x = left; x < left + viewportSize; ++x) {
+                    sum += gameLogic.fieldInfoAt(x, y).ordinal();
+                }
+            }
+
+            return sum;
+        };
+    }
+
+    @Override
+    public Workload interactCascade(int boardSize, String mode) {
+        final GameLogic gameLogic = new GameLogic();
+        gameLogic.setSeed(SEED);
+        gameLogic.generateSquareGame(boardSize, boardSize, boardSize * boardSize / 16);
+
+        final long start = openingNear(gameLogic, boardSize / 2, boardSize / 2, boardSize);
+        final int startX = Coordinate.unpackX(start);
+        final int startY = Coordinate.unpackY(start);
+        final LongQueue pending = new LongQueue();
+
+        return new Workload() {
+            @Override
+            public void prepare() {
+                gameLogic.generateSquareGame(boardSize, boardSize, boardSize * boardSize / 16);
+            }
+
+            @Override
+            public int run() {
+                if (mode.equals("reveal")) {
+                    return gameLogic.reveal(startX, startY, null);
+                }
+
+                int interactions = 0;
+
+                pending.clear();
+                pending.add(start);
+
+                while (!pending.isEmpty()) {
+                    final long cell = pending.poll();
+                    final int x = Coordinate.unpackX(cell);
+                    final int y = Coordinate.unpackY(cell);
+                    final int neighborsToReveal = gameLogic.interactAt(x, y);
+
+                    ++interactions;
+
+                    for (int neighbor = 0; neighbor < GameLogic.NEIGHBORS; ++neighbor) {
+                        if ((neighborsToReveal & (1 << neighbor)) != 0) {
+                            pending.add(Coordinate.pack(GameLogic.neighborX(x, neighbor), GameLogic.neighborY(y, neighbor)));
+                        }
+                    }
+                }
+
+                return interactions;
+            }
+        };
+    }
+
+    @Override
+    public Workload proceduralSession(int steps) {
+        final GameLogic gameLogic = new GameLogic();
+        final LongQueue revealedCells = new LongQueue();
+
+        return () -> {
+            gameLogic.setSeed(SEED);
+            gameLogic.generateProceduralGame();
+
+            final SplittableRandom random = new SplittableRandom(SEED);
+
+            revealedCells.clear();
+            gameLogic.reveal(0, 0, revealedCells);
+
+            // Von zufällig gewählten aufgedeckten Feldern aus weiter aufdecken, das Spielfeld wächst dabei nach außen.
+            for (int step = 0; step < steps; ++step) {
+                final long cell = revealedCells.get(random.nextInt(revealedCells.size()));
+                final int neighbor = random.nextInt(GameLogic.NEIGHBORS);
+
+                gameLogic.reveal(GameLogic.neighborX(Coordinate.unpackX(cell), neighbor), GameLogic.neighborY(Coordinate.unpackY(cell), neighbor), revealedCells);
+            }
+
+            return revealedCells.size();
+        };
+    }
+
+    @Override
+    public Workload drawGame(int width, int height, String detail) {
+        // Ohne Aufzeichnung, sonst legte jeder Lauf eine Journaldatei im Arbeitsverzeichnis an.
+        final GameDisplay game = new GameDisplay(Textures.loadAsync(), null);
+        final Canvas canvas = new Canvas();
+        canvas.setSize(width, height);
+
+        final KeyManager keyManager = new KeyManager();
+        final MouseManager mouseManager = new MouseManager();
+
+        keyManager.keyPressed(new KeyEvent(canvas, KeyEvent.KEY_PRESSED, 0L, 0, KeyEvent.VK_N, 'n'));
+        mouseManager.mousePressed(new MouseEvent(canvas, MouseEvent.MOUSE_PRESSED, 0L, 0, width / 2, height / 2, 1, false, MouseEvent.BUTTON1));
+        game.processInput(canvas, keyManager, mouseManager);
+
+        // Jede Raststufe vergrößert die Ansicht um 2 %: ohne Verkleinern werden Felder einzeln gezeichnet, danach aus
+        // zwischengespeicherten Ausschnitten und schließlich aus Detailstufen.
+        final int scrolls = switch (detail) {
+            case "fields" -> 0;
+            case "chunks" -> 110;
+            case "levelOfDetail" -> 230;
+            default -> throw new IllegalArgumentException("unknown detail: " + detail);
+        };
+
+        for (int scroll = 0; scroll < scrolls; ++scroll) {
+            mouseManager.mouseWheelMoved(new MouseWheelEvent(canvas, MouseEvent.MOUSE_WHEEL, 0L, 0, width / 2, height / 2, 0, false, MouseWheelEvent.WHEEL_UNIT_SCROLL, 1, 1));
+            game.processInput(canvas, keyManager, mouseManager);
+        }
+
+        while (game.isAnimating()) {
+            game.update();
+        }
+
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics graphics = image.getGraphics();
+
+        return () -> {
+            game.display(canvas, graphics);
+            return image.getRGB(width / 2, height / 2);
+        };
+    }
+
+    /**
+     * Sucht ausgehend von einem Feld zeilenweise ein Feld ohne Bomben in seiner Umgebung, von dem aus ein leeres
+     * Gebiet aufgedeckt wird.
+     */
+    private static long openingNear(GameLogic gameLogic, int x, int y, int boardSize) {
+        for (int index = y * boardSize + x; index < boardSize * boardSize; ++index) {
+            final int cellX = index % boardSize;
+            final int cellY = index / boardSize;
+            boolean opening = true;
+
+            for (int neighbor = 0; neighbor < GameLogic.NEIGHBORS && opening; ++neighbor) {
+                opening = gameLogic.fieldInfoAt(GameLogic.neighborX(cellX, neighbor), GameLogic.neighborY(cellY, neighbor)) != FieldState.UNREVEALED_BOMB;
+            }
+
+            if (opening && gameLogic.fieldInfoAt(cellX, cellY) == FieldState.BLANK) {
+                return Coordinate.pack(cellX, cellY);
+            }
+        }
+
+        throw new IllegalStateException("no opening on the board");
+    }
+}
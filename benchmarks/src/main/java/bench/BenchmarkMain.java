@@ -0,0 +1,34 @@
+package bench;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Startet JMH und schreibt die Ergebnisse als JSON, damit Läufe verschiedener Commits verglichen werden können.
+ * Ohne eigene Angabe landen sie in {@value #DEFAULT_RESULT_FILE}, alle übrigen Argumente gehen unverändert an JMH.
+ */
+public final class BenchmarkMain {
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final List<String> arguments = new ArrayList<>(Arrays.asList(args));
+
+        if (!arguments.contains("-rf")) {
+            arguments.add("-rf");
+            arguments.add("json");
+        }
+
+        if (!arguments.contains("-rff")) {
+            arguments.add("-rff");
+            arguments.add(DEFAULT_RESULT_FILE);
+        }
+
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
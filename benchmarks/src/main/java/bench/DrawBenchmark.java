@@ -0,0 +1,32 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst ein Bild von {@code GameDisplay} ohne Bildschirm in ein {@code BufferedImage}, je einmal für jeden Weg durch
+ * {@code drawGame}: einzelne Felder, zwischengespeicherte Ausschnitte und Detailstufen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class DrawBenchmark {
+    @Param({"fields", "chunks", "levelOfDetail"})
+    public String detail;
+
+    private Workload workload;
+
+    @Setup
+    public void setup() {
+        this.workload = WorkloadFactory.load().drawGame(1280, 800, this.detail);
+    }
+
+    @Benchmark
+    public int drawGame() {
+        return this.workload.run();
+    }
+}
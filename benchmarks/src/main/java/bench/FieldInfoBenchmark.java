@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FieldInfoBenchmark {
+    @Param({"64", "512"})
+    public int viewportSize;
+
+    private Workload workload;
+
+    @Setup
+    public void setup() {
+        this.workload = WorkloadFactory.load().fieldInfoViewport(2048, this.viewportSize);
+    }
+
+    @Benchmark
+    public int fieldInfoViewport() {
+        return this.workload.run();
+    }
+}
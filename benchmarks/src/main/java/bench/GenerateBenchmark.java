@@ -0,0 +1,31 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerateBenchmark {
+    @Param({"64", "512", "2048"})
+    public int size;
+
+    @Param({"4", "8", "16"})
+    public int spacesPerBomb;
+
+    private Workload workload;
+
+    @Setup
+    public void setup() {
+        this.workload = WorkloadFactory.load().generateSquareGame(this.size, this.spacesPerBomb);
+    }
+
+    @Benchmark
+    public int generateSquareGame() {
+        return this.workload.run();
+    }
+}
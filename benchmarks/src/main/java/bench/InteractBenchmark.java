@@ -0,0 +1,40 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst das Aufdecken eines großen leeren Gebiets, einmal Feld für Feld über {@code interactAt} und einmal in einem
+ * Aufruf von {@code reveal}. Vor jedem Aufruf wird das Spielfeld neu erzeugt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InteractBenchmark {
+    @Param({"256", "1024"})
+    public int boardSize;
+
+    @Param({"interactAt", "reveal"})
+    public String mode;
+
+    private Workload workload;
+
+    @Setup
+    public void setup() {
+        this.workload = WorkloadFactory.load().interactCascade(this.boardSize, this.mode);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        this.workload.prepare();
+    }
+
+    @Benchmark
+    public int cascade() {
+        return this.workload.run();
+    }
+}
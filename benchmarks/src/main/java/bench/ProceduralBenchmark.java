@@ -0,0 +1,31 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst eine lange Sitzung im prozeduralen Modus, in der das Spielfeld mit jedem Aufdecken weiter wächst.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProceduralBenchmark {
+    @Param({"10000", "100000"})
+    public int steps;
+
+    private Workload workload;
+
+    @Setup
+    public void setup() {
+        this.workload = WorkloadFactory.load().proceduralSession(this.steps);
+    }
+
+    @Benchmark
+    public int proceduralSession() {
+        return this.workload.run();
+    }
+}
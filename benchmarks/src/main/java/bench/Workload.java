@@ -0,0 +1,18 @@
+package bench;
+
+/**
+ * Ein gemessener Ablauf. Die Benchmarks liegen in einem Paket, das Spiel aber im Standardpaket, das aus einem Paket
+ * heraus nicht importiert werden kann. Deshalb rufen die Benchmarks das Spiel über diese Schnittstelle auf.
+ */
+public interface Workload {
+    /**
+     * Stellt vor jedem Aufruf von {@link #run()} den Ausgangszustand her, etwa ein frisches Spielfeld.
+     */
+    default void prepare() {
+    }
+
+    /**
+     * @return ein vom Ergebnis abhängiger Wert, damit die Arbeit nicht wegoptimiert wird
+     */
+    int run();
+}
@@ -0,0 +1,25 @@
+package bench;
+
+/**
+ * Legt die gemessenen Abläufe an. Die Umsetzung liegt im Standardpaket neben dem Spiel und wird über ihren Namen
+ * geladen.
+ */
+public interface WorkloadFactory {
+    Workload generateSquareGame(int size, int spacesPerBomb);
+
+    Workload fieldInfoViewport(int boardSize, int viewportSize);
+
+    Workload interactCascade(int boardSize, String mode);
+
+    Workload proceduralSession(int steps);
+
+    Workload drawGame(int width, int height, String detail);
+
+    static WorkloadFactory load() {
+        try {
+            return (WorkloadFactory) Class.forName("Workloads").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Workloads not found on the class path", e);
+        }
+    }
+}
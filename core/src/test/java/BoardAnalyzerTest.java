@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vergleicht {@link BoardAnalyzer} auf vielen kleinen Spielfeldern mit einer schlichten Flutfüllung, die nur
+ * {@link DenseBoard#isBombAt(int, int)} benutzt.
+ */
+class BoardAnalyzerTest {
+    private static final int BOARDS = 500;
+
+    /**
+     * Breite, Höhe und Bomben. Dazu gehören Spielfelder aus einer Zeile oder Spalte, ohne Bomben und mit nur einem
+     * freien Feld.
+     */
+    private static final int[][] SIZES = {
+            {9, 9, 10},
+            {16, 16, 40},
+            {30, 16, 99},
+            {1, 1, 0},
+            {1, 12, 3},
+            {12, 1, 3},
+            {65, 1, 10},
+            {1, 65, 10},
+            {8, 8, 0},
+            {1, 20, 0},
+            {5, 5, 24},
+            {64, 3, 20}
+    };
+
+    @Test
+    void matchesFloodFill() {
+        // Ein Analysator für alle Größen, damit auch das Wiederverwenden der Hilfsfelder geprüft wird.
+        final BoardAnalyzer analyzer = new BoardAnalyzer();
+
+        for (int[] size : SIZES) {
+            for (int seed = 0; seed < BOARDS; ++seed) {
+                final DenseBoard board = new DenseBoard(size[0], size[1]);
+                board.placeBombs(size[2], new SplittableRandom(seed));
+
+                analyzer.analyze(board);
+
+                final int[] expected = floodFill(board);
+                final String message = size[0] + "x" + size[1] + " with " + size[2] + " bombs, seed " + seed;
+
+                assertEquals(expected[0], analyzer.openings(), message);
+                assertEquals(expected[1], analyzer.isolatedNumbers(), message);
+                assertEquals(expected[0] + expected[1], analyzer.threeBV(), message);
+            }
+        }
+    }
+
+    /**
+     * Deckt jede Öffnung wie beim Spielen auf: Die Flut breitet sich über leere Felder aus und nimmt deren Nachbarn
+     * mit. Was danach ohne Bombe verdeckt bleibt, sind die einzelnen Zahlen.
+     *
+     * @return die Anzahl der Öffnungen und der einzelnen Zahlen
+     */
+    private static int[] floodFill(DenseBoard board) {
+        final int width = board.width();
+        final int height = board.height();
+        final boolean[] revealed = new boolean[width * height];
+        final ArrayDeque<int[]> pending = new ArrayDeque<>();
+
+        int openings = 0;
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (revealed[y * width + x] || !isEmpty(board, x, y)) {
+                    continue;
+                }
+
+                ++openings;
+                revealed[y * width + x] = true;
+                pending.add(new int[]{x, y});
+
+                while (!pending.isEmpty()) {
+                    final int[] cell = pending.poll();
+
+                    if (!isEmpty(board, cell[0], cell[1])) {
+                        continue;
+                    }
+
+                    for (int neighborY = cell[1] - 1; neighborY <= cell[1] + 1; ++neighborY) {
+                        for (int neighborX = cell[0] - 1; neighborX <= cell[0] + 1; ++neighborX) {
+                            if (neighborX < 0 || neighborY < 0 || neighborX >= width || neighborY >= height) {
+                                continue;
+                            }
+
+                            if (!revealed[neighborY * width + neighborX]) {
+                                revealed[neighborY * width + neighborX] = true;
+                                pending.add(new int[]{neighborX, neighborY});
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        int isolatedNumbers = 0;
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (!revealed[y * width + x] && !board.isBombAt(x, y)) {
+                    ++isolatedNumbers;
+                }
+            }
+        }
+
+        return new int[]{openings, isolatedNumbers};
+    }
+
+    private static boolean isEmpty(DenseBoard board, int x, int y) {
+        if (board.isBombAt(x, y)) {
+            return false;
+        }
+
+        for (int neighborY = y - 1; neighborY <= y + 1; ++neighborY) {
+            for (int neighborX = x - 1; neighborX <= x + 1; ++neighborX) {
+                if (board.isFieldAt(neighborX, neighborY) && board.isBombAt(neighborX, neighborY)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
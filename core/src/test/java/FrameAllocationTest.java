@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass Spielschritte und Zeichnen im eingeschwungenen Zustand keinen Speicher anfordern. Gemessen wird mit
+ * dem Zähler der JVM für die von einem Thread angeforderten Bytes, aufgebaut wie {@code Workloads.drawGame}.
+ */
+class FrameAllocationTest {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    private static final int WARM_UP_FRAMES = 3_000;
+    private static final int MEASURED_FRAMES = 1_000;
+
+    /**
+     * Was über alle gemessenen Bilder hinweg angefordert werden darf, etwa für Zähler der JVM selbst.
+     */
+    private static final long TOLERATED_BYTES = 1024L;
+
+    @Test
+    void fieldsAllocateNothingPerFrame() {
+        assertFramesAllocateNothing(0);
+    }
+
+    @Test
+    void chunksAllocateNothingPerFrame() {
+        assertFramesAllocateNothing(110);
+    }
+
+    @Test
+    void levelsOfDetailAllocateNothingPerFrame() {
+        assertFramesAllocateNothing(230);
+    }
+
+    /**
+     * @param scrolls Raststufen, um die die Ansicht vor der Messung vergrößert wird, siehe {@code Workloads.drawGame}
+     */
+    private static void assertFramesAllocateNothing(int scrolls) {
+        final GameDisplay game = new GameDisplay(Textures.loadAsync(), null);
+        final Canvas canvas = new Canvas();
+        canvas.setSize(WIDTH, HEIGHT);
+
+        final KeyManager keyManager = new KeyManager();
+        final MouseManager mouseManager = new MouseManager();
+
+        keyManager.keyPressed(new KeyEvent(canvas, KeyEvent.KEY_PRESSED, 0L, 0, KeyEvent.VK_N, 'n'));
+        mouseManager.mousePressed(new MouseEvent(canvas, MouseEvent.MOUSE_PRESSED, 0L, 0, WIDTH / 2, HEIGHT / 2, 1, false, MouseEvent.BUTTON1));
+        game.processInput(canvas, keyManager, mouseManager);
+
+        for (int scroll = 0; scroll < scrolls; ++scroll) {
+            mouseManager.mouseWheelMoved(new MouseWheelEvent(canvas, MouseEvent.MOUSE_WHEEL, 0L, 0, WIDTH / 2, HEIGHT / 2, 0, false, MouseWheelEvent.WHEEL_UNIT_SCROLL, 1, 1));
+            game.processInput(canvas, keyManager, mouseManager);
+        }
+
+        while (game.isAnimating()) {
+            game.update();
+        }
+
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        final Graphics graphics = image.getGraphics();
+
+        // Bis alle Zwischenspeicher gefüllt und die Schleifen übersetzt sind.
+        for (int frame = 0; frame < WARM_UP_FRAMES; ++frame) {
+            frame(game, canvas, graphics, keyManager, mouseManager);
+        }
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+
+        final long before = threads.getThreadAllocatedBytes(thread);
+
+        for (int frame = 0; frame < MEASURED_FRAMES; ++frame) {
+            frame(game, canvas, graphics, keyManager, mouseManager);
+        }
+
+        final long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        graphics.dispose();
+
+        assertTrue(allocated <= TOLERATED_BYTES, allocated + " bytes allocated over " + MEASURED_FRAMES + " frames");
+    }
+
+    private static void frame(GameDisplay game, Canvas canvas, Graphics graphics, KeyManager keyManager, MouseManager mouseManager) {
+        game.processInput(canvas, keyManager, mouseManager);
+        game.update();
+        game.beginFrame();
+        game.display(canvas, graphics);
+    }
+}
@@ -0,0 +1,202 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Spricht über die Loopback-Schnittstelle mit einem {@link GameServer} und prüft, was ein Client aus den Antworten
+ * erfährt.
+ */
+class GameServerTest {
+    private static final int SEED = 4711;
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 16;
+    private static final int BOMBS = 40;
+    private static final int WORLD_RADIUS = 32;
+
+    private GameServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        this.server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), GameServer.DEFAULT_IDLE_TIMEOUT);
+        this.server.start();
+    }
+
+    @AfterEach
+    void closeServer() throws IOException {
+        this.server.close();
+    }
+
+    @Test
+    void flagReplyDoesNotRevealBombs() throws IOException {
+        final GameLogic reference = new GameLogic();
+        reference.setSeed(SEED);
+        reference.generateSquareGame(WIDTH, HEIGHT, BOMBS);
+
+        try (Client client = new Client(this.server.port())) {
+            client.newGame(SEED, WIDTH, HEIGHT, BOMBS);
+
+            assertFlagRepliesMatch(client, reference::fieldInfoAt, 0, 0, WIDTH, HEIGHT);
+        }
+    }
+
+    @Test
+    void sharedWorldFlagReplyDoesNotRevealBombs() throws IOException {
+        final SharedWorld reference = new SharedWorld(SEED);
+
+        try (Client client = new Client(this.server.port())) {
+            client.newGame(SEED, GameServer.SHARED_WORLD, 0, 0);
+
+            // Felder gibt es erst am Rand des Aufgedeckten, die Referenz deckt dasselbe auf.
+            client.send(GameServer.REVEAL, 0, 0);
+            reference.reveal(0, 0, null);
+
+            assertFlagRepliesMatch(client, reference::fieldInfoAt, -WORLD_RADIUS, -WORLD_RADIUS, 2 * WORLD_RADIUS, 2 * WORLD_RADIUS);
+        }
+    }
+
+    @Test
+    void newGameBeyondCellBudgetIsRefused() throws IOException, InterruptedException {
+        final int cells = WIDTH * HEIGHT;
+
+        try (GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), GameServer.DEFAULT_IDLE_TIMEOUT, 2L * cells)) {
+            server.start();
+
+            try (Client first = new Client(server.port()); Client second = new Client(server.port()); Client third = new Client(server.port())) {
+                first.newGame(SEED, WIDTH, HEIGHT, BOMBS);
+                second.newGame(SEED, WIDTH, HEIGHT, BOMBS);
+
+                // Ein neues Spiel auf derselben Verbindung gibt erst die Felder des alten frei.
+                second.newGame(SEED, WIDTH, HEIGHT, BOMBS);
+
+                assertEquals(2L * cells, server.allocatedCells());
+                assertThrows(IOException.class, () -> third.newGame(SEED, WIDTH, HEIGHT, BOMBS));
+                assertEquals(1L, server.refusedGames());
+
+                // Prozedurale Spiele belegen kein Budget.
+                first.newGame(SEED, 0, 0, 0);
+            }
+
+            try (Client fourth = new Client(server.port())) {
+                final long deadline = System.nanoTime() + 10_000_000_000L;
+
+                // Die übrigen Verbindungen geben ihre Felder auf ihren eigenen Threads frei.
+                while (server.allocatedCells() > 0L && System.nanoTime() - deadline < 0) {
+                    Thread.sleep(10L);
+                }
+
+                fourth.newGame(SEED, WIDTH, HEIGHT, BOMBS);
+                fourth.newGame(SEED, WIDTH, 2 * HEIGHT, BOMBS);
+
+                assertEquals(2L * cells, server.allocatedCells());
+            }
+        }
+    }
+
+    /**
+     * Setzt auf jedes verdeckte Feld des Bereichs eine Flagge, {@code reference} kennt die Bomben. Die Antworten
+     * auf Bomben und auf sichere Felder müssen Byte für Byte gleich sein.
+     */
+    private static void assertFlagRepliesMatch(Client client, BiFunction<Integer, Integer, FieldState> reference, int minX, int minY, int width, int height) throws IOException {
+        byte[] bombReply = null;
+        byte[] safeReply = null;
+
+        for (int y = minY; y < minY + height; ++y) {
+            for (int x = minX; x < minX + width; ++x) {
+                final FieldState state = reference.apply(x, y);
+
+                if (state != FieldState.UNREVEALED_BOMB && state != FieldState.BLANK) {
+                    continue;
+                }
+
+                final byte[] reply = client.send(GameServer.FLAG, x, y);
+
+                if (state == FieldState.UNREVEALED_BOMB) {
+                    bombReply = check(bombReply, reply, x, y);
+                } else {
+                    safeReply = check(safeReply, reply, x, y);
+                }
+            }
+        }
+
+        assertTrue(bombReply != null && safeReply != null, "the area must contain bombs and safe fields");
+        assertArrayEquals(bombReply, safeReply, "a flag reply tells bombs from safe fields");
+    }
+
+    private static byte[] check(byte[] expected, byte[] reply, int x, int y) {
+        if (expected != null) {
+            assertArrayEquals(expected, reply, "flag reply at " + x + ", " + y);
+        }
+
+        return reply;
+    }
+
+    /**
+     * Ein blockierender Client, der Antworten ungedeutet zurückgibt.
+     */
+    private static final class Client implements AutoCloseable {
+        private final SocketChannel channel;
+        private final ByteBuffer request;
+
+        Client(int port) throws IOException {
+            this.channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            this.request = ByteBuffer.allocate(1 + 4 * Integer.BYTES);
+        }
+
+        byte[] newGame(int seed, int width, int height, int bombs) throws IOException {
+            this.request.clear();
+            this.request.put(GameServer.NEW_GAME).putInt(seed).putInt(width).putInt(height).putInt(bombs);
+
+            return this.exchange();
+        }
+
+        byte[] send(byte operation, int x, int y) throws IOException {
+            this.request.clear();
+            this.request.put(operation).putInt(x).putInt(y);
+
+            return this.exchange();
+        }
+
+        /**
+         * @return die Antwort ohne ihr Längenfeld
+         */
+        private byte[] exchange() throws IOException {
+            this.request.flip();
+
+            while (this.request.hasRemaining()) {
+                this.channel.write(this.request);
+            }
+
+            final ByteBuffer length = this.readFully(ByteBuffer.allocate(Integer.BYTES));
+
+            return this.readFully(ByteBuffer.allocate(length.getInt(0))).array();
+        }
+
+        private ByteBuffer readFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer) < 0) {
+                    throw new EOFException();
+                }
+            }
+
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Zeichnet Sitzungen mit einem {@link Journal} auf und prüft, dass {@link Replay} nach jedem Zug denselben Stand
+ * herstellt, auch beim Springen über Zwischenstände hinweg.
+ */
+class ReplayTest {
+    private static final int CHECKPOINT_INTERVAL = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayReproducesEveryMove() throws IOException {
+        final Path path = this.directory.resolve("session.journal");
+        final GameLogic gameLogic = new GameLogic();
+        final SplittableRandom random = new SplittableRandom(7);
+
+        // Der Stand nach jeder Position, Position 0 ist das leere Spiel vor dem ersten Eintrag.
+        final List<byte[]> states = new ArrayList<>();
+        states.add(TestGames.state(gameLogic));
+
+        try (Journal journal = new Journal(path)) {
+            gameLogic.setJournal(journal);
+
+            gameLogic.setSeed(3);
+            gameLogic.generateSquareGame(60, 40, 250);
+            states.add(TestGames.state(gameLogic));
+            record(gameLogic, random, 200, states);
+
+            gameLogic.setSeed(-5);
+            gameLogic.generateProceduralGame();
+            states.add(TestGames.state(gameLogic));
+            record(gameLogic, random, 200, states);
+
+            gameLogic.setSeed(11);
+            gameLogic.generateHashedProceduralGame();
+            states.add(TestGames.state(gameLogic));
+            record(gameLogic, random, 200, states);
+        }
+
+        try (Replay replay = Replay.open(path, this.directory, CHECKPOINT_INTERVAL)) {
+            assertEquals(states.size() - 1, replay.moves());
+
+            replay.play();
+            assertArrayEquals(states.get(replay.moves()), TestGames.state(replay.game()));
+
+            // Rückwärts auf Zwischenstände, knapp daneben, in ein früheres Spiel und vorwärts über Zwischenstände.
+            final int[] moves = {CHECKPOINT_INTERVAL * 5, CHECKPOINT_INTERVAL * 5 + 1, CHECKPOINT_INTERVAL * 3 - 1, 1, 0, 150, replay.moves() - 1, 420};
+
+            for (int move : moves) {
+                replay.seek(move);
+
+                assertEquals(move, replay.position());
+                assertArrayEquals(states.get(move), TestGames.state(replay.game()), "after seeking to move " + move);
+            }
+        }
+    }
+
+    @Test
+    void idleJournalIsWrittenWithoutFurtherMoves() throws IOException, InterruptedException {
+        final Path path = this.directory.resolve("idle.journal");
+
+        try (Journal journal = new Journal(path)) {
+            journal.recordSquareGame(1, 16, 16, 40);
+            journal.recordReveal(3, 4);
+
+            final long deadline = System.nanoTime() + 10_000_000_000L;
+
+            while (Files.size(path) <= 2 * Integer.BYTES && System.nanoTime() - deadline < 0) {
+                Thread.sleep(50L);
+            }
+
+            assertTrue(Files.size(path) > 2 * Integer.BYTES, "the idle buffer was not written");
+        }
+    }
+
+    @Test
+    void journalKeepsEarlierRecording() throws IOException {
+        final Path path = this.directory.resolve("earlier.journal");
+
+        try (Journal journal = new Journal(path)) {
+            journal.recordSquareGame(1, 16, 16, 40);
+        }
+
+        final byte[] recording = Files.readAllBytes(path);
+
+        assertThrows(FileAlreadyExistsException.class, () -> new Journal(path));
+        assertArrayEquals(recording, Files.readAllBytes(path));
+    }
+
+    private static void record(GameLogic gameLogic, SplittableRandom random, int moves, List<byte[]> states) {
+        for (int move = 0; move < moves; ++move) {
+            TestGames.play(gameLogic, random, 1);
+            states.add(TestGames.state(gameLogic));
+        }
+    }
+}
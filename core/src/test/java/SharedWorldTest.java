@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft die gemeinsame Welt gegen {@link GameLogic#generateHashedProceduralGame()} und unter gleichzeitigen,
+ * sich überschneidenden Zügen mehrerer Spieler.
+ */
+class SharedWorldTest {
+    private static final int MOVES = 3_000;
+
+    private static final int PLAYERS = 4;
+    private static final int CONCURRENT_MOVES = 20_000;
+
+    @Test
+    void singlePlayerMatchesHashedProceduralGame() {
+        for (int seed = 1; seed <= 3; ++seed) {
+            final GameLogic gameLogic = new GameLogic();
+            gameLogic.setSeed(seed);
+            gameLogic.generateHashedProceduralGame();
+
+            final SharedWorld world = new SharedWorld(seed);
+            final SplittableRandom random = new SplittableRandom(seed);
+            final LongQueue revealed = new LongQueue();
+            revealed.add(Coordinate.pack(0, 0));
+
+            for (int move = 0; move < MOVES; ++move) {
+                final long cell = revealed.get(random.nextInt(revealed.size()));
+                final int x = Coordinate.unpackX(cell) + random.nextInt(3) - 1;
+                final int y = Coordinate.unpackY(cell) + random.nextInt(3) - 1;
+
+                if (random.nextInt(10) == 0) {
+                    gameLogic.placeFlagAt(x, y);
+                    world.setFlagAt(x, y);
+                } else {
+                    assertEquals(gameLogic.reveal(x, y, revealed), world.reveal(x, y, null), "seed " + seed + ", move " + move);
+                }
+            }
+
+            assertEquals(gameLogic.revealedFields(), world.revealedFields(), "seed " + seed);
+
+            for (int y = gameLogic.minY() - 1; y <= gameLogic.maxY() + 1; ++y) {
+                for (int x = gameLogic.minX() - 1; x <= gameLogic.maxX() + 1; ++x) {
+                    assertEquals(gameLogic.fieldInfoAt(x, y), world.fieldInfoAt(x, y), "seed " + seed + " at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Alle Spieler beginnen am Ursprung und decken in derselben Gegend auf, ihre Kaskaden treffen sich ständig. Jedes Feld darf dabei genau einem Spieler als neu aufgedeckt gemeldet werden.
+     */
+    @Test
+    void overlappingRevealsCountEachFieldOnce() throws InterruptedException {
+        final SharedWorld world = new SharedWorld(7);
+        final LongQueue[] revealed = new LongQueue[PLAYERS];
+        final Thread[] players = new Thread[PLAYERS];
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int player = 0; player < PLAYERS; ++player) {
+            final LongQueue cells = new LongQueue();
+            final SplittableRandom random = new SplittableRandom(player);
+
+            revealed[player] = cells;
+            players[player] = new Thread(() -> {
+                int x = 0;
+                int y = 0;
+
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                // Jeder Spieler irrt über aufgedeckte Felder, gleich wer sie aufgedeckt hat, und deckt dabei Nachbarn auf.
+                for (int move = 0; move < CONCURRENT_MOVES; ++move) {
+                    final int nextX = x + random.nextInt(3) - 1;
+                    final int nextY = y + random.nextInt(3) - 1;
+
+                    world.reveal(nextX, nextY, cells);
+
+                    if (isOpen(world.fieldInfoAt(nextX, nextY))) {
+                        x = nextX;
+                        y = nextY;
+                    }
+                }
+            });
+            players[player].start();
+        }
+
+        start.countDown();
+
+        for (Thread player : players) {
+            player.join();
+        }
+
+        final LongHashSet distinct = new LongHashSet();
+        int reported = 0;
+        long bombs = 0L;
+
+        for (LongQueue cells : revealed) {
+            for (int index = 0; index < cells.size(); ++index) {
+                final long cell = cells.get(index);
+
+                assertTrue(distinct.add(cell), "reported twice: " + Coordinate.unpackX(cell) + ", " + Coordinate.unpackY(cell));
+
+                if (world.fieldInfoAt(Coordinate.unpackX(cell), Coordinate.unpackY(cell)) == FieldState.REVEALED_BOMB) {
+                    ++bombs;
+                }
+            }
+
+            reported += cells.size();
+        }
+
+        // Sonst träfen sich die Kaskaden kaum, und über Chunkgrenzen schon gar nicht.
+        assertTrue(reported > CONCURRENT_MOVES / 2 && world.chunkCount() > 1, "the players barely revealed anything: " + reported);
+        assertEquals(distinct.size() - bombs, world.revealedFields());
+        assertEquals(bombs, world.explosions());
+    }
+
+    private static boolean isOpen(FieldState state) {
+        return state.compareTo(FieldState.EMPTY) >= 0 && state.compareTo(FieldState.EIGHT) <= 0;
+    }
+}
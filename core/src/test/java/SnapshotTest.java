@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Speichert Spiele jeder Art, lädt sie wieder und spielt beide Stände gleich weiter. Stimmen sie auch danach
+ * überein, wurden neben den Ebenen auch Nachbarzähler und Zufallszustand richtig wiederhergestellt.
+ */
+class SnapshotTest {
+    private static final int SEED = 92161842;
+    private static final int MOVES = 300;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void squareGameSurvivesRoundTrip() throws IOException {
+        this.assertRoundTrip(gameLogic -> gameLogic.generateSquareGame(70, 45, 300));
+    }
+
+    @Test
+    void proceduralGameSurvivesRoundTrip() throws IOException {
+        this.assertRoundTrip(GameLogic::generateProceduralGame);
+    }
+
+    @Test
+    void hashedProceduralGameSurvivesRoundTrip() throws IOException {
+        this.assertRoundTrip(GameLogic::generateHashedProceduralGame);
+    }
+
+    private void assertRoundTrip(Consumer<GameLogic> generate) throws IOException {
+        final GameLogic original = new GameLogic();
+        original.setSeed(SEED);
+        generate.accept(original);
+        original.reveal(0, 0, null);
+        TestGames.play(original, new SplittableRandom(1), MOVES);
+
+        final Path path = this.directory.resolve("game.snapshot");
+        Snapshot.save(original, path);
+
+        final GameLogic loaded = Snapshot.load(path);
+
+        assertEquals(original.seed(), loaded.seed());
+        assertEquals(original.isProcedural(), loaded.isProcedural());
+        assertArrayEquals(TestGames.state(original), TestGames.state(loaded));
+
+        TestGames.play(original, new SplittableRandom(2), MOVES);
+        TestGames.play(loaded, new SplittableRandom(2), MOVES);
+
+        assertArrayEquals(TestGames.state(original), TestGames.state(loaded));
+    }
+}
@@ -0,0 +1,48 @@
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Hilfen für Tests, die Spielstände vergleichen.
+ */
+final class TestGames {
+    private TestGames() {
+    }
+
+    /**
+     * Macht {@code moves} zufällige Züge in und knapp um die bekannten Grenzen des Spiels. Jeder Zug ist genau ein
+     * Aufruf, den ein {@link Journal} als einen Eintrag aufzeichnet.
+     */
+    static void play(GameLogic gameLogic, SplittableRandom random, int moves) {
+        for (int move = 0; move < moves; ++move) {
+            final int x = gameLogic.minX() - 1 + random.nextInt(gameLogic.maxX() - gameLogic.minX() + 3);
+            final int y = gameLogic.minY() - 1 + random.nextInt(gameLogic.maxY() - gameLogic.minY() + 3);
+
+            switch (random.nextInt(8)) {
+                case 0 -> gameLogic.setFlagAt(x, y);
+                case 1 -> gameLogic.interactAt(x, y);
+                default -> gameLogic.reveal(x, y, null);
+            }
+        }
+    }
+
+    /**
+     * Fasst alles Sichtbare eines Spiels zusammen: Grenzen, Zähler und den Zustand jedes Feldes darin.
+     */
+    static byte[] state(GameLogic gameLogic) {
+        final int width = gameLogic.maxX() - gameLogic.minX() + 1;
+        final int height = gameLogic.maxY() - gameLogic.minY() + 1;
+        final ByteBuffer state = ByteBuffer.allocate(4 * Integer.BYTES + Long.BYTES + 2 + width * height);
+
+        state.putInt(gameLogic.minX()).putInt(gameLogic.minY()).putInt(gameLogic.maxX()).putInt(gameLogic.maxY());
+        state.putLong(gameLogic.revealedFields());
+        state.put((byte) (gameLogic.isLost() ? 1 : 0)).put((byte) (gameLogic.isWon() ? 1 : 0));
+
+        for (int y = gameLogic.minY(); y <= gameLogic.maxY(); ++y) {
+            for (int x = gameLogic.minX(); x <= gameLogic.maxX(); ++x) {
+                state.put((byte) gameLogic.fieldInfoAt(x, y).ordinal());
+            }
+        }
+
+        return state.array();
+    }
+}